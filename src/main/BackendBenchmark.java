@@ -0,0 +1,74 @@
+package main;
+
+import main.utils.MappedCharStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// usage: BackendBenchmark [--iterations=N] file|directory...
+// Runs every program with every backend N times in this JVM, so that startup and warm-up do not
+// count, and prints the best time of each. Compiling is part of every run. The output of every
+// backend must be the output of the first one, else the program is reported as a mismatch.
+public class BackendBenchmark {
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = DEFAULT_ITERATIONS;
+        List<String> names = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--iterations="))
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            else
+                names.add(arg);
+        }
+        if (names.isEmpty() || iterations < 1)
+            throw new IllegalArgumentException("usage: BackendBenchmark [--iterations=N] file|directory...");
+
+        PrintStream out = System.out;
+        BackendKind[] backends = BackendKind.values();
+        out.printf("%-24s", "program");
+        for (BackendKind backend : backends)
+            out.printf("%18s", backend + " ms");
+        out.println();
+        int mismatches = 0;
+        for (Path source : BatchCompiler.collectSources(names)) {
+            out.printf("%-24s", source.getFileName());
+            String expected = null;
+            boolean matched = true;
+            for (BackendKind backend : backends) {
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < iterations; i++) {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    long start = System.nanoTime();
+                    run(source, backend, new PrintStream(buffer, false));
+                    best = Math.min(best, System.nanoTime() - start);
+                    String output = buffer.toString();
+                    if (expected == null)
+                        expected = output;
+                    else if (!expected.equals(output))
+                        matched = false;
+                }
+                out.printf("%18.1f", best / 1e6);
+            }
+            if (!matched) {
+                out.print("  mismatch");
+                mismatches++;
+            }
+            out.println();
+        }
+        out.flush();
+        if (mismatches > 0)
+            System.exit(1);
+    }
+
+    private static void run(Path source, BackendKind backend, PrintStream out) throws IOException {
+        SimpleLOOPCompiler compiler = new SimpleLOOPCompiler();
+        compiler.setBackend(backend);
+        compiler.compile(MappedCharStream.fromFileName(source.toString()), out, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,10 @@
+package main;
+
+// jvm         -> classes generated in memory and run in this JVM
+// interpreter -> the AST walked directly, after binding every name to a slot, offset or index
+// specializing -> a tree of nodes built from the bound AST, calls and member accesses going through
+//                 inline caches keyed on the class of the receiver
+// vm          -> compiled to register bytecode and run by a switch-dispatch VM
+public enum BackendKind {
+    jvm, interpreter, specializing, vm
+}
@@ -0,0 +1,163 @@
+package main;
+
+import main.utils.MappedCharStream;
+import main.visitor.utils.dump.DumpFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Compiles many files in one JVM. Every file gets its own SimpleLOOPCompiler and
+// output buffer; results are printed in input order once each one is ready.
+public class BatchCompiler {
+    private static final String SOURCE_EXTENSION = ".sl";
+
+    private ParseMode parseMode;
+    private int parallelism;
+    private int errorLimit = 0;
+    private boolean stopEarly = false;
+    private DumpFormat dumpFormat = DumpFormat.text;
+    private boolean lowMemory = false;
+    private LexerKind lexerKind = LexerKind.antlr;
+    private ParserKind parserKind = ParserKind.antlr;
+    private int parseThreads = 1;
+    private int checkThreads = 1;
+
+    public BatchCompiler(ParseMode parseMode, int parallelism) {
+        this.parseMode = parseMode;
+        this.parallelism = parallelism;
+    }
+
+    // applied to every file on its own
+    public void setErrorLimit(int errorLimit) {
+        this.errorLimit = errorLimit;
+    }
+
+    public void setStopEarly(boolean stopEarly) {
+        this.stopEarly = stopEarly;
+    }
+
+    public void setLexerKind(LexerKind lexerKind) {
+        this.lexerKind = lexerKind;
+    }
+
+    public void setParserKind(ParserKind parserKind) {
+        this.parserKind = parserKind;
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public void setCheckThreads(int checkThreads) {
+        this.checkThreads = checkThreads;
+    }
+
+    public void setLowMemory(boolean lowMemory) {
+        this.lowMemory = lowMemory;
+    }
+
+    // per-file output is collected as text, so binary dumps are not supported here
+    public void setDumpFormat(DumpFormat dumpFormat) {
+        if (dumpFormat == DumpFormat.binary)
+            throw new IllegalArgumentException("binary AST dumps need a single input file and --dump-file");
+        this.dumpFormat = dumpFormat;
+    }
+
+    private static class Result {
+        String fileName;
+        String output;
+        int numberOfErrors;
+        long tokens;
+        int llFallbacks;
+    }
+
+    // files are compiled as given, directories are searched for .sl files in path order
+    public static List<Path> collectSources(List<String> names) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        for (String name : names) {
+            Path path = Paths.get(name);
+            if (!Files.isDirectory(path)) {
+                sources.add(path);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                sources.addAll(walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(SOURCE_EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        return sources;
+    }
+
+    private Result compileFile(Path source) {
+        Result result = new Result();
+        result.fileName = source.toString();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false);
+        SimpleLOOPCompiler compiler = new SimpleLOOPCompiler(parseMode);
+        compiler.setErrorLimit(errorLimit);
+        compiler.setStopEarly(stopEarly);
+        compiler.setDumpFormat(dumpFormat);
+        compiler.setLowMemory(lowMemory);
+        compiler.setLexerKind(lexerKind);
+        compiler.setParserKind(parserKind);
+        compiler.setParseThreads(parseThreads);
+        compiler.setCheckThreads(checkThreads);
+        try {
+            result.numberOfErrors = compiler.compile(MappedCharStream.fromFileName(result.fileName), out, out);
+        } catch (IOException | RuntimeException e) {
+            out.println("Could not compile " + result.fileName + ": " + e);
+            result.numberOfErrors = Math.max(result.numberOfErrors, 1);
+        }
+        out.flush();
+        result.output = buffer.toString();
+        result.tokens = compiler.getParsedTokens();
+        result.llFallbacks = compiler.getLLFallbacks();
+        return result;
+    }
+
+    // returns the number of files that had errors
+    public int compileAll(List<Path> sources, PrintStream out, boolean parseReport) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>();
+        for (Path source : sources)
+            tasks.add(pool.submit(() -> compileFile(source)));
+
+        int failedFiles = 0;
+        int llFallbacks = 0;
+        long tokens = 0;
+        try {
+            for (ForkJoinTask<Result> task : tasks) {
+                Result result = task.join();
+                out.println("==> " + result.fileName + " <==");
+                out.print(result.output);
+                if (result.numberOfErrors > 0)
+                    failedFiles++;
+                llFallbacks += result.llFallbacks;
+                tokens += result.tokens;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        out.println();
+        out.printf("Compiled %d file(s), %d with errors, in %.3f s: %.1f files/s, %.0f tokens/s%n",
+                sources.size(), failedFiles, seconds, sources.size() / seconds, tokens / seconds);
+        if (parseReport)
+            SimpleLOOPCompiler.printParseReport(out, parseMode, sources.size(), llFallbacks);
+        out.flush();
+        return failedFiles;
+    }
+}
@@ -0,0 +1,68 @@
+package main;
+
+import main.ast.names.NameTable;
+import main.ast.types.TypeFactory;
+import main.compileError.Diagnostics;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.utils.stack.Stack;
+
+// State owned by a single compilation, so several compilations can run in one JVM
+public class CompilationContext {
+    private NameTable names = new NameTable();
+    private TypeFactory typeFactory = new TypeFactory();
+    private Diagnostics diagnostics;
+    private SymbolTable root;
+    private SymbolTable top;
+    private Stack<SymbolTable> stack = new Stack<>();
+
+    public CompilationContext() {
+        this(new Diagnostics());
+    }
+
+    public CompilationContext(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    // same names, types and symbol tables, errors go to diagnostics
+    public CompilationContext withDiagnostics(Diagnostics diagnostics) {
+        CompilationContext context = new CompilationContext(diagnostics);
+        context.names = names;
+        context.typeFactory = typeFactory;
+        context.root = root;
+        return context;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public TypeFactory getTypeFactory() {
+        return typeFactory;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    public SymbolTable getRoot() {
+        return root;
+    }
+
+    public void setRoot(SymbolTable root) {
+        this.root = root;
+    }
+
+    public SymbolTable getTop() {
+        return top;
+    }
+
+    public void push(SymbolTable symbolTable) {
+        if (top != null)
+            stack.push(top);
+        top = symbolTable;
+    }
+
+    public void pop() {
+        top = stack.pop();
+    }
+}
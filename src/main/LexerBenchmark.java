@@ -0,0 +1,122 @@
+package main;
+
+import main.lexer.SimpleLOOPDirectLexer;
+import main.utils.MappedCharStream;
+import main.utils.StreamErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import parsers.SimpleLOOPLexer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// usage: LexerBenchmark [--iterations=N] file|directory...
+// Lexes every program with SimpleLOOPLexer and SimpleLOOPDirectLexer N times in this JVM and
+// prints the best time of each. The direct lexer must give the same tokens (type, text, channel,
+// line, column and character range) and the same errors, else the program is reported as a
+// mismatch with the first token that differs.
+public class LexerBenchmark {
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = DEFAULT_ITERATIONS;
+        List<String> names = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--iterations="))
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            else
+                names.add(arg);
+        }
+        if (names.isEmpty() || iterations < 1)
+            throw new IllegalArgumentException("usage: LexerBenchmark [--iterations=N] file|directory...");
+
+        PrintStream out = System.out;
+        out.printf("%-24s%10s%18s%18s%10s%n", "program", "tokens", "antlr ms", "direct ms", "speedup");
+        int mismatches = 0;
+        for (Path source : BatchCompiler.collectSources(names)) {
+            CharStream input = MappedCharStream.fromFileName(source.toString());
+            Tokens direct = lex(input, LexerKind.direct);
+            String difference = firstDifference(lex(input, LexerKind.antlr), direct);
+            long antlrTime = bestTime(input, LexerKind.antlr, iterations);
+            long directTime = bestTime(input, LexerKind.direct, iterations);
+            out.printf("%-24s%10d%18.2f%18.2f%9.1fx", source.getFileName(), direct.tokens.size(),
+                    antlrTime / 1e6, directTime / 1e6, (double) antlrTime / Math.max(directTime, 1));
+            if (difference != null) {
+                out.print("  mismatch: " + difference);
+                mismatches++;
+            }
+            out.println();
+        }
+        out.flush();
+        if (mismatches > 0)
+            System.exit(1);
+    }
+
+    private static class Tokens {
+        final List<Token> tokens = new ArrayList<>();
+        String errors;
+    }
+
+    private static Lexer createLexer(CharStream input, LexerKind kind) {
+        input.seek(0);
+        Lexer lexer = kind == LexerKind.direct ? new SimpleLOOPDirectLexer(input) : new SimpleLOOPLexer(input);
+        lexer.removeErrorListeners();
+        return lexer;
+    }
+
+    // every token up to and including EOF, and the errors as the compiler prints them
+    private static Tokens lex(CharStream input, LexerKind kind) {
+        Lexer lexer = createLexer(input, kind);
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        lexer.addErrorListener(new StreamErrorListener(new PrintStream(errors, true)));
+        Tokens result = new Tokens();
+        Token token;
+        do {
+            token = lexer.nextToken();
+            result.tokens.add(token);
+        } while (token.getType() != Token.EOF);
+        result.errors = errors.toString();
+        return result;
+    }
+
+    private static long bestTime(CharStream input, LexerKind kind, int iterations) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            Lexer lexer = createLexer(input, kind);
+            long start = System.nanoTime();
+            while (lexer.nextToken().getType() != Token.EOF) {
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    // null when the direct lexer agrees with the generated one
+    private static String firstDifference(Tokens expected, Tokens actual) {
+        int count = Math.min(expected.tokens.size(), actual.tokens.size());
+        for (int i = 0; i < count; i++) {
+            if (!describe(expected.tokens.get(i)).equals(describe(actual.tokens.get(i))))
+                return "token " + i + " is " + describe(actual.tokens.get(i))
+                        + " instead of " + describe(expected.tokens.get(i));
+        }
+        if (expected.tokens.size() != actual.tokens.size())
+            return actual.tokens.size() + " tokens instead of " + expected.tokens.size();
+        if (!expected.errors.equals(actual.errors))
+            return "different errors";
+        return null;
+    }
+
+    // IDENTIFIER 'x' at 3:4 [40..40]
+    private static String describe(Token token) {
+        String type = token.getType() == Token.EOF ? "EOF"
+                : SimpleLOOPLexer.VOCABULARY.getSymbolicName(token.getType());
+        return type + " '" + token.getText() + "' at " + token.getLine() + ":" + token.getCharPositionInLine()
+                + " [" + token.getStartIndex() + ".." + token.getStopIndex() + "]"
+                + (token.getChannel() == Token.DEFAULT_CHANNEL ? "" : " on channel " + token.getChannel());
+    }
+}
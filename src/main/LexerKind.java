@@ -0,0 +1,7 @@
+package main;
+
+// antlr  -> generated SimpleLOOPLexer
+// direct -> hand-written SimpleLOOPDirectLexer, same tokens without the ATN simulation
+public enum LexerKind {
+    antlr, direct
+}
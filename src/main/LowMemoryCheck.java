@@ -0,0 +1,72 @@
+package main;
+
+import main.utils.MappedCharStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// usage: LowMemoryCheck file|directory...
+// Compiles every program in the normal and in the low-memory mode, with each lexer and parser,
+// and compares what the two modes print: the AST dump, or the errors. A program whose outputs
+// differ is reported as a mismatch with the first line that differs.
+public class LowMemoryCheck {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("usage: LowMemoryCheck file|directory...");
+
+        PrintStream out = System.out;
+        int mismatches = 0;
+        int checked = 0;
+        for (Path source : BatchCompiler.collectSources(List.of(args))) {
+            for (LexerKind lexerKind : LexerKind.values()) {
+                for (ParserKind parserKind : ParserKind.values()) {
+                    String expected = compile(source, lexerKind, parserKind, false);
+                    String actual = compile(source, lexerKind, parserKind, true);
+                    checked++;
+                    if (expected.equals(actual))
+                        continue;
+                    out.println(source + " (lexer " + lexerKind + ", parser " + parserKind + "): mismatch");
+                    out.println(firstDifference(expected, actual));
+                    mismatches++;
+                }
+            }
+        }
+        out.println(checked + " compilation(s) compared, " + mismatches + " mismatch(es)");
+        out.flush();
+        if (mismatches > 0)
+            System.exit(1);
+    }
+
+    private static String compile(Path source, LexerKind lexerKind, ParserKind parserKind, boolean lowMemory)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false);
+        SimpleLOOPCompiler compiler = new SimpleLOOPCompiler();
+        compiler.setLexerKind(lexerKind);
+        compiler.setParserKind(parserKind);
+        compiler.setLowMemory(lowMemory);
+        compiler.compile(MappedCharStream.fromFileName(source.toString()), out, out);
+        out.flush();
+        return buffer.toString();
+    }
+
+    // "line 12: normal ... / low-memory ...", where a missing line is empty
+    private static String firstDifference(String expected, String actual) {
+        String[] expectedLines = expected.split("\\R", -1);
+        String[] actualLines = actual.split("\\R", -1);
+        int line = 0;
+        while (line < expectedLines.length && line < actualLines.length
+                && expectedLines[line].equals(actualLines[line]))
+            line++;
+        return "  line " + (line + 1) + ": normal     " + lineAt(expectedLines, line) + System.lineSeparator()
+                + "  line " + (line + 1) + ": low-memory " + lineAt(actualLines, line);
+    }
+
+    private static String lineAt(String[] lines, int line) {
+        return line < lines.length ? lines[line] : "";
+    }
+}
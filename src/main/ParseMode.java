@@ -0,0 +1,8 @@
+package main;
+
+// sll  -> SLL prediction only
+// ll   -> full LL prediction only
+// auto -> SLL first, full LL only when the SLL attempt fails
+public enum ParseMode {
+    sll, ll, auto
+}
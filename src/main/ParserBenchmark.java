@@ -0,0 +1,120 @@
+package main;
+
+import main.ast.nodes.Program;
+import main.parser.SimpleLOOPDirectParser;
+import main.utils.MappedCharStream;
+import main.visitor.nameAnalyzer.ASTTreePrinter;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import parsers.SimpleLOOPLexer;
+import parsers.SimpleLOOPParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// usage: ParserBenchmark [--iterations=N] file|directory...
+// Parses every program from the same tokens with SimpleLOOPParser, as the compiler does in the
+// auto parse mode, and with SimpleLOOPDirectParser, N times each in this JVM, and prints the best
+// time of each. Lexing is not timed. The two ASTs must dump the same, else the program is reported
+// as a mismatch; a program one of the parsers rejects is reported as such and not compared.
+public class ParserBenchmark {
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = DEFAULT_ITERATIONS;
+        List<String> names = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--iterations="))
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            else
+                names.add(arg);
+        }
+        if (names.isEmpty() || iterations < 1)
+            throw new IllegalArgumentException("usage: ParserBenchmark [--iterations=N] file|directory...");
+
+        PrintStream out = System.out;
+        out.printf("%-24s%10s%18s%18s%10s%n", "program", "tokens", "antlr ms", "direct ms", "speedup");
+        int mismatches = 0;
+        for (Path source : BatchCompiler.collectSources(names)) {
+            Lexer lexer = new SimpleLOOPLexer(MappedCharStream.fromFileName(source.toString()));
+            lexer.removeErrorListeners();
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            tokens.fill();
+            out.printf("%-24s%10d", source.getFileName(), tokens.size());
+
+            Program antlrProgram = parse(tokens, ParserKind.antlr);
+            Program directProgram = parse(tokens, ParserKind.direct);
+            if (antlrProgram == null || directProgram == null) {
+                out.println("  rejected by " + (antlrProgram == null ? "SimpleLOOPParser" : "SimpleLOOPDirectParser"));
+                continue;
+            }
+            long antlrTime = bestTime(tokens, ParserKind.antlr, iterations);
+            long directTime = bestTime(tokens, ParserKind.direct, iterations);
+            out.printf("%18.2f%18.2f%9.1fx", antlrTime / 1e6, directTime / 1e6,
+                    (double) antlrTime / Math.max(directTime, 1));
+            if (!dump(antlrProgram).equals(dump(directProgram))) {
+                out.print("  mismatch");
+                mismatches++;
+            }
+            out.println();
+        }
+        out.flush();
+        if (mismatches > 0)
+            System.exit(1);
+    }
+
+    // null when the parser rejects the program
+    private static Program parse(CommonTokenStream tokens, ParserKind kind) {
+        tokens.seek(0);
+        CompilationContext context = new CompilationContext();
+        try {
+            if (kind == ParserKind.direct) {
+                SimpleLOOPDirectParser parser = new SimpleLOOPDirectParser(tokens);
+                parser.setNames(context.getNames());
+                parser.setTypeFactory(context.getTypeFactory());
+                return parser.parse();
+            }
+            SimpleLOOPParser parser = new SimpleLOOPParser(tokens);
+            parser.removeErrorListeners();
+            parser.setNames(context.getNames());
+            parser.setTypeFactory(context.getTypeFactory());
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            try {
+                return parser.simpleLOOP().simpleLOOPProgram;
+            } catch (ParseCancellationException e) {
+                tokens.seek(0);
+                parser.reset();
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                return parser.simpleLOOP().simpleLOOPProgram;
+            }
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    private static long bestTime(CommonTokenStream tokens, ParserKind kind, int iterations) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            parse(tokens, kind);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static String dump(Program program) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false);
+        program.accept(new ASTTreePrinter(out));
+        out.flush();
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,7 @@
+package main;
+
+// antlr  -> generated SimpleLOOPParser
+// direct -> hand-written SimpleLOOPDirectParser, same AST; inputs it cannot parse go to SimpleLOOPParser
+public enum ParserKind {
+    antlr, direct
+}
@@ -0,0 +1,141 @@
+package main;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.statement.Statement;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetMerge;
+import main.backend.interpreter.Interpreter;
+import main.backend.jvm.CodeGenerator;
+import main.backend.specializing.SpecializingInterpreter;
+import main.backend.vm.BytecodeCompiler;
+import main.runtime.RuntimeError;
+import main.visitor.binder.Binder;
+import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.typeChecker.TypeChecker;
+import main.visitor.typeChecker.TypeInfo;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.SimpleLOOPLexer;
+import parsers.SimpleLOOPParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// usage: SetMergeCheck
+// The parser does not build merge statements yet, so this parses a program with add statements and
+// turns every run of adds to the same set variable into one merge, which takes ints and sets alike.
+// The program is run with every backend, and each must print EXPECTED: the VM with its SETMERGE
+// instruction as well as the backends that merge in their own way.
+public class SetMergeCheck {
+    private static final String PROGRAM = String.join("\n",
+            "class Box {",
+            "    public Set<int> s",
+            "}",
+            "class Main {",
+            "    public initialize() {",
+            "        Set<int> a",
+            "        Set<int> b",
+            "        Box box",
+            "        a = Set.new((1, 2))",
+            "        b = Set.new((2, 3, 7))",
+            "        a.add(b)",
+            "        a.add(5)",
+            "        print(a)",
+            "        b.add(b)",
+            "        print(b)",
+            "        a.add(b)",
+            "        print(a.include(7))",
+            "        box.s.add(a)",
+            "    }",
+            "}",
+            "");
+
+    private static final String EXPECTED = String.join(System.lineSeparator(),
+            "{1, 2, 3, 5, 7}",
+            "{2, 3, 7}",
+            "true",
+            "Line 18: " + RuntimeError.NULL_REFERENCE,
+            "");
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        int mismatches = 0;
+        for (BackendKind backend : BackendKind.values()) {
+            String output = run(backend);
+            if (output.equals(EXPECTED)) {
+                out.println(backend + ": ok");
+                continue;
+            }
+            out.println(backend + ": mismatch");
+            out.print(output);
+            mismatches++;
+        }
+        out.flush();
+        if (mismatches > 0)
+            System.exit(1);
+    }
+
+    private static String run(BackendKind backend) {
+        CompilationContext context = new CompilationContext();
+        SimpleLOOPParser parser = new SimpleLOOPParser(new CommonTokenStream(
+                new SimpleLOOPLexer(CharStreams.fromString(PROGRAM))));
+        parser.setNames(context.getNames());
+        parser.setTypeFactory(context.getTypeFactory());
+        Program program = parser.simpleLOOP().simpleLOOPProgram;
+        for (ClassDeclaration classDeclaration : program.getClasses())
+            if (classDeclaration.getConstructor() != null)
+                mergeAdds(classDeclaration.getConstructor().getBody());
+        new NameAnalyzer(program, context).analyze();
+        TypeInfo typeInfo = new TypeChecker(context).check(program);
+        if (context.getDiagnostics().hasErrors())
+            throw new IllegalStateException("the program does not type check");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false);
+        try {
+            if (backend == BackendKind.jvm) {
+                new CodeGenerator(context, typeInfo).generate(program).run(out);
+            } else {
+                new Binder(context, typeInfo).bind(program);
+                if (backend == BackendKind.interpreter)
+                    new Interpreter(context, program, out).run();
+                else if (backend == BackendKind.specializing)
+                    new SpecializingInterpreter(context, program, out).run();
+                else
+                    new BytecodeCompiler(context, typeInfo).compile(program).run(out);
+            }
+        } catch (RuntimeError e) {
+            out.println(e.getReport());
+        }
+        out.flush();
+        return buffer.toString();
+    }
+
+    private static void mergeAdds(List<Statement> body) {
+        for (int i = 0; i < body.size(); i++) {
+            if (!(body.get(i) instanceof SetAdd))
+                continue;
+            SetAdd first = (SetAdd) body.get(i);
+            ArrayList<Expression> elements = new ArrayList<>();
+            elements.add(first.getElementArg());
+            while (i + 1 < body.size() && body.get(i + 1) instanceof SetAdd
+                    && sameVariable(first.getSetArg(), ((SetAdd) body.get(i + 1)).getSetArg())) {
+                elements.add(((SetAdd) body.get(i + 1)).getElementArg());
+                body.remove(i + 1);
+            }
+            SetMerge merge = new SetMerge(first.getSetArg(), elements);
+            merge.setLine(first.getLine());
+            body.set(i, merge);
+        }
+    }
+
+    private static boolean sameVariable(Expression a, Expression b) {
+        return a instanceof Identifier && b instanceof Identifier
+                && ((Identifier) a).getSymbol() == ((Identifier) b).getSymbol();
+    }
+}
@@ -1,14 +1,116 @@
 package main;
 
+import main.utils.MappedCharStream;
+import main.visitor.utils.dump.DumpFormat;
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
+// usage: SimpleLOOP [--parse-mode=auto|sll|ll] [--lexer=antlr|direct] [--parser=antlr|direct]
+//                  [--parse-threads=N] [--check-threads=N] [--parse-report] [--jobs=N] [--max-errors=N]
+//                  [--stop-early] [--low-memory] [--dump-format=text|ndjson|binary] [--dump-file=path]
+//                  [--run=jvm|interpreter|specializing|vm] [--emit-classes=directory] [--emit-jar=file]
+//                  file|directory...
+// more than one input, a directory or --jobs switches to batch compilation
+// --run runs the program instead of dumping it; --emit-* write it out, and run it only with --run
 public class SimpleLOOP {
     public static void main(String[] args) throws IOException {
-        CharStream reader = CharStreams.fromFileName(args[0]);
-        SimpleLOOPCompiler SimpleLOOPCompiler = new SimpleLOOPCompiler();
-        SimpleLOOPCompiler.compile(reader);
+        ParseMode parseMode = ParseMode.auto;
+        boolean parseReport = false;
+        int jobs = 0;
+        int errorLimit = 0;
+        boolean stopEarly = false;
+        DumpFormat dumpFormat = DumpFormat.text;
+        Path dumpFile = null;
+        BackendKind backendKind = null;
+        Path emitClassesDir = null;
+        Path emitJar = null;
+        boolean lowMemory = false;
+        LexerKind lexerKind = LexerKind.antlr;
+        ParserKind parserKind = ParserKind.antlr;
+        int parseThreads = 1;
+        int checkThreads = 1;
+        List<String> fileNames = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--parse-mode="))
+                parseMode = ParseMode.valueOf(arg.substring("--parse-mode=".length()));
+            else if (arg.startsWith("--lexer="))
+                lexerKind = LexerKind.valueOf(arg.substring("--lexer=".length()));
+            else if (arg.startsWith("--parser="))
+                parserKind = ParserKind.valueOf(arg.substring("--parser=".length()));
+            else if (arg.startsWith("--parse-threads="))
+                parseThreads = Integer.parseInt(arg.substring("--parse-threads=".length()));
+            else if (arg.startsWith("--check-threads="))
+                checkThreads = Integer.parseInt(arg.substring("--check-threads=".length()));
+            else if (arg.equals("--parse-report"))
+                parseReport = true;
+            else if (arg.startsWith("--jobs="))
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            else if (arg.startsWith("--max-errors="))
+                errorLimit = Integer.parseInt(arg.substring("--max-errors=".length()));
+            else if (arg.equals("--stop-early"))
+                stopEarly = true;
+            else if (arg.equals("--low-memory"))
+                lowMemory = true;
+            else if (arg.startsWith("--dump-format="))
+                dumpFormat = DumpFormat.valueOf(arg.substring("--dump-format=".length()));
+            else if (arg.startsWith("--dump-file="))
+                dumpFile = Paths.get(arg.substring("--dump-file=".length()));
+            else if (arg.startsWith("--run="))
+                backendKind = BackendKind.valueOf(arg.substring("--run=".length()));
+            else if (arg.startsWith("--emit-classes="))
+                emitClassesDir = Paths.get(arg.substring("--emit-classes=".length()));
+            else if (arg.startsWith("--emit-jar="))
+                emitJar = Paths.get(arg.substring("--emit-jar=".length()));
+            else
+                fileNames.add(arg);
+        }
+
+        if (fileNames.size() > 1 || jobs > 0 || Files.isDirectory(Paths.get(fileNames.get(0)))) {
+            if (dumpFile != null)
+                throw new IllegalArgumentException("--dump-file needs a single input file");
+            if (backendKind != null || emitClassesDir != null || emitJar != null)
+                throw new IllegalArgumentException("--run and --emit-* need a single input file");
+            if (jobs <= 0)
+                jobs = Runtime.getRuntime().availableProcessors();
+            BatchCompiler batchCompiler = new BatchCompiler(parseMode, jobs);
+            batchCompiler.setErrorLimit(errorLimit);
+            batchCompiler.setStopEarly(stopEarly);
+            batchCompiler.setDumpFormat(dumpFormat);
+            batchCompiler.setLowMemory(lowMemory);
+            batchCompiler.setLexerKind(lexerKind);
+            batchCompiler.setParserKind(parserKind);
+            batchCompiler.setParseThreads(parseThreads);
+            batchCompiler.setCheckThreads(checkThreads);
+            int failedFiles = batchCompiler.compileAll(BatchCompiler.collectSources(fileNames), System.out, parseReport);
+            if (failedFiles > 0)
+                System.exit(1);
+            return;
+        }
+
+        CharStream reader = MappedCharStream.fromFileName(fileNames.get(0));
+        SimpleLOOPCompiler simpleLOOPCompiler = new SimpleLOOPCompiler(parseMode);
+        simpleLOOPCompiler.setErrorLimit(errorLimit);
+        simpleLOOPCompiler.setStopEarly(stopEarly);
+        simpleLOOPCompiler.setDumpFormat(dumpFormat);
+        simpleLOOPCompiler.setDumpFile(dumpFile);
+        simpleLOOPCompiler.setLowMemory(lowMemory);
+        simpleLOOPCompiler.setLexerKind(lexerKind);
+        simpleLOOPCompiler.setParserKind(parserKind);
+        simpleLOOPCompiler.setParseThreads(parseThreads);
+        simpleLOOPCompiler.setCheckThreads(checkThreads);
+        simpleLOOPCompiler.setBackend(backendKind);
+        simpleLOOPCompiler.setEmitClassesDir(emitClassesDir);
+        simpleLOOPCompiler.setEmitJar(emitJar);
+        int numberOfErrors = simpleLOOPCompiler.compile(reader);
+        if (parseReport)
+            simpleLOOPCompiler.printParseReport(System.err);
+        if (numberOfErrors > 0)
+            System.exit(1);
     }
 }
@@ -1,105 +1,625 @@
-//package main;
-//
-//import main.ast.nodes.Program;
-//import main.visitor.codeGenerator.CodeGenerator;
-//import main.visitor.nameAnalyzer.NameAnalyzer;
-//import main.visitor.typeChecker.TypeChecker;
-//import main.visitor.utils.ASTTreePrinter;
-//import main.visitor.utils.ErrorReporter;
-//import org.antlr.v4.runtime.CharStream;
-//import org.antlr.v4.runtime.CommonTokenStream;
-//import parsers.SimpleLOOPLexer;
-//import parsers.SimpleLOOPParser;
-//
-//import java.io.*;
-//
-//public class SimpleLOOPCompiler {
-//    public void compile(CharStream textStream) {
-//        System.out.println("\n--------------------------Compiling--------------------------");
-//        SimpleLOOPLexer SimpleLOOPLexer = new SimpleLOOPLexer(textStream);
-//        CommonTokenStream tokenStream = new CommonTokenStream(SimpleLOOPLexer);
-//        SimpleLOOPParser SimpleLOOPParser = new SimpleLOOPParser(tokenStream);
-//        Program program = SimpleLOOPParser.SimpleLOOP().SimpleLOOPProgram;
-//        ErrorReporter errorReporter = new ErrorReporter();
-//        NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
-//        nameAnalyzer.analyze();
-//        int numberOfErrors = program.accept(errorReporter);
-//        if(numberOfErrors > 0) {
-//            System.out.println("\n" + numberOfErrors + " errors detected");
-//            System.exit(1);
-//        }
-////        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
-////        program.accept(astTreePrinter);
-//        TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy());
-//        program.accept(typeChecker);
-//        numberOfErrors = program.accept(errorReporter);
-//        if(numberOfErrors > 0) {
-//            System.out.println("\n" + numberOfErrors + " errors detected");
-//            System.exit(1);
-//        }
-//        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy());
-//        program.accept(codeGenerator);
-//        System.out.println("Compilation successful");
-//        runJasminFiles();
-//    }
-//
-//    private void runJasminFiles() {
-//        try {
-//            System.out.println("\n-------------------Generating Class Files-------------------");
-//            File dir = new File("./output");
-//            Process process = Runtime.getRuntime().exec("java -jar jasmin.jar *.j", null, dir);
-//            printResults(process.getInputStream());
-//            printResults(process.getErrorStream());
-//            System.out.println("\n---------------------------Output---------------------------");
-//            process = Runtime.getRuntime().exec("java Main", null, dir);
-//            printResults(process.getInputStream());
-//            printResults(process.getErrorStream());
-//        } catch (IOException e) {
-//            e.printStackTrace();
-//        }
-//    }
-//
-//    private void printResults(InputStream stream) {
-//        BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-//        String line;
-//        try {
-//            while ((line = reader.readLine()) != null)
-//                System.out.println(line);
-//        } catch (IOException e) {
-//            e.printStackTrace();
-//        }
-//    }
-//}
-
-
 package main;
 
+import main.backend.interpreter.Interpreter;
+import main.backend.jvm.CodeGenerator;
+import main.backend.jvm.JvmProgram;
+import main.backend.specializing.SpecializingInterpreter;
+import main.backend.vm.BytecodeCompiler;
+import main.backend.vm.VmProgram;
+import main.compileError.Diagnostics;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.lexer.SimpleLOOPDirectLexer;
+import main.parser.ClassChunker;
+import main.parser.SimpleLOOPDirectParser;
+import main.utils.HeldErrorListener;
+import main.utils.LexerErrorCounter;
+import main.utils.StreamErrorListener;
+import main.runtime.RuntimeError;
+import main.visitor.binder.Binder;
 import main.visitor.nameAnalyzer.*;
+import main.visitor.typeChecker.TypeChecker;
+import main.visitor.typeChecker.TypeInfo;
 import main.visitor.utils.ErrorPrinter;
+import main.visitor.utils.dump.DumpFormat;
+import main.visitor.utils.dump.DumpSink;
+import main.visitor.utils.dump.DumpSinks;
 import parsers.*;
 import main.ast.nodes.Program;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class SimpleLOOPCompiler {
-    public void compile(CharStream textStream) {
-        SimpleLOOPLexer simpleLOOPLexer = new SimpleLOOPLexer(textStream);
-        CommonTokenStream tokenStream = new CommonTokenStream(simpleLOOPLexer);
-        SimpleLOOPParser simpleLOOPParser = new SimpleLOOPParser(tokenStream);
+    private ParseMode parseMode;
+    private int parsedFiles = 0;
+    private int llFallbacks = 0;
+    private long parsedTokens = 0;
+    private int errorLimit = 0;
+    private boolean stopEarly = false;
+    private DumpFormat dumpFormat = DumpFormat.text;
+    private Path dumpFile = null;
+    private boolean lowMemory = false;
+    private LexerKind lexerKind = LexerKind.antlr;
+    private ParserKind parserKind = ParserKind.antlr;
+    private int directParserFallbacks = 0;
+    private int parseThreads = 1;
+    private int chunkedParseFallbacks = 0;
+    private int checkThreads = 1;
+    private BackendKind backend = null;
+    private Path emitClassesDir = null;
+    private Path emitJar = null;
 
-        Program program = simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+    public SimpleLOOPCompiler() {
+        this(ParseMode.auto);
+    }
+
+    public SimpleLOOPCompiler(ParseMode parseMode) {
+        this.parseMode = parseMode;
+    }
+
+    public int compile(CharStream textStream) {
+        return compile(textStream, System.out, System.err);
+    }
+
+    // out receives compile errors and the AST dump, err receives syntax errors
+    public int compile(CharStream textStream, PrintStream out, PrintStream err) {
+        CompilationContext context = new CompilationContext(new Diagnostics(errorLimit, stopEarly));
+        StreamErrorListener errorListener = new StreamErrorListener(err);
+        Program program = null;
+        if (parseThreads > 1 && !lowMemory)
+            program = parseChunked(textStream, context, errorListener);
+        if (program == null)
+            program = lowMemory ? parseLowMemory(textStream, context, errorListener)
+                    : parse(textStream, context, errorListener);
+        int syntaxErrors = errorListener.getCount();
+        // a syntax error in a program nested too deeply for the generated parser, already reported
+        if (program == null)
+            return syntaxErrors;
 
         // Todo
-        ErrorPrinter errorPrinter = new ErrorPrinter();
-        NameAnalyzer nameAnalyser = new NameAnalyzer(program);
+        NameAnalyzer nameAnalyser = new NameAnalyzer(program, context);
+        nameAnalyser.setCheckParallelism(checkThreads);
         nameAnalyser.analyze();
-        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
-
-        int numberOfErrors = program.accept(errorPrinter);
 
+        int numberOfErrors = new ErrorPrinter(out).print(context.getDiagnostics());
+        boolean executing = backend != null || emitClassesDir != null || emitJar != null;
+        // the AST of a program the parser recovered from syntax errors in can have holes, so it is not run
+        if (executing && syntaxErrors > 0)
+            return syntaxErrors + numberOfErrors;
         if(numberOfErrors > 0) {
-            System.exit(1);
+            return numberOfErrors;
+        }
+        if (executing)
+            return execute(program, context, out);
+        dump(program, out);
+        return 0;
+    }
+
+    // Type checks the program, writes the classes the --emit options ask for and runs it with the
+    // backend, if one is set. An error of the running program is printed to out like a compile
+    // error and counts as one.
+    private int execute(Program program, CompilationContext context, PrintStream out) {
+        TypeInfo typeInfo = new TypeChecker(context).check(program);
+        int numberOfErrors = new ErrorPrinter(out).print(context.getDiagnostics());
+        if (numberOfErrors > 0)
+            return numberOfErrors;
+
+        JvmProgram jvmProgram = null;
+        if (backend == BackendKind.jvm || emitClassesDir != null || emitJar != null)
+            jvmProgram = new CodeGenerator(context, typeInfo).generate(program);
+        VmProgram vmProgram = null;
+        if (backend == BackendKind.vm) {
+            new Binder(context, typeInfo).bind(program);
+            vmProgram = new BytecodeCompiler(context, typeInfo).compile(program);
+        }
+        // code nested too deeply for a code generator
+        numberOfErrors = new ErrorPrinter(out).print(context.getDiagnostics());
+        if (numberOfErrors > 0)
+            return numberOfErrors;
+        try {
+            if (emitClassesDir != null)
+                jvmProgram.writeClasses(emitClassesDir);
+            if (emitJar != null)
+                jvmProgram.writeJar(emitJar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            if (backend == BackendKind.jvm) {
+                jvmProgram.run(out);
+            } else if (backend == BackendKind.interpreter) {
+                new Binder(context, typeInfo).bind(program);
+                new Interpreter(context, program, out).run();
+            } else if (backend == BackendKind.specializing) {
+                new Binder(context, typeInfo).bind(program);
+                new SpecializingInterpreter(context, program, out).run();
+            } else if (backend == BackendKind.vm) {
+                vmProgram.run(out);
+            }
+        } catch (RuntimeError e) {
+            out.println(e.getReport());
+            return 1;
+        }
+        return 0;
+    }
+
+    private void dump(Program program, PrintStream out) {
+        if (dumpFile == null) {
+            program.accept(new ASTTreePrinter(DumpSinks.open(dumpFormat, out, Charset.defaultCharset())));
+            return;
+        }
+        try (DumpSink sink = DumpSinks.open(dumpFormat, dumpFile)) {
+            program.accept(new ASTTreePrinter(sink));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Program parse(CharStream textStream, CompilationContext context, StreamErrorListener errorListener) {
+        Lexer simpleLOOPLexer = createLexer(textStream);
+        LexerErrorCounter lexerErrors = new LexerErrorCounter(errorListener, 0);
+        simpleLOOPLexer.removeErrorListeners();
+        simpleLOOPLexer.addErrorListener(lexerErrors);
+        CommonTokenStream tokenStream = new CommonTokenStream(simpleLOOPLexer);
+        if (parserKind == ParserKind.direct) {
+            Program program = parseDirect(tokenStream, context);
+            if (program != null) {
+                parsedFiles++;
+                parsedTokens += tokenStream.size();
+                return program;
+            }
+            tokenStream.seek(0);
+        }
+        SimpleLOOPParser simpleLOOPParser = new SimpleLOOPParser(tokenStream);
+        simpleLOOPParser.removeErrorListeners();
+        simpleLOOPParser.setNames(context.getNames());
+        simpleLOOPParser.setTypeFactory(context.getTypeFactory());
+        parsedFiles++;
+        try {
+            Program program = parse(tokenStream, simpleLOOPParser, errorListener);
+            parsedTokens += tokenStream.size();
+            return program;
+        } catch (StackOverflowError e) {
+            return parseTooDeep(textStream, lexerErrors.getCount(), context, errorListener);
+        }
+    }
+
+    // The generated parser recurses once per level of nesting, while the direct parser keeps the
+    // levels on the heap and builds the same AST, so it takes over a program too deep for the
+    // first. The overflow may have hit inside the lexer, so the input is lexed again, without
+    // reporting the lexer errors again. If the direct parser gives up as well, the error is
+    // reported at the statement it could not parse, without the detail of the generated parser.
+    // Null in that case.
+    private Program parseTooDeep(CharStream textStream, int reportedLexerErrors, CompilationContext context,
+                                 StreamErrorListener errorListener) {
+        textStream.seek(0);
+        Lexer simpleLOOPLexer = createLexer(textStream);
+        simpleLOOPLexer.removeErrorListeners();
+        simpleLOOPLexer.addErrorListener(new LexerErrorCounter(errorListener, reportedLexerErrors));
+        UnbufferedTokenStream<Token> tokenStream = new UnbufferedTokenStream<>(simpleLOOPLexer);
+        SimpleLOOPDirectParser directParser = new SimpleLOOPDirectParser(tokenStream);
+        directParser.setNames(context.getNames());
+        directParser.setTypeFactory(context.getTypeFactory());
+        try {
+            Program program = directParser.parse();
+            parsedTokens += tokenStream.index() + 1;
+            return program;
+        } catch (ParseCancellationException e) {
+            Token token = tokenStream.LT(1);
+            errorListener.syntaxError(null, token, token.getLine(), token.getCharPositionInLine(),
+                    "syntax error in code nested too deeply to report it in detail", null);
+            return null;
+        }
+    }
+
+    private Program parse(CommonTokenStream tokenStream, SimpleLOOPParser simpleLOOPParser,
+                          StreamErrorListener errorListener) {
+        if (parseMode == ParseMode.ll) {
+            simpleLOOPParser.addErrorListener(errorListener);
+            return simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+        }
+
+        simpleLOOPParser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        if (parseMode == ParseMode.sll) {
+            simpleLOOPParser.addErrorListener(errorListener);
+            return simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+        }
+
+        // SLL can only fail where full LL might still succeed, so a failed attempt is
+        // thrown away silently and the whole input is reparsed with LL and normal reporting.
+        simpleLOOPParser.setErrorHandler(new BailErrorStrategy());
+        try {
+            return simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+        } catch (ParseCancellationException e) {
+            llFallbacks++;
+        }
+        tokenStream.seek(0);
+        simpleLOOPParser.reset();
+        simpleLOOPParser.addErrorListener(errorListener);
+        simpleLOOPParser.setErrorHandler(new DefaultErrorStrategy());
+        simpleLOOPParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        return simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+    }
+
+    private static class ParsedChunk {
+        Program program;
+        ClassDeclaration classDeclaration;
+        HeldErrorListener lexerErrors;
+        int tokens;
+        boolean llFallback;
+    }
+
+    // Parses the globals and every class declaration on their own, parseThreads at a time, and
+    // joins them in source order. Null if there is nothing to split or a chunk does not parse;
+    // the whole input is then parsed again in one piece, which reports the syntax errors.
+    private Program parseChunked(CharStream textStream, CompilationContext context,
+                                 StreamErrorListener errorListener) {
+        List<ClassChunker.Chunk> chunks = ClassChunker.split(textStream);
+        if (chunks.size() < 3)
+            return null;
+
+        ForkJoinPool pool = new ForkJoinPool(parseThreads);
+        List<ParsedChunk> parsedChunks = new ArrayList<>();
+        try {
+            List<ForkJoinTask<ParsedChunk>> tasks = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                ClassChunker.Chunk chunk = chunks.get(i);
+                boolean globals = i == 0;
+                tasks.add(pool.submit(() -> parseChunk(textStream, chunk, globals, context)));
+            }
+            for (ForkJoinTask<ParsedChunk> task : tasks) {
+                ParsedChunk parsedChunk = task.join();
+                if (parsedChunk == null) {
+                    chunkedParseFallbacks++;
+                    return null;
+                }
+                parsedChunks.add(parsedChunk);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Program program = parsedChunks.get(0).program;
+        boolean llFallback = false;
+        // every chunk ends with an EOF token, the whole input only has one
+        parsedTokens -= parsedChunks.size() - 1;
+        for (ParsedChunk parsedChunk : parsedChunks) {
+            if (parsedChunk.classDeclaration != null)
+                program.addClass(parsedChunk.classDeclaration);
+            parsedChunk.lexerErrors.passTo(errorListener);
+            parsedTokens += parsedChunk.tokens;
+            llFallback |= parsedChunk.llFallback;
+        }
+        parsedFiles++;
+        if (llFallback)
+            llFallbacks++;
+        return program;
+    }
+
+    private ParsedChunk parseChunk(CharStream textStream, ClassChunker.Chunk chunk, boolean globals,
+                                   CompilationContext context) {
+        String text = textStream.getText(Interval.of(chunk.getStart(), chunk.getStop() - 1));
+        Lexer simpleLOOPLexer = createLexer(CharStreams.fromString(text, textStream.getSourceName()));
+        simpleLOOPLexer.setLine(chunk.getLine());
+        simpleLOOPLexer.setCharPositionInLine(chunk.getCharPositionInLine());
+        HeldErrorListener lexerErrors = new HeldErrorListener();
+        simpleLOOPLexer.removeErrorListeners();
+        simpleLOOPLexer.addErrorListener(lexerErrors);
+        CommonTokenStream tokenStream = new CommonTokenStream(simpleLOOPLexer);
+
+        ParsedChunk parsedChunk = new ParsedChunk();
+        try {
+            if (parserKind == ParserKind.direct)
+                parseChunkDirect(tokenStream, globals, context, parsedChunk);
+            else
+                parseChunk(tokenStream, globals, context, parsedChunk);
+        } catch (ParseCancellationException | StackOverflowError e) {
+            return null;
+        }
+        parsedChunk.lexerErrors = lexerErrors;
+        parsedChunk.tokens = tokenStream.size();
+        return parsedChunk;
+    }
+
+    private void parseChunkDirect(CommonTokenStream tokenStream, boolean globals, CompilationContext context,
+                                  ParsedChunk parsedChunk) {
+        SimpleLOOPDirectParser directParser = new SimpleLOOPDirectParser(tokenStream);
+        directParser.setNames(context.getNames());
+        directParser.setTypeFactory(context.getTypeFactory());
+        if (globals)
+            parsedChunk.program = directParser.parse();
+        else
+            parsedChunk.classDeclaration = directParser.parseClass();
+    }
+
+    private void parseChunk(CommonTokenStream tokenStream, boolean globals, CompilationContext context,
+                            ParsedChunk parsedChunk) {
+        SimpleLOOPParser simpleLOOPParser = new SimpleLOOPParser(tokenStream);
+        simpleLOOPParser.removeErrorListeners();
+        simpleLOOPParser.setNames(context.getNames());
+        simpleLOOPParser.setTypeFactory(context.getTypeFactory());
+        simpleLOOPParser.setErrorHandler(new BailErrorStrategy());
+        simpleLOOPParser.getInterpreter().setPredictionMode(
+                parseMode == ParseMode.ll ? PredictionMode.LL : PredictionMode.SLL);
+        try {
+            parseChunk(tokenStream, simpleLOOPParser, globals, parsedChunk);
+            return;
+        } catch (ParseCancellationException e) {
+            if (parseMode != ParseMode.auto)
+                throw e;
+        }
+        simpleLOOPParser.reset();
+        simpleLOOPParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parseChunk(tokenStream, simpleLOOPParser, globals, parsedChunk);
+        parsedChunk.llFallback = true;
+    }
+
+    // the globals chunk is a whole program without classes, a class chunk is the
+    // declaration followed by NEWLINE+ and EOF as in the program rule
+    private void parseChunk(CommonTokenStream tokenStream, SimpleLOOPParser simpleLOOPParser, boolean globals,
+                            ParsedChunk parsedChunk) {
+        if (globals) {
+            parsedChunk.program = simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+            return;
+        }
+        parsedChunk.classDeclaration = simpleLOOPParser.classDeclaration().classDeclarationRet;
+        if (tokenStream.LA(1) != SimpleLOOPParser.NEWLINE)
+            throw new ParseCancellationException();
+        while (tokenStream.LA(1) == SimpleLOOPParser.NEWLINE)
+            tokenStream.consume();
+        if (tokenStream.LA(1) != Token.EOF)
+            throw new ParseCancellationException();
+    }
+
+    // null if the direct parser gave up; the generated parser then reparses and reports the errors
+    private Program parseDirect(TokenStream tokenStream, CompilationContext context) {
+        SimpleLOOPDirectParser directParser = new SimpleLOOPDirectParser(tokenStream);
+        directParser.setNames(context.getNames());
+        directParser.setTypeFactory(context.getTypeFactory());
+        try {
+            return directParser.parse();
+        } catch (ParseCancellationException e) {
+            directParserFallbacks++;
+            return null;
+        }
+    }
+
+    private Lexer createLexer(CharStream textStream) {
+        if (lexerKind == LexerKind.direct)
+            return new SimpleLOOPDirectLexer(textStream);
+        return new SimpleLOOPLexer(textStream);
+    }
+
+    // Tokens are streamed and no parse tree is kept, only the AST the grammar actions build.
+    // An unbuffered stream cannot be rewound, so the LL fallback lexes the input again; lexer
+    // errors of the SLL attempt are held back until it is known to be the final one.
+    private Program parseLowMemory(CharStream textStream, CompilationContext context,
+                                   StreamErrorListener errorListener) {
+        parsedFiles++;
+        if (parserKind == ParserKind.direct) {
+            Program program = parseDirectLowMemory(textStream, context, errorListener);
+            if (program != null)
+                return program;
+            textStream.seek(0);
+        }
+        LexerErrorCounter reported = new LexerErrorCounter(errorListener, 0);
+        try {
+            return parseLowMemoryGenerated(textStream, context, reported);
+        } catch (StackOverflowError e) {
+            return parseTooDeep(textStream, reported.getCount(), context, errorListener);
+        }
+    }
+
+    // reported passes on and counts the errors printed as they are found
+    private Program parseLowMemoryGenerated(CharStream textStream, CompilationContext context,
+                                            LexerErrorCounter reported) {
+        if (parseMode != ParseMode.auto) {
+            PredictionMode predictionMode = parseMode == ParseMode.sll ? PredictionMode.SLL : PredictionMode.LL;
+            return parseLowMemory(textStream, context, reported, predictionMode, false);
         }
-        program.accept(astTreePrinter);
+
+        HeldErrorListener lexerErrors = new HeldErrorListener();
+        try {
+            Program program = parseLowMemory(textStream, context, lexerErrors, PredictionMode.SLL, true);
+            lexerErrors.passTo(reported);
+            return program;
+        } catch (ParseCancellationException e) {
+            llFallbacks++;
+        }
+        textStream.seek(0);
+        return parseLowMemory(textStream, context, reported, PredictionMode.LL, false);
+    }
+
+    private Program parseDirectLowMemory(CharStream textStream, CompilationContext context,
+                                         StreamErrorListener errorListener) {
+        HeldErrorListener lexerErrors = new HeldErrorListener();
+        Lexer simpleLOOPLexer = createLexer(textStream);
+        simpleLOOPLexer.removeErrorListeners();
+        simpleLOOPLexer.addErrorListener(lexerErrors);
+        UnbufferedTokenStream<Token> tokenStream = new UnbufferedTokenStream<>(simpleLOOPLexer);
+        Program program = parseDirect(tokenStream, context);
+        if (program != null) {
+            lexerErrors.passTo(errorListener);
+            parsedTokens += tokenStream.index() + 1;
+        }
+        return program;
+    }
+
+    private Program parseLowMemory(CharStream textStream, CompilationContext context, ANTLRErrorListener errorListener,
+                                   PredictionMode predictionMode, boolean bail) {
+        Lexer simpleLOOPLexer = createLexer(textStream);
+        simpleLOOPLexer.removeErrorListeners();
+        simpleLOOPLexer.addErrorListener(errorListener);
+        UnbufferedTokenStream<Token> tokenStream = new UnbufferedTokenStream<>(simpleLOOPLexer);
+        SimpleLOOPParser simpleLOOPParser = new SimpleLOOPParser(tokenStream);
+        simpleLOOPParser.setBuildParseTree(false);
+        simpleLOOPParser.removeErrorListeners();
+        simpleLOOPParser.setNames(context.getNames());
+        simpleLOOPParser.setTypeFactory(context.getTypeFactory());
+        simpleLOOPParser.getInterpreter().setPredictionMode(predictionMode);
+        if (bail)
+            simpleLOOPParser.setErrorHandler(new BailErrorStrategy());
+        else
+            simpleLOOPParser.addErrorListener(errorListener);
+        Program program = simpleLOOPParser.simpleLOOP().simpleLOOPProgram;
+        // the parser stops on EOF without consuming it, so the index is the EOF token's
+        parsedTokens += tokenStream.index() + 1;
+        return program;
+    }
+
+    public LexerKind getLexerKind() {
+        return lexerKind;
+    }
+
+    public void setLexerKind(LexerKind lexerKind) {
+        this.lexerKind = lexerKind;
+    }
+
+    public ParserKind getParserKind() {
+        return parserKind;
+    }
+
+    public void setParserKind(ParserKind parserKind) {
+        this.parserKind = parserKind;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    // more than 1 parses the classes of a source in parallel; not combined with low memory
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public int getCheckThreads() {
+        return checkThreads;
+    }
+
+    // more than 1 runs the name checks of different classes in parallel
+    public void setCheckThreads(int checkThreads) {
+        this.checkThreads = checkThreads;
+    }
+
+    public BackendKind getBackend() {
+        return backend;
+    }
+
+    // null only dumps the AST
+    public void setBackend(BackendKind backend) {
+        this.backend = backend;
+    }
+
+    public Path getEmitClassesDir() {
+        return emitClassesDir;
+    }
+
+    // writes the generated .class files there
+    public void setEmitClassesDir(Path emitClassesDir) {
+        this.emitClassesDir = emitClassesDir;
+    }
+
+    public Path getEmitJar() {
+        return emitJar;
+    }
+
+    // writes a jar that runs with java -jar
+    public void setEmitJar(Path emitJar) {
+        this.emitJar = emitJar;
+    }
+
+    public boolean isLowMemory() {
+        return lowMemory;
+    }
+
+    public void setLowMemory(boolean lowMemory) {
+        this.lowMemory = lowMemory;
+    }
+
+    public ParseMode getParseMode() {
+        return parseMode;
+    }
+
+    public int getErrorLimit() {
+        return errorLimit;
+    }
+
+    // 0 reports every error
+    public void setErrorLimit(int errorLimit) {
+        this.errorLimit = errorLimit;
+    }
+
+    public boolean isStopEarly() {
+        return stopEarly;
+    }
+
+    public void setStopEarly(boolean stopEarly) {
+        this.stopEarly = stopEarly;
+    }
+
+    public DumpFormat getDumpFormat() {
+        return dumpFormat;
+    }
+
+    public void setDumpFormat(DumpFormat dumpFormat) {
+        this.dumpFormat = dumpFormat;
+    }
+
+    public Path getDumpFile() {
+        return dumpFile;
+    }
+
+    // null dumps the AST to the out stream given to compile
+    public void setDumpFile(Path dumpFile) {
+        this.dumpFile = dumpFile;
+    }
+
+    public int getParsedFiles() {
+        return parsedFiles;
+    }
+
+    public int getLLFallbacks() {
+        return llFallbacks;
+    }
+
+    public int getDirectParserFallbacks() {
+        return directParserFallbacks;
+    }
+
+    public int getChunkedParseFallbacks() {
+        return chunkedParseFallbacks;
+    }
+
+    public long getParsedTokens() {
+        return parsedTokens;
+    }
+
+    public void printParseReport(PrintStream out) {
+        printParseReport(out, parseMode, parsedFiles, llFallbacks);
+    }
+
+    public static void printParseReport(PrintStream out, ParseMode parseMode, int parsedFiles, int llFallbacks) {
+        out.println("Parse mode " + parseMode + ": " + parsedFiles + " file(s) parsed, "
+                + llFallbacks + " needed LL fallback");
     }
 }
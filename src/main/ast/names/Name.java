@@ -0,0 +1,43 @@
+package main.ast.names;
+
+// Canonical form of an identifier's text. Names from the same NameTable are unique per text,
+// so they compare by reference; a Name built directly (id -1) still equals any Name with the same text.
+public class Name {
+    private final String text;
+    private final int id;
+
+    public Name(String text) {
+        this(text, -1);
+    }
+
+    Name(String text, int id) {
+        this.text = text;
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // dense index in the owning NameTable, -1 when not interned
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        return o instanceof Name && text.equals(((Name) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,36 @@
+package main.ast.names;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-compilation interner: one Name per distinct identifier text, with ids 0..size()-1.
+// Safe to share between threads parsing chunks of one source; ids then follow whichever
+// thread interned a text first.
+public class NameTable {
+    private Map<String, Name> names = new ConcurrentHashMap<>();
+    private ArrayList<Name> byId = new ArrayList<>();
+
+    public Name intern(String text) {
+        Name name = names.get(text);
+        if (name != null)
+            return name;
+        synchronized (this) {
+            name = names.get(text);
+            if (name == null) {
+                name = new Name(text, byId.size());
+                byId.add(name);
+                names.put(text, name);
+            }
+            return name;
+        }
+    }
+
+    public synchronized Name get(int id) {
+        return byId.get(id);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+}
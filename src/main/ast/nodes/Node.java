@@ -1,29 +1,18 @@
 package main.ast.nodes;
 
-import main.compileError.CompileError;
 import main.visitor.IVisitor;
 
-import java.util.ArrayList;
-
 public abstract class Node {
     private int line;
-    private ArrayList<CompileError> errors = new ArrayList<>();
-    public static boolean isCatchErrorsActive = true;
-
-    public ArrayList<CompileError> flushErrors() {
-        ArrayList<CompileError> errors = this.errors;
-        this.errors = new ArrayList<>();
-        return errors;
-    }
+    private boolean hasError = false;
 
-    public void addError(CompileError e) {
-        if(Node.isCatchErrorsActive) {
-            this.errors.add(e);
-        }
+    // errors themselves go to the compilation's Diagnostics, the node only remembers it had one
+    public void markError() {
+        this.hasError = true;
     }
 
     public boolean hasError() {
-        return this.errors.size() != 0;
+        return this.hasError;
     }
 
     public int getLine() {
@@ -38,4 +27,3 @@ public abstract class Node {
 
     public abstract <T> T accept(IVisitor<T> visitor);
 }
-
@@ -1,14 +1,19 @@
 package main.ast.nodes.declaration.variableDec;
 
 import main.ast.nodes.declaration.Declaration;
+import main.ast.nodes.expression.Expression;
 import main.ast.nodes.expression.Identifier;
 import main.ast.types.Type;
 import main.visitor.IVisitor;
 
+import java.util.ArrayList;
+
 //line -> IDENTIFIER
 public class VariableDeclaration extends Declaration {
     private Identifier varName;
     private Type type;
+    // the sizes an array variable is created with, empty for every other type
+    private ArrayList<Expression> dimensions = new ArrayList<>();
 
     public VariableDeclaration(Identifier varName, Type type) {
         this.varName = varName;
@@ -31,6 +36,14 @@ public class VariableDeclaration extends Declaration {
         this.type = type;
     }
 
+    public ArrayList<Expression> getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(ArrayList<Expression> dimensions) {
+        this.dimensions = dimensions;
+    }
+
     @Override
     public String toString() {
         return "VarDeclaration_" + this.varName.getName();
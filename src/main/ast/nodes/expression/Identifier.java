@@ -1,26 +1,50 @@
 package main.ast.nodes.expression;
 
+import main.ast.names.Name;
+import main.symbolTable.items.SymbolTableItem;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class Identifier extends Expression{
-    private String name;
+    private Name name;
+    // what the name refers to, once a Binder has run: a variable, field, method or class
+    private SymbolTableItem binding;
 
     public Identifier(String name) {
+        this.name = new Name(name);
+    }
+
+    public Identifier(Name name) {
         this.name = name;
     }
 
     public String getName() {
-        return name;
+        return name.getText();
     }
 
     public void setName(String name) {
+        this.name = new Name(name);
+    }
+
+    public Name getSymbol() {
+        return name;
+    }
+
+    public void setSymbol(Name name) {
         this.name = name;
     }
 
+    public SymbolTableItem getBinding() {
+        return binding;
+    }
+
+    public void setBinding(SymbolTableItem binding) {
+        this.binding = binding;
+    }
+
     @Override
     public String toString() {
-        return "Identifier_" + this.name;
+        return "Identifier_" + this.name.getText();
     }
 
     @Override
@@ -1,6 +1,7 @@
 package main.ast.nodes.expression;
 
 import main.ast.types.primitives.ClassType;
+import main.symbolTable.items.ClassSymbolTableItem;
 import main.visitor.IVisitor;
 
 import java.util.ArrayList;
@@ -9,6 +10,8 @@ import java.util.ArrayList;
 public class NewClassInstance extends Expression{
     private ClassType classType;
     private ArrayList<Expression> args = new ArrayList<>();
+    // the class created, once a Binder has run
+    private ClassSymbolTableItem binding;
 
     public NewClassInstance(ClassType classType) {
         this.classType = classType;
@@ -39,9 +42,17 @@ public class NewClassInstance extends Expression{
         this.args.add(arg);
     }
 
+    public ClassSymbolTableItem getBinding() {
+        return binding;
+    }
+
+    public void setBinding(ClassSymbolTableItem binding) {
+        this.binding = binding;
+    }
+
     @Override
     public String toString() {
-        return "NewClassInstance_" + this.classType.getClassName().getName();
+        return "NewClassInstance_" + this.classType.getClassName().getText();
     }
 
     @Override
@@ -2,4 +2,15 @@ package main.ast.types;
 
 public abstract class Type {
     public abstract String toString();
+
+    // types without parts are equal when they are of the same kind
+    @Override
+    public boolean equals(Object o) {
+        return o != null && o.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
@@ -0,0 +1,126 @@
+package main.ast.types;
+
+import main.ast.names.Name;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.types.array.ArrayType;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.ClassType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.primitives.VoidType;
+import main.ast.types.set.SetType;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-compilation source of types: equal types built through one factory are the same object,
+// so they can be compared by reference. Safe to share between threads parsing chunks of one
+// source. Types handed out here are shared and must not be changed through their setters; they
+// hold no nodes, so a type interned by a discarded parse or another thread keeps none alive.
+public class TypeFactory {
+    private final IntType intType = new IntType();
+    private final BoolType boolType = new BoolType();
+    private final SetType setType = new SetType();
+    private final VoidType voidType = new VoidType();
+    private final NullType nullType = new NullType();
+    private final NoType noType = new NoType();
+
+    private final Map<Name, ClassType> classTypes = new ConcurrentHashMap<>();
+    private final Map<Type, Type> composites = new ConcurrentHashMap<>();
+
+    public IntType intType() {
+        return intType;
+    }
+
+    public BoolType boolType() {
+        return boolType;
+    }
+
+    public SetType setType() {
+        return setType;
+    }
+
+    public VoidType voidType() {
+        return voidType;
+    }
+
+    public NullType nullType() {
+        return nullType;
+    }
+
+    public NoType noType() {
+        return noType;
+    }
+
+    public ClassType classType(Identifier className) {
+        return classType(className.getSymbol());
+    }
+
+    public ClassType classType(Name className) {
+        ClassType classType = classTypes.get(className);
+        if (classType != null)
+            return classType;
+        return classTypes.computeIfAbsent(className, ClassType::new);
+    }
+
+    // only the sizes of constant dimensions are kept, the declaration keeps the expressions
+    public ArrayType arrayType(Type elementType, ArrayList<Expression> dimensions) {
+        int[] sizes = new int[dimensions.size()];
+        for (int i = 0; i < sizes.length; i++)
+            sizes[i] = dimensions.get(i) instanceof IntValue ? ((IntValue) dimensions.get(i)).getConstant()
+                    : ArrayType.UNKNOWN_SIZE;
+        return arrayType(elementType, sizes);
+    }
+
+    public ArrayType arrayType(Type elementType, int[] sizes) {
+        return intern(new ArrayType(canonical(elementType), sizes));
+    }
+
+    public FptrType fptrType(ArrayList<Type> argumentTypes, Type returnType) {
+        ArrayList<Type> canonicalArgumentTypes = new ArrayList<>(argumentTypes.size());
+        for (Type argumentType : argumentTypes)
+            canonicalArgumentTypes.add(canonical(argumentType));
+        return intern(new FptrType(canonicalArgumentTypes, canonical(returnType)));
+    }
+
+    // the factory's own instance of a type equal to the given one
+    public Type canonical(Type type) {
+        if (type == null)
+            return null;
+        if (type instanceof IntType)
+            return intType;
+        if (type instanceof BoolType)
+            return boolType;
+        if (type instanceof SetType)
+            return setType;
+        if (type instanceof VoidType)
+            return voidType;
+        if (type instanceof NullType)
+            return nullType;
+        if (type instanceof NoType)
+            return noType;
+        if (type instanceof ClassType)
+            return classType(((ClassType) type).getClassName());
+        Type known = composites.get(type);
+        if (known != null)
+            return known;
+        if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            return arrayType(arrayType.getType(), arrayType.getSizes());
+        }
+        if (type instanceof FptrType) {
+            FptrType fptrType = (FptrType) type;
+            return fptrType(fptrType.getArgumentsTypes(), fptrType.getReturnType());
+        }
+        return type;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Type> T intern(T type) {
+        Type known = composites.putIfAbsent(type, type);
+        return known == null ? type : (T) known;
+    }
+}
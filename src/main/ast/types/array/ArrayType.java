@@ -1,30 +1,64 @@
 package main.ast.types.array;
 
-import main.ast.nodes.expression.Expression;
 import main.ast.types.Type;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
+// The sizes are known only for dimensions written as a constant; the expressions an array is
+// created with belong to its VariableDeclaration.
 public class ArrayType extends Type {
+    public static final int UNKNOWN_SIZE = -1;
+
     private Type elementType;
-    private ArrayList<Expression> dimensions;
+    private int[] sizes;
+    // 0 until computed
+    private int hash;
 
-    public ArrayType(Type elementType, ArrayList<Expression> dimensions) {
+    public ArrayType(Type elementType, int[] sizes) {
         this.elementType = elementType;
-        this.dimensions = dimensions;
+        this.sizes = sizes;
     }
 
     public Type getType() {
         return elementType;
     }
-    public ArrayList<Expression> getDimensions() {
-        return dimensions;
+    public int getDimensionCount() {
+        return sizes.length;
+    }
+    public int getSize(int dimension) {
+        return sizes[dimension];
+    }
+    public int[] getSizes() {
+        return sizes.clone();
     }
     public void setType(Type elementType) {
         this.elementType = elementType;
+        hash = 0;
+    }
+    public void setSizes(int[] sizes) {
+        this.sizes = sizes;
+        hash = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ArrayType))
+            return false;
+        ArrayType other = (ArrayType) o;
+        return hashCode() == other.hashCode() && elementType.equals(other.elementType)
+                && Arrays.equals(sizes, other.sizes);
     }
-    public void setDimensions(ArrayList<Expression> dimensions) {
-        this.dimensions = dimensions;
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * elementType.hashCode() + Arrays.hashCode(sizes);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -32,4 +66,3 @@ public class ArrayType extends Type {
         return "ArrayType";
     }
 }
-
@@ -7,6 +7,8 @@ import java.util.ArrayList;
 public class FptrType extends Type {
     private ArrayList<Type> argumentsTypes = new ArrayList<>();
     private Type returnType;
+    // 0 until computed
+    private int hash;
 
     public FptrType() {
     }
@@ -24,6 +26,7 @@ public class FptrType extends Type {
 
     public void setArgumentsTypes(ArrayList<Type> argumentsTypes) {
         this.argumentsTypes = argumentsTypes;
+        hash = 0;
     }
 
     public Type getReturnType() {
@@ -32,10 +35,33 @@ public class FptrType extends Type {
 
     public void setReturnType(Type returnType) {
         this.returnType = returnType;
+        hash = 0;
     }
 
     public void addArgumentType(Type type) {
         this.argumentsTypes.add(type);
+        hash = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof FptrType))
+            return false;
+        FptrType other = (FptrType) o;
+        return hashCode() == other.hashCode() && argumentsTypes.equals(other.argumentsTypes)
+                && (returnType == null ? other.returnType == null : returnType.equals(other.returnType));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * argumentsTypes.hashCode() + (returnType == null ? 0 : returnType.hashCode());
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -1,26 +1,38 @@
 package main.ast.types.primitives;
 
-import main.ast.nodes.expression.Expression;
-import main.ast.nodes.expression.Identifier;
+import main.ast.names.Name;
 import main.ast.types.Type;
 
 public class ClassType extends Type {
-    private Identifier className;
+    private Name className;
 
-    public ClassType(Identifier className) {
+    public ClassType(Name className) {
         this.className = className;
     }
 
-    public Identifier getClassName() {
+    public Name getClassName() {
         return className;
     }
 
-    public void setClassName(Identifier className) {
+    public void setClassName(Name className) {
         this.className = className;
     }
 
+    // class types are equal when they name the same class
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        return o instanceof ClassType && className.equals(((ClassType) o).className);
+    }
+
+    @Override
+    public int hashCode() {
+        return className.hashCode();
+    }
+
     @Override
     public String toString() {
-        return "ClassType_" + this.className.getName();
+        return "ClassType_" + this.className.getText();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package main.backend.interpreter;
+
+import main.symbolTable.items.MethodSymbolTableItem;
+
+// Value of an fptr: a method together with the object it was taken from
+final class BoundMethod {
+    final Instance receiver;
+    final MethodSymbolTableItem method;
+
+    BoundMethod(Instance receiver, MethodSymbolTableItem method) {
+        this.receiver = receiver;
+        this.method = method;
+    }
+}
@@ -0,0 +1,14 @@
+package main.backend.interpreter;
+
+import main.symbolTable.items.ClassSymbolTableItem;
+
+// An object of a SimpleLOOP class, its fields in the order of the class's layout
+final class Instance {
+    final ClassSymbolTableItem classItem;
+    final Object[] fields;
+
+    Instance(ClassSymbolTableItem classItem) {
+        this.classItem = classItem;
+        this.fields = new Object[classItem.getLayout().size()];
+    }
+}
@@ -0,0 +1,595 @@
+package main.backend.interpreter;
+
+import main.CompilationContext;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.nodes.statement.set.SetMerge;
+import main.ast.types.Type;
+import main.ast.types.array.ArrayType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.set.SetType;
+import main.runtime.IntSet;
+import main.runtime.RuntimeError;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.GlobalVariableSymbolTableItem;
+import main.symbolTable.items.LocalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.Visitor;
+
+import java.io.PrintStream;
+import java.util.List;
+
+// Runs a program that went through the Binder by walking its AST. Variables are read by the slot,
+// offset or index their Identifier is bound to. Values are Integer, Boolean, IntSet, Object[] for
+// arrays (one per dimension), Instance, BoundMethod, and null for an object or fptr not set.
+// Statements return null, expressions their value. Operands are evaluated, and errors detected,
+// in the same order as in the code of the JVM backend, so both print the same.
+public class Interpreter extends Visitor<Object> {
+    private static final Object[] NO_VALUES = new Object[0];
+    // A call takes a few frames of the visits for every level of its statements and expressions,
+    // where the JVM backend takes one, so the program runs on a thread of its own with a stack
+    // that holds more calls than the default one does for the JVM backend.
+    private static final long STACK_SIZE = 128L << 20;
+
+    private final Program program;
+    private final ClassSymbolTableItem mainClass;
+    private final PrintStream out;
+
+    private Object[] globals;
+    private Object[] frame = NO_VALUES;
+    private Instance self;
+    // set by a return statement until the call it ends is left
+    private boolean returning;
+    private Object returnValue;
+    // of the innermost call being made, for a stack overflow
+    private int callLine;
+
+    public Interpreter(CompilationContext context, Program program, PrintStream out) {
+        this.program = program;
+        this.mainClass = context.getRoot().lookupClass(context.getNames().intern("Main"));
+        this.out = out;
+    }
+
+    // An error of the program is thrown as a RuntimeError.
+    public void run() {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                runProgram();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "SimpleLOOP interpreter", STACK_SIZE);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (failure[0] instanceof RuntimeException)
+            throw (RuntimeException) failure[0];
+        if (failure[0] instanceof Error)
+            throw (Error) failure[0];
+    }
+
+    private void runProgram() {
+        try {
+            List<VariableDeclaration> globalVariables = program.getGlobalVariables();
+            globals = new Object[globalVariables.size()];
+            for (int i = 0; i < globals.length; i++)
+                globals[i] = initialValue(globalVariables.get(i));
+            callLine = mainClass.getClassDeclaration().getLine();
+            Instance main = newInstance(mainClass);
+            if (mainClass.getConstructor() != null)
+                invoke(mainClass.getConstructor(), main, NO_VALUES);
+        } catch (StackOverflowError e) {
+            throw new RuntimeError(callLine, RuntimeError.STACK_OVERFLOW);
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static Object defaultValue(Type type) {
+        if (type instanceof IntType)
+            return 0;
+        if (type instanceof BoolType)
+            return false;
+        return null;
+    }
+
+    // sets and arrays start out created, everything else as 0, false or null
+    private Object initialValue(VariableDeclaration varDeclaration) {
+        Type type = varDeclaration.getType();
+        if (type instanceof SetType)
+            return new IntSet();
+        if (!(type instanceof ArrayType))
+            return defaultValue(type);
+        ArrayType arrayType = (ArrayType) type;
+        List<Expression> dimensions = varDeclaration.getDimensions();
+        int[] sizes = new int[dimensions.size()];
+        for (int i = 0; i < sizes.length; i++)
+            sizes[i] = (Integer) dimensions.get(i).accept(this);
+        for (int size : sizes)
+            if (size < 0)
+                throw new RuntimeError(varDeclaration.getLine(), RuntimeError.NEGATIVE_ARRAY_SIZE);
+        return newArray(sizes, 0, defaultValue(arrayType.getType()));
+    }
+
+    private static Object[] newArray(int[] sizes, int dimension, Object element) {
+        Object[] array = new Object[sizes[dimension]];
+        for (int i = 0; i < array.length; i++)
+            array[i] = dimension + 1 < sizes.length ? newArray(sizes, dimension + 1, element) : element;
+        return array;
+    }
+
+    // the fields are set in two steps, as the sizes of arrays may read fields of the object
+    private Instance newInstance(ClassSymbolTableItem classItem) {
+        Instance object = new Instance(classItem);
+        List<FieldSymbolTableItem> layout = classItem.getLayout();
+        for (int i = 0; i < layout.size(); i++)
+            object.fields[i] = defaultValue(layout.get(i).getType());
+        Object[] callerFrame = frame;
+        Instance callerSelf = self;
+        frame = NO_VALUES;
+        self = object;
+        try {
+            for (int i = 0; i < layout.size(); i++) {
+                FieldSymbolTableItem field = layout.get(i);
+                if (field.getType() instanceof SetType || field.getType() instanceof ArrayType)
+                    object.fields[i] = initialValue(field.getFieldDeclaration().getVarDeclaration());
+            }
+        } finally {
+            frame = callerFrame;
+            self = callerSelf;
+        }
+        return object;
+    }
+
+    private Object invoke(MethodSymbolTableItem method, Instance receiver, Object[] args) {
+        MethodDeclaration methodDeclaration = method.getMethodDeclaration();
+        int line = callLine;
+        Object[] callerFrame = frame;
+        Instance callerSelf = self;
+        frame = new Object[method.getFrameSize()];
+        System.arraycopy(args, 0, frame, 0, args.length);
+        self = receiver;
+        try {
+            int slot = args.length;
+            for (VariableDeclaration localVar : methodDeclaration.getLocalVars())
+                frame[slot++] = initialValue(localVar);
+            for (Statement statement : methodDeclaration.getBody()) {
+                execute(statement);
+                if (returning)
+                    break;
+            }
+            // falling off the end returns the default value
+            Object result = returning ? returnValue : defaultValue(method.getReturnType());
+            returning = false;
+            returnValue = null;
+            callLine = line;
+            return result;
+        } finally {
+            frame = callerFrame;
+            self = callerSelf;
+        }
+    }
+
+    // merge statements come out of the parser as null, the same as no statement
+    private void execute(Statement statement) {
+        if (statement != null)
+            statement.accept(this);
+    }
+
+    private boolean condition(Expression expression) {
+        return (Boolean) expression.accept(this);
+    }
+
+    private int intValue(Expression expression) {
+        return (Integer) expression.accept(this);
+    }
+
+    private static <T> T nonNull(T value, int line) {
+        if (value == null)
+            throw new RuntimeError(line, RuntimeError.NULL_REFERENCE);
+        return value;
+    }
+
+    private static void checkIndex(Object[] array, int index, int line) {
+        nonNull(array, line);
+        if (index < 0 || index >= array.length)
+            throw new RuntimeError(line, RuntimeError.INDEX_OUT_OF_BOUNDS);
+    }
+
+    private Object load(SymbolTableItem variable) {
+        switch (variable.getKind()) {
+            case localVarDec:
+                return frame[((LocalVariableSymbolTableItem) variable).getSlot()];
+            case fieldDec:
+                return self.fields[((FieldSymbolTableItem) variable).getOffset()];
+            case globalVarDec:
+                return globals[((GlobalVariableSymbolTableItem) variable).getIndex()];
+            default:
+                return new BoundMethod(self, (MethodSymbolTableItem) variable);
+        }
+    }
+
+    private void store(SymbolTableItem variable, Object value) {
+        switch (variable.getKind()) {
+            case localVarDec:
+                frame[((LocalVariableSymbolTableItem) variable).getSlot()] = value;
+                break;
+            case fieldDec:
+                self.fields[((FieldSymbolTableItem) variable).getOffset()] = value;
+                break;
+            default:
+                globals[((GlobalVariableSymbolTableItem) variable).getIndex()] = value;
+        }
+    }
+
+    // Stores the value of source, or value when there is no source, in target. The object or array
+    // of the target is evaluated before the source and checked after it.
+    private Object assign(Expression target, Expression source, Object value) {
+        if (target instanceof Identifier) {
+            if (source != null)
+                value = source.accept(this);
+            store(((Identifier) target).getBinding(), value);
+        } else if (target instanceof ObjectMemberAccess) {
+            ObjectMemberAccess access = (ObjectMemberAccess) target;
+            Instance object = (Instance) access.getInstance().accept(this);
+            if (source != null)
+                value = source.accept(this);
+            FieldSymbolTableItem field = (FieldSymbolTableItem) access.getMemberName().getBinding();
+            nonNull(object, target.getLine()).fields[field.getOffset()] = value;
+        } else {
+            ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+            Object[] array = (Object[]) element.getInstance().accept(this);
+            int index = intValue(element.getIndex());
+            if (source != null)
+                value = source.accept(this);
+            checkIndex(array, index, target.getLine());
+            array[index] = value;
+        }
+        return value;
+    }
+
+    // adds delta to an int variable and returns its old value with post, else its new value
+    private int increment(Expression target, int delta, boolean post) {
+        int old;
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = ((Identifier) target).getBinding();
+            old = (Integer) load(variable);
+            store(variable, old + delta);
+        } else if (target instanceof ObjectMemberAccess) {
+            ObjectMemberAccess access = (ObjectMemberAccess) target;
+            Instance object = nonNull((Instance) access.getInstance().accept(this), target.getLine());
+            int offset = ((FieldSymbolTableItem) access.getMemberName().getBinding()).getOffset();
+            old = (Integer) object.fields[offset];
+            object.fields[offset] = old + delta;
+        } else {
+            ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+            Object[] array = (Object[]) element.getInstance().accept(this);
+            int index = intValue(element.getIndex());
+            checkIndex(array, index, target.getLine());
+            old = (Integer) array[index];
+            array[index] = old + delta;
+        }
+        return post ? old : old + delta;
+    }
+
+    private static boolean equal(Object first, Object second) {
+        if (first instanceof Integer || first instanceof Boolean)
+            return first.equals(second);
+        return first == second;
+    }
+
+    private Object[] evaluate(List<Expression> expressions) {
+        if (expressions.isEmpty())
+            return NO_VALUES;
+        Object[] values = new Object[expressions.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = expressions.get(i).accept(this);
+        return values;
+    }
+
+    @Override
+    public Object visit(AssignmentStmt assignmentStmt) {
+        assign(assignmentStmt.getlValue(), assignmentStmt.getrValue(), null);
+        return null;
+    }
+
+    @Override
+    public Object visit(BlockStmt blockStmt) {
+        for (Statement statement : blockStmt.getStatements()) {
+            execute(statement);
+            if (returning)
+                break;
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(ConditionalStmt conditionalStmt) {
+        if (condition(conditionalStmt.getCondition())) {
+            execute(conditionalStmt.getThenBody());
+            return null;
+        }
+        for (ElsifStmt elsifStmt : conditionalStmt.getElsif()) {
+            if (condition(elsifStmt.getCondition())) {
+                execute(elsifStmt.getThenBody());
+                return null;
+            }
+        }
+        execute(conditionalStmt.getElseBody());
+        return null;
+    }
+
+    @Override
+    public Object visit(MethodCallStmt methodCallStmt) {
+        methodCallStmt.getMethodCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public Object visit(PrintStmt print) {
+        Object value = print.getArg().accept(this);
+        out.println(nonNull(value, print.getLine()));
+        return null;
+    }
+
+    @Override
+    public Object visit(ReturnStmt returnStmt) {
+        Expression returned = returnStmt.getReturnedExpr();
+        returnValue = returned instanceof NullValue ? null : returned.accept(this);
+        returning = true;
+        return null;
+    }
+
+    // Goes over the array, or over the elements a set has when the loop starts, in ascending order.
+    // The array itself is fixed when the loop starts but its elements are read as it goes.
+    @Override
+    public Object visit(EachStmt eachStmt) {
+        Object list = nonNull(eachStmt.getList().accept(this), eachStmt.getLine());
+        if (list instanceof IntSet) {
+            for (int element : ((IntSet) list).elements()) {
+                assign(eachStmt.getVariable(), null, element);
+                execute(eachStmt.getBody());
+                if (returning)
+                    break;
+            }
+            return null;
+        }
+        Object[] array = (Object[]) list;
+        for (int i = 0; i < array.length; i++) {
+            assign(eachStmt.getVariable(), null, array[i]);
+            execute(eachStmt.getBody());
+            if (returning)
+                break;
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(SetAdd setAdd) {
+        IntSet set = (IntSet) setAdd.getSetArg().accept(this);
+        int element = intValue(setAdd.getElementArg());
+        nonNull(set, setAdd.getLine()).add(element);
+        return null;
+    }
+
+    @Override
+    public Object visit(SetDelete setDelete) {
+        IntSet set = (IntSet) setDelete.getSetArg().accept(this);
+        int element = intValue(setDelete.getElementArg());
+        nonNull(set, setDelete.getLine()).delete(element);
+        return null;
+    }
+
+    @Override
+    public Object visit(SetMerge setMerge) {
+        IntSet set = (IntSet) setMerge.getSetArg().accept(this);
+        for (Expression arg : setMerge.getElementArgs()) {
+            Object value = arg.accept(this);
+            nonNull(set, setMerge.getLine());
+            if (value instanceof Integer)
+                set.add((Integer) value);
+            else
+                set.merge(nonNull((IntSet) value, setMerge.getLine()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryExpression binaryExpression) {
+        Expression first = binaryExpression.getFirstOperand();
+        Expression second = binaryExpression.getSecondOperand();
+        switch (binaryExpression.getBinaryOperator()) {
+            case assign:
+                return assign(first, second, null);
+            case and:
+                return condition(first) && condition(second);
+            case or:
+                return condition(first) || condition(second);
+            case eq:
+                return equal(first.accept(this), second.accept(this));
+            case neq:
+                return !equal(first.accept(this), second.accept(this));
+            default:
+        }
+        int left = intValue(first);
+        int right = intValue(second);
+        switch (binaryExpression.getBinaryOperator()) {
+            case lt:
+                return left < right;
+            case gt:
+                return left > right;
+            case add:
+                return left + right;
+            case sub:
+                return left - right;
+            case mult:
+                return left * right;
+            default:
+                if (right == 0)
+                    throw new RuntimeError(binaryExpression.getLine(), RuntimeError.DIVISION_BY_ZERO);
+                return binaryExpression.getBinaryOperator() == BinaryOperator.div
+                        ? left / right : left % right;
+        }
+    }
+
+    @Override
+    public Object visit(UnaryExpression unaryExpression) {
+        Expression operand = unaryExpression.getOperand();
+        switch (unaryExpression.getOperator()) {
+            case not:
+                return !condition(operand);
+            case minus:
+                return -intValue(operand);
+            case preinc:
+                return increment(operand, 1, false);
+            case predec:
+                return increment(operand, -1, false);
+            case postinc:
+                return increment(operand, 1, true);
+            default:
+                return increment(operand, -1, true);
+        }
+    }
+
+    @Override
+    public Object visit(TernaryExpression ternaryExpression) {
+        if (condition(ternaryExpression.getCondition()))
+            return ternaryExpression.getTrueExpression().accept(this);
+        return ternaryExpression.getFalseExpression().accept(this);
+    }
+
+    @Override
+    public Object visit(RangeExpression rangeExpression) {
+        throw new UnsupportedOperationException("range expressions are rejected by the type checker");
+    }
+
+    @Override
+    public Object visit(ObjectMemberAccess objectOrListMemberAccess) {
+        Instance object = nonNull((Instance) objectOrListMemberAccess.getInstance().accept(this),
+                objectOrListMemberAccess.getLine());
+        SymbolTableItem member = objectOrListMemberAccess.getMemberName().getBinding();
+        if (member instanceof FieldSymbolTableItem)
+            return object.fields[((FieldSymbolTableItem) member).getOffset()];
+        return new BoundMethod(object, (MethodSymbolTableItem) member);
+    }
+
+    @Override
+    public Object visit(Identifier identifier) {
+        return load(identifier.getBinding());
+    }
+
+    @Override
+    public Object visit(ArrayAccessByIndex listAccessByIndex) {
+        Object[] array = (Object[]) listAccessByIndex.getInstance().accept(this);
+        int index = intValue(listAccessByIndex.getIndex());
+        checkIndex(array, index, listAccessByIndex.getLine());
+        return array[index];
+    }
+
+    // A method named by the callee is called directly, anything else is an fptr value
+    @Override
+    public Object visit(MethodCall methodCall) {
+        Expression callee = methodCall.getInstance();
+        if (callee instanceof NewClassInstance)
+            return construct((NewClassInstance) callee, methodCall.getArgs());
+        Instance receiver;
+        MethodSymbolTableItem method;
+        if (callee instanceof Identifier && ((Identifier) callee).getBinding() instanceof MethodSymbolTableItem) {
+            receiver = self;
+            method = (MethodSymbolTableItem) ((Identifier) callee).getBinding();
+        } else if (callee instanceof ObjectMemberAccess
+                && ((ObjectMemberAccess) callee).getMemberName().getBinding() instanceof MethodSymbolTableItem) {
+            ObjectMemberAccess access = (ObjectMemberAccess) callee;
+            receiver = (Instance) access.getInstance().accept(this);
+            method = (MethodSymbolTableItem) access.getMemberName().getBinding();
+        } else {
+            BoundMethod function = (BoundMethod) callee.accept(this);
+            Object[] args = evaluate(methodCall.getArgs());
+            nonNull(function, methodCall.getLine());
+            callLine = methodCall.getLine();
+            return invoke(function.method, function.receiver, args);
+        }
+        Object[] args = evaluate(methodCall.getArgs());
+        nonNull(receiver, methodCall.getLine());
+        callLine = methodCall.getLine();
+        return invoke(method, receiver, args);
+    }
+
+    @Override
+    public Object visit(NewClassInstance newClassInstance) {
+        return construct(newClassInstance, List.of());
+    }
+
+    // the object is created before the arguments are evaluated
+    private Instance construct(NewClassInstance newClassInstance, List<Expression> args) {
+        ClassSymbolTableItem classItem = newClassInstance.getBinding();
+        Instance object = newInstance(classItem);
+        if (classItem.getConstructor() == null)
+            return object;
+        Object[] values = evaluate(args);
+        callLine = newClassInstance.getLine();
+        invoke(classItem.getConstructor(), object, values);
+        return object;
+    }
+
+    @Override
+    public Object visit(SelfClass selfClass) {
+        return self;
+    }
+
+    @Override
+    public Object visit(NullValue nullValue) {
+        return null;
+    }
+
+    @Override
+    public Object visit(IntValue intValue) {
+        return intValue.getConstant();
+    }
+
+    @Override
+    public Object visit(BoolValue boolValue) {
+        return boolValue.getConstant();
+    }
+
+    @Override
+    public Object visit(SetValue setValue) {
+        IntSet set = new IntSet();
+        for (IntValue element : setValue.getElements())
+            set.add(element.getConstant());
+        return set;
+    }
+
+    @Override
+    public Object visit(SetInclude setInclude) {
+        IntSet set = (IntSet) setInclude.getSetArg().accept(this);
+        int element = intValue(setInclude.getElementArg());
+        return nonNull(set, setInclude.getLine()).include(element);
+    }
+
+    @Override
+    public Object visit(SetNew setNew) {
+        IntSet set = new IntSet();
+        for (Expression arg : setNew.getArgs())
+            set.add(intValue(arg));
+        return set;
+    }
+}
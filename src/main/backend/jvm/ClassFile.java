@@ -0,0 +1,88 @@
+package main.backend.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static main.backend.jvm.Opcodes.*;
+
+// Writes a class file of version 49, which the JVM still verifies by type inference, so the
+// methods need no stack map frames.
+class ClassFile {
+    private static final int VERSION = 49;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final String name;
+    private final String superName;
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+    private final DataOutputStream fieldsOut = new DataOutputStream(fields);
+    private int fieldCount = 0;
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(methods);
+    private int methodCount = 0;
+
+    ClassFile(String name, String superName) {
+        this.name = name;
+        this.superName = superName;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getSuperName() {
+        return superName;
+    }
+
+    void addField(int access, String fieldName, String descriptor) {
+        try {
+            fieldsOut.writeShort(access);
+            fieldsOut.writeShort(pool.utf8(fieldName));
+            fieldsOut.writeShort(pool.utf8(descriptor));
+            fieldsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    // parameterSlots counts this for an instance method
+    Code newCode(int parameterSlots) {
+        return new Code(pool, parameterSlots);
+    }
+
+    void addMethod(Code code, int access, String methodName, String descriptor) {
+        try {
+            code.writeMethod(methodsOut, access, methodName, descriptor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toBytes() {
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef(superName);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fieldCount);
+            fields.writeTo(out);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,304 @@
+package main.backend.jvm;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static main.backend.jvm.Opcodes.*;
+
+// The bytecode of one method as it is emitted, with the stack depth and locals it needs. Code
+// after a goto or return is unreachable until a label that is jumped to is placed.
+class Code {
+    private final ConstantPool pool;
+    private byte[] bytes = new byte[64];
+    private int length = 0;
+    private int stack = 0;
+    private int maxStack = 0;
+    private int maxLocals;
+    // start pc and line of every line change
+    private int[] lines = new int[16];
+    private int lineCount = 0;
+    private int lastLine = 0;
+
+    Code(ConstantPool pool, int parameterSlots) {
+        this.pool = pool;
+        this.maxLocals = parameterSlots;
+    }
+
+    int newLocal() {
+        return maxLocals++;
+    }
+
+    void op(int opcode) {
+        emit(opcode);
+        adjust(stackEffect(opcode));
+        if (opcode == RETURN || opcode == IRETURN || opcode == ARETURN)
+            unreachable();
+    }
+
+    private static int stackEffect(int opcode) {
+        switch (opcode) {
+            case ACONST_NULL:
+            case DUP:
+            case DUP_X1:
+            case DUP_X2:
+                return 1;
+            case DUP2:
+                return 2;
+            case IALOAD:
+            case AALOAD:
+            case BALOAD:
+            case POP:
+            case IADD:
+            case ISUB:
+            case IMUL:
+            case IDIV:
+            case IREM:
+            case IXOR:
+            case IRETURN:
+            case ARETURN:
+                return -1;
+            case IASTORE:
+            case AASTORE:
+            case BASTORE:
+                return -3;
+            case INEG:
+            case SWAP:
+            case ARRAYLENGTH:
+            case RETURN:
+            case NOP:
+                return 0;
+            default:
+                throw new IllegalArgumentException("no stack effect for opcode " + opcode);
+        }
+    }
+
+    void intConst(int value) {
+        if (value >= -1 && value <= 5) {
+            emit(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            emit(BIPUSH);
+            emit(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            emit(SIPUSH);
+            emitShort(value);
+        } else {
+            ldc(pool.integer(value));
+            return;
+        }
+        adjust(1);
+    }
+
+    void ldcString(String text) {
+        ldc(pool.string(text));
+    }
+
+    void ldcClass(String name) {
+        ldc(pool.classRef(name));
+    }
+
+    private void ldc(int index) {
+        if (index <= 0xff) {
+            emit(LDC);
+            emit(index);
+        } else {
+            emit(LDC_W);
+            emitShort(index);
+        }
+        adjust(1);
+    }
+
+    // ILOAD, ALOAD, ISTORE or ASTORE
+    void local(int opcode, int slot) {
+        if (slot > 0xff) {
+            emit(WIDE);
+            emit(opcode);
+            emitShort(slot);
+        } else {
+            emit(opcode);
+            emit(slot);
+        }
+        adjust(opcode == ILOAD || opcode == ALOAD ? 1 : -1);
+    }
+
+    void iinc(int slot, int delta) {
+        if (slot > 0xff) {
+            emit(WIDE);
+            emit(IINC);
+            emitShort(slot);
+            emitShort(delta);
+        } else {
+            emit(IINC);
+            emit(slot);
+            emit(delta);
+        }
+    }
+
+    void field(int opcode, String owner, String name, String descriptor) {
+        emit(opcode);
+        emitShort(pool.fieldRef(owner, name, descriptor));
+        int size = slots(descriptor.charAt(0));
+        switch (opcode) {
+            case GETSTATIC:
+                adjust(size);
+                break;
+            case PUTSTATIC:
+                adjust(-size);
+                break;
+            case GETFIELD:
+                adjust(size - 1);
+                break;
+            default:
+                adjust(-size - 1);
+        }
+    }
+
+    void invoke(int opcode, String owner, String name, String descriptor) {
+        emit(opcode);
+        emitShort(pool.methodRef(owner, name, descriptor));
+        int effect = opcode == INVOKESTATIC ? 0 : -1;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            effect -= slots(c);
+            while (descriptor.charAt(i) == '[')
+                i++;
+            i = descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+        }
+        adjust(effect + slots(descriptor.charAt(i + 1)));
+    }
+
+    private static int slots(char descriptor) {
+        if (descriptor == 'V')
+            return 0;
+        return descriptor == 'J' || descriptor == 'D' ? 2 : 1;
+    }
+
+    // NEW, ANEWARRAY or CHECKCAST
+    void type(int opcode, String name) {
+        emit(opcode);
+        emitShort(pool.classRef(name));
+        if (opcode == NEW)
+            adjust(1);
+    }
+
+    void newArray(int elementType) {
+        emit(NEWARRAY);
+        emit(elementType);
+    }
+
+    void multiNewArray(String descriptor, int dimensions) {
+        emit(MULTIANEWARRAY);
+        emitShort(pool.classRef(descriptor));
+        emit(dimensions);
+        adjust(1 - dimensions);
+    }
+
+    void jump(int opcode, Label label) {
+        if (opcode == IF_ICMPEQ || opcode == IF_ICMPNE || opcode == IF_ICMPLT || opcode == IF_ICMPGE
+                || opcode == IF_ICMPGT || opcode == IF_ICMPLE || opcode == IF_ACMPEQ || opcode == IF_ACMPNE)
+            adjust(-2);
+        else if (opcode != GOTO)
+            adjust(-1);
+        if (label.stack < 0)
+            label.stack = stack;
+        int start = length;
+        emit(opcode);
+        if (label.position >= 0) {
+            emitShort(offset(start, label.position));
+        } else {
+            label.jumps.add(new int[]{start, length});
+            emitShort(0);
+        }
+        if (opcode == GOTO)
+            unreachable();
+    }
+
+    void mark(Label label) {
+        label.position = length;
+        for (int[] jump : label.jumps) {
+            int offset = offset(jump[0], length);
+            bytes[jump[1]] = (byte) (offset >> 8);
+            bytes[jump[1] + 1] = (byte) offset;
+        }
+        label.jumps.clear();
+        if (label.stack >= 0)
+            stack = label.stack;
+        else
+            label.stack = stack;
+    }
+
+    private static int offset(int from, int to) {
+        int offset = to - from;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE)
+            throw new IllegalStateException("method too large for the JVM");
+        return offset;
+    }
+
+    // source line of the code emitted next
+    void line(int line) {
+        if (line <= 0 || line == lastLine)
+            return;
+        lastLine = line;
+        if (lineCount > 0 && lines[2 * lineCount - 2] == length) {
+            lines[2 * lineCount - 1] = line;
+            return;
+        }
+        if (2 * lineCount == lines.length)
+            lines = Arrays.copyOf(lines, lines.length * 2);
+        lines[2 * lineCount] = length;
+        lines[2 * lineCount + 1] = line;
+        lineCount++;
+    }
+
+    private void unreachable() {
+        stack = 0;
+    }
+
+    private void adjust(int effect) {
+        stack += effect;
+        if (stack > maxStack)
+            maxStack = stack;
+    }
+
+    private void emit(int b) {
+        if (length == bytes.length)
+            bytes = Arrays.copyOf(bytes, length * 2);
+        bytes[length++] = (byte) b;
+    }
+
+    private void emitShort(int s) {
+        emit(s >> 8);
+        emit(s);
+    }
+
+    // method_info with a Code attribute and, when there are lines, its LineNumberTable
+    void writeMethod(DataOutputStream out, int access, String name, String descriptor) throws IOException {
+        if (length > 0xffff)
+            throw new IllegalStateException("method " + name + " too large for the JVM");
+        int codeName = pool.utf8("Code");
+        int lineTableName = lineCount > 0 ? pool.utf8("LineNumberTable") : 0;
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(codeName);
+        int lineTableLength = lineCount > 0 ? 8 + 4 * lineCount : 0;
+        out.writeInt(12 + length + lineTableLength);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(length);
+        out.write(bytes, 0, length);
+        out.writeShort(0);
+        out.writeShort(lineCount > 0 ? 1 : 0);
+        if (lineCount > 0) {
+            out.writeShort(lineTableName);
+            out.writeInt(2 + 4 * lineCount);
+            out.writeShort(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                out.writeShort(lines[2 * i]);
+                out.writeShort(lines[2 * i + 1]);
+            }
+        }
+    }
+}
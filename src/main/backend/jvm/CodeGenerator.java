@@ -0,0 +1,954 @@
+package main.backend.jvm;
+
+import main.CompilationContext;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.nodes.statement.set.SetMerge;
+import main.ast.types.Type;
+import main.ast.types.array.ArrayType;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.ClassType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.primitives.VoidType;
+import main.ast.types.set.SetType;
+import main.compileError.backendError.NestingTooDeep;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.*;
+import main.visitor.Visitor;
+import main.visitor.typeChecker.TypeInfo;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static main.backend.jvm.Opcodes.*;
+
+// Translates a type checked program to JVM classes: one public class per SimpleLOOP class, with
+// the same name and parent, public fields and public methods, and PROGRAM_CLASS, which holds the
+// globals as static fields and creates Main from run(PrintStream) or main(String[]).
+// A constructor becomes a static method initialize taking the object first, since it belongs to
+// the class that declares it and a call to it is never dispatched on the object's class.
+// Expressions leave exactly one value on the stack, or none for a call of a void method.
+public class CodeGenerator extends Visitor<Void> {
+    public static final String PROGRAM_CLASS = "$Program";
+    private static final String OUT_FIELD = "$out";
+    private static final String PRINT_STREAM = "java/io/PrintStream";
+    private static final String SET_CLASS = "main/runtime/IntSet";
+    private static final String FPTR_CLASS = "main/runtime/Fptr";
+    private static final String OBJECT_CLASS = "java/lang/Object";
+    // methods of Object a SimpleLOOP method could clash with; theirs get a $ appended
+    private static final Set<String> OBJECT_METHODS = new HashSet<>(Arrays.asList(
+            "wait", "notify", "notifyAll", "finalize", "getClass", "hashCode", "equals", "toString", "clone"));
+
+    private final CompilationContext context;
+    private final TypeInfo typeInfo;
+    private final Map<String, byte[]> classes = new LinkedHashMap<>();
+
+    private ClassFile classFile;
+    private ClassSymbolTableItem currentClass;
+    private Code code;
+    // JVM local of every argument and local variable of the current method
+    private IdentityHashMap<SymbolTableItem, Integer> slots = new IdentityHashMap<>();
+    private Type returnType;
+
+    public CodeGenerator(CompilationContext context, TypeInfo typeInfo) {
+        this.context = context;
+        this.typeInfo = typeInfo;
+    }
+
+    public JvmProgram generate(Program program) {
+        program.accept(this);
+        return new JvmProgram(classes);
+    }
+
+    @Override
+    public Void visit(Program program) {
+        for (ClassDeclaration classDeclaration : program.getClasses())
+            classDeclaration.accept(this);
+
+        classFile = new ClassFile(PROGRAM_CLASS, OBJECT_CLASS);
+        currentClass = null;
+        classFile.addField(ACC_PUBLIC | ACC_STATIC, OUT_FIELD, "L" + PRINT_STREAM + ";");
+        for (VariableDeclaration global : program.getGlobalVariables())
+            classFile.addField(ACC_PUBLIC | ACC_STATIC, global.getVarName().getName(), descriptor(global.getType()));
+
+        code = classFile.newCode(1);
+        slots = new IdentityHashMap<>();
+        code.local(ALOAD, 0);
+        code.field(PUTSTATIC, PROGRAM_CLASS, OUT_FIELD, "L" + PRINT_STREAM + ";");
+        for (VariableDeclaration global : program.getGlobalVariables()) {
+            if (!needsInitialValue(global.getType()))
+                continue;
+            code.line(global.getLine());
+            initialValue(global);
+            code.field(PUTSTATIC, PROGRAM_CLASS, global.getVarName().getName(), descriptor(global.getType()));
+        }
+        ClassSymbolTableItem main = context.getRoot().lookupClass(context.getNames().intern("Main"));
+        code.type(NEW, "Main");
+        code.op(DUP);
+        code.invoke(INVOKESPECIAL, "Main", "<init>", "()V");
+        MethodSymbolTableItem constructor = main.getClassSymbolTable().lookupMethod(context.getNames().intern("initialize"), true);
+        if (constructor != null)
+            invoke(constructor);
+        else
+            code.op(POP);
+        code.op(RETURN);
+        classFile.addMethod(code, ACC_PUBLIC | ACC_STATIC, "run", "(L" + PRINT_STREAM + ";)V");
+
+        code = classFile.newCode(1);
+        code.field(GETSTATIC, "java/lang/System", "out", "L" + PRINT_STREAM + ";");
+        code.invoke(INVOKESTATIC, PROGRAM_CLASS, "run", "(L" + PRINT_STREAM + ";)V");
+        code.op(RETURN);
+        classFile.addMethod(code, ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V");
+        classes.put(PROGRAM_CLASS, classFile.toBytes());
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        String className = classDeclaration.getClassName().getName();
+        Identifier parentName = classDeclaration.getParentClassName();
+        classFile = new ClassFile(className, parentName == null ? OBJECT_CLASS : parentName.getName());
+        currentClass = context.getRoot().lookupClass(classDeclaration.getClassName().getSymbol());
+        for (FieldDeclaration fieldDeclaration : classDeclaration.getFields())
+            fieldDeclaration.accept(this);
+
+        // creates the arrays and sets of the fields declared here
+        code = classFile.newCode(1);
+        slots = new IdentityHashMap<>();
+        code.local(ALOAD, 0);
+        code.invoke(INVOKESPECIAL, classFile.getSuperName(), "<init>", "()V");
+        for (FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
+            VariableDeclaration field = fieldDeclaration.getVarDeclaration();
+            if (!needsInitialValue(field.getType()))
+                continue;
+            code.line(field.getLine());
+            code.local(ALOAD, 0);
+            initialValue(field);
+            code.field(PUTFIELD, className, field.getVarName().getName(), descriptor(field.getType()));
+        }
+        code.op(RETURN);
+        classFile.addMethod(code, ACC_PUBLIC, "<init>", "()V");
+
+        if (classDeclaration.getConstructor() != null)
+            classDeclaration.getConstructor().accept(this);
+        for (MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+            methodDeclaration.accept(this);
+        classes.put(className, classFile.toBytes());
+        return null;
+    }
+
+    @Override
+    public Void visit(FieldDeclaration fieldDeclaration) {
+        VariableDeclaration field = fieldDeclaration.getVarDeclaration();
+        classFile.addField(ACC_PUBLIC, field.getVarName().getName(), descriptor(field.getType()));
+        return null;
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        return visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    // The visits recurse once per level of nesting, so a method nested too deeply for the thread
+    // stack is reported as an error and left out; execute then does not run the program.
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        try {
+            generateMethod(methodDeclaration);
+        } catch (StackOverflowError e) {
+            context.getDiagnostics().report(methodDeclaration, new NestingTooDeep(methodDeclaration.getLine()));
+        }
+        return null;
+    }
+
+    // self is local 0, the arguments follow it and then the local variables
+    private void generateMethod(MethodDeclaration methodDeclaration) {
+        SymbolTable classTable = currentClass.getClassSymbolTable();
+        MethodSymbolTableItem method = classTable.lookupMethod(methodDeclaration.getMethodName().getSymbol(), true);
+        SymbolTable methodTable = method.getMethodSymbolTable();
+        code = classFile.newCode(1 + methodDeclaration.getArgs().size());
+        // without a line, so that a stack overflow on entering the method is reported at the call
+        code.op(NOP);
+        slots = new IdentityHashMap<>();
+        returnType = method.getReturnType() == null ? context.getTypeFactory().voidType() : method.getReturnType();
+        int slot = 1;
+        for (VariableDeclaration arg : methodDeclaration.getArgs())
+            slots.put(methodTable.lookupLocalVar(arg.getVarName().getSymbol(), true), slot++);
+        for (VariableDeclaration localVar : methodDeclaration.getLocalVars()) {
+            int local = code.newLocal();
+            slots.put(methodTable.lookupLocalVar(localVar.getVarName().getSymbol(), true), local);
+            code.line(localVar.getLine());
+            initialValue(localVar);
+            code.local(isReference(localVar.getType()) ? ASTORE : ISTORE, local);
+        }
+        for (Statement statement : methodDeclaration.getBody())
+            generate(statement);
+
+        // falling off the end returns the default value
+        if (returnType instanceof VoidType) {
+            code.op(RETURN);
+        } else if (isReference(returnType)) {
+            code.op(ACONST_NULL);
+            code.op(ARETURN);
+        } else {
+            code.intConst(0);
+            code.op(IRETURN);
+        }
+        boolean constructor = methodDeclaration instanceof ConstructorDeclaration;
+        classFile.addMethod(code, constructor ? ACC_PUBLIC | ACC_STATIC : ACC_PUBLIC, methodName(method),
+                methodDescriptor(method));
+    }
+
+    static String methodName(MethodSymbolTableItem method) {
+        String name = method.getName();
+        return OBJECT_METHODS.contains(name) ? name + "$" : name;
+    }
+
+    private String methodDescriptor(MethodSymbolTableItem method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        if (isConstructor(method))
+            descriptor.append('L').append(owner(method)).append(';');
+        for (Type argType : method.getArgTypes())
+            descriptor.append(descriptor(argType));
+        descriptor.append(')');
+        descriptor.append(isConstructor(method) ? "V" : descriptor(method.getReturnType()));
+        return descriptor.toString();
+    }
+
+    private static boolean isConstructor(MethodSymbolTableItem method) {
+        return method.getMethodDeclaration() instanceof ConstructorDeclaration;
+    }
+
+    private String owner(SymbolTableItem member) {
+        return typeInfo.getOwner(member).getClassName().getName();
+    }
+
+    static String descriptor(Type type) {
+        if (type instanceof IntType)
+            return "I";
+        if (type instanceof BoolType)
+            return "Z";
+        if (type instanceof VoidType || type == null)
+            return "V";
+        if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            StringBuilder descriptor = new StringBuilder();
+            for (int i = 0; i < arrayType.getDimensionCount(); i++)
+                descriptor.append('[');
+            return descriptor.append(descriptor(arrayType.getType())).toString();
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    // the name of a class, or the descriptor of an array class
+    private static String internalName(Type type) {
+        if (type instanceof ClassType)
+            return ((ClassType) type).getClassName().getText();
+        if (type instanceof SetType)
+            return SET_CLASS;
+        if (type instanceof FptrType)
+            return FPTR_CLASS;
+        if (type instanceof ArrayType)
+            return descriptor(type);
+        return OBJECT_CLASS;
+    }
+
+    private static boolean isReference(Type type) {
+        return !(type instanceof IntType || type instanceof BoolType);
+    }
+
+    // sets and arrays start out created, everything else as 0, false or null
+    private static boolean needsInitialValue(Type type) {
+        return type instanceof SetType || type instanceof ArrayType;
+    }
+
+    private void initialValue(VariableDeclaration varDeclaration) {
+        Type type = varDeclaration.getType();
+        if (type instanceof SetType) {
+            newSet();
+        } else if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            List<Expression> dimensions = varDeclaration.getDimensions();
+            try {
+                for (Expression dimension : dimensions)
+                    dimension.accept(this);
+            } catch (StackOverflowError e) {
+                context.getDiagnostics().report(varDeclaration, new NestingTooDeep(varDeclaration.getLine()));
+            }
+            Type elementType = arrayType.getType();
+            if (dimensions.size() > 1)
+                code.multiNewArray(descriptor(arrayType), dimensions.size());
+            else if (elementType instanceof IntType)
+                code.newArray(T_INT);
+            else if (elementType instanceof BoolType)
+                code.newArray(T_BOOLEAN);
+            else
+                code.type(ANEWARRAY, internalName(elementType));
+        } else if (isReference(type)) {
+            code.op(ACONST_NULL);
+        } else {
+            code.intConst(0);
+        }
+    }
+
+    private void newSet() {
+        code.type(NEW, SET_CLASS);
+        code.op(DUP);
+        code.invoke(INVOKESPECIAL, SET_CLASS, "<init>", "()V");
+    }
+
+    // with the receiver, and the arguments of a call, on the stack
+    private void invoke(MethodSymbolTableItem method) {
+        if (isConstructor(method))
+            code.invoke(INVOKESTATIC, owner(method), "initialize", methodDescriptor(method));
+        else
+            code.invoke(INVOKEVIRTUAL, owner(method), methodName(method), methodDescriptor(method));
+    }
+
+    // binds the method to the object on the stack
+    private void newFptr(MethodSymbolTableItem method) {
+        code.type(NEW, FPTR_CLASS);
+        code.op(DUP_X1);
+        code.op(SWAP);
+        code.ldcClass(owner(method));
+        code.ldcString(isConstructor(method) ? "initialize" : methodName(method));
+        code.ldcString(methodDescriptor(method));
+        code.intConst(isConstructor(method) ? 1 : 0);
+        code.invoke(INVOKESPECIAL, FPTR_CLASS, "<init>",
+                "(Ljava/lang/Object;Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;Z)V");
+    }
+
+    private void load(SymbolTableItem variable, Type type) {
+        if (variable instanceof LocalVariableSymbolTableItem) {
+            code.local(isReference(type) ? ALOAD : ILOAD, slots.get(variable));
+        } else if (variable instanceof FieldSymbolTableItem) {
+            code.local(ALOAD, 0);
+            code.field(GETFIELD, owner(variable), variable.getName(), descriptor(type));
+        } else {
+            code.field(GETSTATIC, PROGRAM_CLASS, variable.getName(), descriptor(type));
+        }
+    }
+
+    private int arrayLoad(Type elementType) {
+        if (elementType instanceof IntType)
+            return IALOAD;
+        return elementType instanceof BoolType ? BALOAD : AALOAD;
+    }
+
+    private int arrayStore(Type elementType) {
+        if (elementType instanceof IntType)
+            return IASTORE;
+        return elementType instanceof BoolType ? BASTORE : AASTORE;
+    }
+
+    // Stores what value emits in target. With keepValue the value is also left on the stack, as
+    // an assignment expression needs.
+    private void assign(Expression target, Runnable value, boolean keepValue) {
+        Type type = typeInfo.getType(target);
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = typeInfo.getReferent(target);
+            if (variable instanceof LocalVariableSymbolTableItem) {
+                value.run();
+                if (keepValue)
+                    code.op(DUP);
+                code.local(isReference(type) ? ASTORE : ISTORE, slots.get(variable));
+            } else if (variable instanceof FieldSymbolTableItem) {
+                code.local(ALOAD, 0);
+                value.run();
+                if (keepValue)
+                    code.op(DUP_X1);
+                code.field(PUTFIELD, owner(variable), variable.getName(), descriptor(type));
+            } else {
+                value.run();
+                if (keepValue)
+                    code.op(DUP);
+                code.field(PUTSTATIC, PROGRAM_CLASS, variable.getName(), descriptor(type));
+            }
+        } else if (target instanceof ObjectMemberAccess) {
+            SymbolTableItem field = typeInfo.getReferent(target);
+            ((ObjectMemberAccess) target).getInstance().accept(this);
+            value.run();
+            if (keepValue)
+                code.op(DUP_X1);
+            code.line(target.getLine());
+            code.field(PUTFIELD, owner(field), field.getName(), descriptor(type));
+        } else {
+            ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+            element.getInstance().accept(this);
+            element.getIndex().accept(this);
+            value.run();
+            if (keepValue)
+                code.op(DUP_X2);
+            code.line(target.getLine());
+            code.op(arrayStore(type));
+        }
+    }
+
+    // adds delta to an int variable and leaves its old value with post, else its new value
+    private void increment(Expression target, int delta, boolean post) {
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = typeInfo.getReferent(target);
+            if (variable instanceof LocalVariableSymbolTableItem) {
+                int slot = slots.get(variable);
+                if (post)
+                    code.local(ILOAD, slot);
+                code.iinc(slot, delta);
+                if (!post)
+                    code.local(ILOAD, slot);
+                return;
+            }
+            if (variable instanceof GlobalVariableSymbolTableItem) {
+                code.field(GETSTATIC, PROGRAM_CLASS, variable.getName(), "I");
+                if (post)
+                    code.op(DUP);
+                code.intConst(delta);
+                code.op(IADD);
+                if (!post)
+                    code.op(DUP);
+                code.field(PUTSTATIC, PROGRAM_CLASS, variable.getName(), "I");
+                return;
+            }
+            code.local(ALOAD, 0);
+            incrementField(variable, delta, post);
+        } else if (target instanceof ObjectMemberAccess) {
+            ((ObjectMemberAccess) target).getInstance().accept(this);
+            code.line(target.getLine());
+            incrementField(typeInfo.getReferent(target), delta, post);
+        } else {
+            ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+            element.getInstance().accept(this);
+            element.getIndex().accept(this);
+            code.line(target.getLine());
+            code.op(DUP2);
+            code.op(IALOAD);
+            if (post)
+                code.op(DUP_X2);
+            code.intConst(delta);
+            code.op(IADD);
+            if (!post)
+                code.op(DUP_X2);
+            code.op(IASTORE);
+        }
+    }
+
+    // with the object on the stack
+    private void incrementField(SymbolTableItem field, int delta, boolean post) {
+        code.op(DUP);
+        code.field(GETFIELD, owner(field), field.getName(), "I");
+        if (post)
+            code.op(DUP_X1);
+        code.intConst(delta);
+        code.op(IADD);
+        if (!post)
+            code.op(DUP_X1);
+        code.field(PUTFIELD, owner(field), field.getName(), "I");
+    }
+
+    // jumps to target when the bool condition is jumpWhen, and falls through otherwise
+    private void branch(Expression condition, boolean jumpWhen, Label target) {
+        if (condition instanceof UnaryExpression && ((UnaryExpression) condition).getOperator() == UnaryOperator.not) {
+            branch(((UnaryExpression) condition).getOperand(), !jumpWhen, target);
+            return;
+        }
+        if (condition instanceof BinaryExpression) {
+            BinaryExpression binaryExpression = (BinaryExpression) condition;
+            Expression first = binaryExpression.getFirstOperand();
+            Expression second = binaryExpression.getSecondOperand();
+            BinaryOperator operator = binaryExpression.getBinaryOperator();
+            if (operator == BinaryOperator.and || operator == BinaryOperator.or) {
+                // jump on the first operand only when it decides the result
+                boolean decides = operator == BinaryOperator.or;
+                if (decides == jumpWhen) {
+                    branch(first, jumpWhen, target);
+                    branch(second, jumpWhen, target);
+                } else {
+                    Label skip = new Label();
+                    branch(first, decides, skip);
+                    branch(second, jumpWhen, target);
+                    code.mark(skip);
+                }
+                return;
+            }
+            int opcode = compareOpcode(binaryExpression, jumpWhen);
+            if (opcode >= 0) {
+                first.accept(this);
+                second.accept(this);
+                code.jump(opcode, target);
+                return;
+            }
+        }
+        condition.accept(this);
+        code.jump(jumpWhen ? IFNE : IFEQ, target);
+    }
+
+    // -1 when the operator is not a comparison
+    private int compareOpcode(BinaryExpression comparison, boolean jumpWhen) {
+        switch (comparison.getBinaryOperator()) {
+            case lt:
+                return jumpWhen ? IF_ICMPLT : IF_ICMPGE;
+            case gt:
+                return jumpWhen ? IF_ICMPGT : IF_ICMPLE;
+            case eq:
+            case neq:
+                boolean equal = (comparison.getBinaryOperator() == BinaryOperator.eq) == jumpWhen;
+                if (isReference(typeInfo.getType(comparison.getFirstOperand()))
+                        || isReference(typeInfo.getType(comparison.getSecondOperand())))
+                    return equal ? IF_ACMPEQ : IF_ACMPNE;
+                return equal ? IF_ICMPEQ : IF_ICMPNE;
+            default:
+                return -1;
+        }
+    }
+
+    // 1 or 0 for a condition
+    private void boolValue(Expression condition) {
+        Label isTrue = new Label();
+        Label end = new Label();
+        branch(condition, true, isTrue);
+        code.intConst(0);
+        code.jump(GOTO, end);
+        code.mark(isTrue);
+        code.intConst(1);
+        code.mark(end);
+    }
+
+    private void box(Type type) {
+        if (type instanceof IntType)
+            code.invoke(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;");
+        else if (type instanceof BoolType)
+            code.invoke(INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;");
+    }
+
+    private void unbox(Type type) {
+        if (type instanceof VoidType) {
+            code.op(POP);
+        } else if (type instanceof IntType) {
+            code.type(CHECKCAST, "java/lang/Integer");
+            code.invoke(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I");
+        } else if (type instanceof BoolType) {
+            code.type(CHECKCAST, "java/lang/Boolean");
+            code.invoke(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z");
+        } else {
+            code.type(CHECKCAST, internalName(type));
+        }
+    }
+
+    // merge statements come out of the parser as null, the same as no statement
+    private void generate(Statement statement) {
+        if (statement != null)
+            statement.accept(this);
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        code.line(assignmentStmt.getLine());
+        assign(assignmentStmt.getlValue(), () -> assignmentStmt.getrValue().accept(this), false);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        for (Statement statement : blockStmt.getStatements())
+            generate(statement);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        code.line(conditionalStmt.getLine());
+        Label end = new Label();
+        Label next = new Label();
+        branch(conditionalStmt.getCondition(), false, next);
+        generate(conditionalStmt.getThenBody());
+        code.jump(GOTO, end);
+        code.mark(next);
+        for (ElsifStmt elsifStmt : conditionalStmt.getElsif()) {
+            code.line(elsifStmt.getLine());
+            next = new Label();
+            branch(elsifStmt.getCondition(), false, next);
+            generate(elsifStmt.getThenBody());
+            code.jump(GOTO, end);
+            code.mark(next);
+        }
+        generate(conditionalStmt.getElseBody());
+        code.mark(end);
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        code.line(methodCallStmt.getLine());
+        MethodCall methodCall = methodCallStmt.getMethodCall();
+        methodCall.accept(this);
+        if (!(typeInfo.getType(methodCall) instanceof VoidType))
+            code.op(POP);
+        return null;
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        code.line(print.getLine());
+        code.field(GETSTATIC, PROGRAM_CLASS, OUT_FIELD, "L" + PRINT_STREAM + ";");
+        Expression arg = print.getArg();
+        arg.accept(this);
+        Type type = typeInfo.getType(arg);
+        code.line(print.getLine());
+        if (type instanceof SetType) {
+            code.invoke(INVOKEVIRTUAL, SET_CLASS, "toString", "()Ljava/lang/String;");
+            code.invoke(INVOKEVIRTUAL, PRINT_STREAM, "println", "(Ljava/lang/String;)V");
+        } else {
+            code.invoke(INVOKEVIRTUAL, PRINT_STREAM, "println", "(" + descriptor(type) + ")V");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        code.line(returnStmt.getLine());
+        Expression returned = returnStmt.getReturnedExpr();
+        if (returnType instanceof VoidType) {
+            code.op(RETURN);
+            return null;
+        }
+        returned.accept(this);
+        code.op(isReference(returnType) ? ARETURN : IRETURN);
+        return null;
+    }
+
+    // Goes over the array, or over the elements a set has when the loop starts, in ascending order.
+    // The array itself is fixed when the loop starts but its elements are read as it goes.
+    @Override
+    public Void visit(EachStmt eachStmt) {
+        code.line(eachStmt.getLine());
+        Type listType = typeInfo.getType(eachStmt.getList());
+        int array = code.newLocal();
+        int index = code.newLocal();
+        eachStmt.getList().accept(this);
+        code.line(eachStmt.getLine());
+        if (listType instanceof SetType)
+            code.invoke(INVOKEVIRTUAL, SET_CLASS, "elements", "()[I");
+        code.local(ASTORE, array);
+        code.intConst(0);
+        code.local(ISTORE, index);
+        Label loop = new Label();
+        Label end = new Label();
+        code.mark(loop);
+        code.local(ILOAD, index);
+        code.local(ALOAD, array);
+        code.op(ARRAYLENGTH);
+        code.jump(IF_ICMPGE, end);
+        Type elementType = listType instanceof SetType ? context.getTypeFactory().intType()
+                : elementType((ArrayType) listType);
+        assign(eachStmt.getVariable(), () -> {
+            code.local(ALOAD, array);
+            code.local(ILOAD, index);
+            code.op(arrayLoad(elementType));
+        }, false);
+        generate(eachStmt.getBody());
+        code.iinc(index, 1);
+        code.jump(GOTO, loop);
+        code.mark(end);
+        return null;
+    }
+
+    private static Type elementType(ArrayType arrayType) {
+        return arrayType.getDimensionCount() == 1 ? arrayType.getType() : arrayType;
+    }
+
+    @Override
+    public Void visit(SetAdd setAdd) {
+        setOperation(setAdd, setAdd.getSetArg(), setAdd.getElementArg(), "add");
+        return null;
+    }
+
+    @Override
+    public Void visit(SetDelete setDelete) {
+        setOperation(setDelete, setDelete.getSetArg(), setDelete.getElementArg(), "delete");
+        return null;
+    }
+
+    private void setOperation(Statement statement, Expression set, Expression element, String name) {
+        code.line(statement.getLine());
+        set.accept(this);
+        element.accept(this);
+        code.line(statement.getLine());
+        code.invoke(INVOKEVIRTUAL, SET_CLASS, name, "(I)V");
+    }
+
+    @Override
+    public Void visit(SetMerge setMerge) {
+        code.line(setMerge.getLine());
+        setMerge.getSetArg().accept(this);
+        for (Expression arg : setMerge.getElementArgs()) {
+            code.op(DUP);
+            arg.accept(this);
+            code.line(setMerge.getLine());
+            if (typeInfo.getType(arg) instanceof SetType)
+                code.invoke(INVOKEVIRTUAL, SET_CLASS, "merge", "(L" + SET_CLASS + ";)V");
+            else
+                code.invoke(INVOKEVIRTUAL, SET_CLASS, "add", "(I)V");
+        }
+        code.op(POP);
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        code.line(binaryExpression.getLine());
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        Expression first = binaryExpression.getFirstOperand();
+        Expression second = binaryExpression.getSecondOperand();
+        int opcode;
+        switch (operator) {
+            case assign:
+                assign(first, () -> second.accept(this), true);
+                return null;
+            case and:
+            case or:
+            case eq:
+            case neq:
+            case lt:
+            case gt:
+                boolValue(binaryExpression);
+                return null;
+            case add:
+                opcode = IADD;
+                break;
+            case sub:
+                opcode = ISUB;
+                break;
+            case mult:
+                opcode = IMUL;
+                break;
+            case div:
+                opcode = IDIV;
+                break;
+            default:
+                opcode = IREM;
+        }
+        first.accept(this);
+        second.accept(this);
+        code.line(binaryExpression.getLine());
+        code.op(opcode);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        code.line(unaryExpression.getLine());
+        Expression operand = unaryExpression.getOperand();
+        switch (unaryExpression.getOperator()) {
+            case not:
+                operand.accept(this);
+                code.intConst(1);
+                code.op(IXOR);
+                break;
+            case minus:
+                operand.accept(this);
+                code.op(INEG);
+                break;
+            case preinc:
+                increment(operand, 1, false);
+                break;
+            case predec:
+                increment(operand, -1, false);
+                break;
+            case postinc:
+                increment(operand, 1, true);
+                break;
+            default:
+                increment(operand, -1, true);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryExpression ternaryExpression) {
+        code.line(ternaryExpression.getLine());
+        Label otherwise = new Label();
+        Label end = new Label();
+        branch(ternaryExpression.getCondition(), false, otherwise);
+        ternaryExpression.getTrueExpression().accept(this);
+        code.jump(GOTO, end);
+        code.mark(otherwise);
+        ternaryExpression.getFalseExpression().accept(this);
+        code.mark(end);
+        return null;
+    }
+
+    @Override
+    public Void visit(RangeExpression rangeExpression) {
+        throw new UnsupportedOperationException("range expressions are rejected by the type checker");
+    }
+
+    @Override
+    public Void visit(ObjectMemberAccess objectOrListMemberAccess) {
+        code.line(objectOrListMemberAccess.getLine());
+        objectOrListMemberAccess.getInstance().accept(this);
+        code.line(objectOrListMemberAccess.getLine());
+        SymbolTableItem member = typeInfo.getReferent(objectOrListMemberAccess);
+        if (member instanceof MethodSymbolTableItem)
+            newFptr((MethodSymbolTableItem) member);
+        else
+            code.field(GETFIELD, owner(member), member.getName(), descriptor(typeInfo.getType(objectOrListMemberAccess)));
+        return null;
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        code.line(identifier.getLine());
+        SymbolTableItem referent = typeInfo.getReferent(identifier);
+        if (referent instanceof MethodSymbolTableItem) {
+            code.local(ALOAD, 0);
+            newFptr((MethodSymbolTableItem) referent);
+            return null;
+        }
+        load(referent, typeInfo.getType(identifier));
+        return null;
+    }
+
+    @Override
+    public Void visit(ArrayAccessByIndex listAccessByIndex) {
+        code.line(listAccessByIndex.getLine());
+        listAccessByIndex.getInstance().accept(this);
+        listAccessByIndex.getIndex().accept(this);
+        code.line(listAccessByIndex.getLine());
+        code.op(arrayLoad(typeInfo.getType(listAccessByIndex)));
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCall methodCall) {
+        code.line(methodCall.getLine());
+        Expression callee = methodCall.getInstance();
+        SymbolTableItem referent = typeInfo.getReferent(methodCall);
+        if (callee instanceof NewClassInstance) {
+            construct((NewClassInstance) callee, methodCall.getArgs(), (MethodSymbolTableItem) referent);
+            return null;
+        }
+        if (referent != null) {
+            if (callee instanceof Identifier)
+                code.local(ALOAD, 0);
+            else
+                ((ObjectMemberAccess) callee).getInstance().accept(this);
+            for (Expression arg : methodCall.getArgs())
+                arg.accept(this);
+            code.line(methodCall.getLine());
+            invoke((MethodSymbolTableItem) referent);
+            return null;
+        }
+        callee.accept(this);
+        code.intConst(methodCall.getArgs().size());
+        code.type(ANEWARRAY, OBJECT_CLASS);
+        for (int i = 0; i < methodCall.getArgs().size(); i++) {
+            Expression arg = methodCall.getArgs().get(i);
+            code.op(DUP);
+            code.intConst(i);
+            arg.accept(this);
+            box(typeInfo.getType(arg));
+            code.op(AASTORE);
+        }
+        code.line(methodCall.getLine());
+        code.invoke(INVOKEVIRTUAL, FPTR_CLASS, "call", "([Ljava/lang/Object;)Ljava/lang/Object;");
+        unbox(typeInfo.getType(methodCall));
+        return null;
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        code.line(newClassInstance.getLine());
+        construct(newClassInstance, List.of(), (MethodSymbolTableItem) typeInfo.getReferent(newClassInstance));
+        return null;
+    }
+
+    private void construct(NewClassInstance newClassInstance, List<Expression> args, MethodSymbolTableItem constructor) {
+        String className = newClassInstance.getClassType().getClassName().getText();
+        code.type(NEW, className);
+        code.op(DUP);
+        code.invoke(INVOKESPECIAL, className, "<init>", "()V");
+        if (constructor == null)
+            return;
+        code.op(DUP);
+        for (Expression arg : args)
+            arg.accept(this);
+        code.line(newClassInstance.getLine());
+        invoke(constructor);
+    }
+
+    @Override
+    public Void visit(SelfClass selfClass) {
+        code.local(ALOAD, 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(NullValue nullValue) {
+        code.op(ACONST_NULL);
+        return null;
+    }
+
+    @Override
+    public Void visit(IntValue intValue) {
+        code.intConst(intValue.getConstant());
+        return null;
+    }
+
+    @Override
+    public Void visit(BoolValue boolValue) {
+        code.intConst(boolValue.getConstant() ? 1 : 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(SetValue setValue) {
+        newSet();
+        for (IntValue element : setValue.getElements()) {
+            code.op(DUP);
+            code.intConst(element.getConstant());
+            code.invoke(INVOKEVIRTUAL, SET_CLASS, "add", "(I)V");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(SetInclude setInclude) {
+        code.line(setInclude.getLine());
+        setInclude.getSetArg().accept(this);
+        setInclude.getElementArg().accept(this);
+        code.line(setInclude.getLine());
+        code.invoke(INVOKEVIRTUAL, SET_CLASS, "include", "(I)Z");
+        return null;
+    }
+
+    @Override
+    public Void visit(SetNew setNew) {
+        code.line(setNew.getLine());
+        newSet();
+        for (Expression arg : setNew.getArgs()) {
+            code.op(DUP);
+            arg.accept(this);
+            code.invoke(INVOKEVIRTUAL, SET_CLASS, "add", "(I)V");
+        }
+        return null;
+    }
+}
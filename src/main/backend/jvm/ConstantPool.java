@@ -0,0 +1,119 @@
+package main.backend.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Constant pool of one class file; asking for the same constant twice gives the same index.
+class ConstantPool {
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int count = 1;
+
+    int utf8(String text) {
+        Integer index = indices.get("u" + text);
+        if (index != null)
+            return index;
+        try {
+            out.writeByte(UTF8);
+            out.writeUTF(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return add("u" + text);
+    }
+
+    int integer(int value) {
+        Integer index = indices.get("i" + value);
+        if (index != null)
+            return index;
+        write(INTEGER, value >>> 16, value & 0xffff);
+        return add("i" + value);
+    }
+
+    // internal name, or the descriptor of an array class
+    int classRef(String name) {
+        return reference(CLASS, "c" + name, utf8(name));
+    }
+
+    int string(String text) {
+        return reference(STRING, "s" + text, utf8(text));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(FIELD_REF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(METHOD_REF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if (index != null)
+            return index;
+        int classIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        write(tag, classIndex, nameAndType);
+        return add(key);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "n" + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if (index != null)
+            return index;
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        write(NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return add(key);
+    }
+
+    private int reference(int tag, String key, int target) {
+        Integer index = indices.get(key);
+        if (index != null)
+            return index;
+        try {
+            out.writeByte(tag);
+            out.writeShort(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return add(key);
+    }
+
+    private void write(int tag, int first, int second) {
+        try {
+            out.writeByte(tag);
+            out.writeShort(first);
+            out.writeShort(second);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int add(String key) {
+        if (count > 0xffff)
+            throw new IllegalStateException("too many constants for one class file");
+        indices.put(key, count);
+        return count++;
+    }
+
+    void writeTo(DataOutputStream classOut) throws IOException {
+        classOut.writeShort(count);
+        bytes.writeTo(classOut);
+    }
+}
@@ -0,0 +1,141 @@
+package main.backend.jvm;
+
+import main.runtime.RuntimeError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+// The classes the code generator made for a program, by internal name. They are run in this JVM
+// through their own class loader, or written out as .class files or as a runnable jar.
+public class JvmProgram {
+    // what the generated classes use at run time, copied into a jar so that it runs on its own
+    private static final List<String> RUNTIME_CLASSES = Arrays.asList(
+            "main/runtime/IntSet", "main/runtime/Fptr", "main/runtime/Fptr$Handles");
+
+    private final Map<String, byte[]> classes;
+
+    JvmProgram(Map<String, byte[]> classes) {
+        this.classes = classes;
+    }
+
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(Map<String, byte[]> classes) {
+            super(JvmProgram.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name.replace('.', '/'));
+            if (bytes == null)
+                throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    // Runs Main with print writing to out. An error of the program is thrown as a RuntimeError
+    // at the line of the generated code that failed.
+    public void run(PrintStream out) {
+        GeneratedClassLoader loader = new GeneratedClassLoader(classes);
+        Method run;
+        try {
+            run = loader.loadClass(CodeGenerator.PROGRAM_CLASS).getMethod("run", PrintStream.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            run.invoke(null, out);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw toRuntimeError(e.getCause());
+        } finally {
+            out.flush();
+        }
+    }
+
+    private RuntimeException toRuntimeError(Throwable cause) {
+        String message;
+        if (cause instanceof NullPointerException)
+            message = RuntimeError.NULL_REFERENCE;
+        else if (cause instanceof ArrayIndexOutOfBoundsException)
+            message = RuntimeError.INDEX_OUT_OF_BOUNDS;
+        else if (cause instanceof NegativeArraySizeException)
+            message = RuntimeError.NEGATIVE_ARRAY_SIZE;
+        else if (cause instanceof ArithmeticException)
+            message = RuntimeError.DIVISION_BY_ZERO;
+        else if (cause instanceof StackOverflowError)
+            message = RuntimeError.STACK_OVERFLOW;
+        else if (cause instanceof RuntimeException)
+            return (RuntimeException) cause;
+        else if (cause instanceof Error)
+            throw (Error) cause;
+        else
+            return new IllegalStateException(cause);
+        return new RuntimeError(sourceLine(cause), message);
+    }
+
+    // the line of the innermost generated frame; calls through an fptr add frames of the runtime.
+    // A method that overflowed the stack on entry is still at its first NOP, which has no line,
+    // so the line of the call into it is reported, whether the method was compiled or not.
+    private int sourceLine(Throwable cause) {
+        boolean overflow = cause instanceof StackOverflowError;
+        for (StackTraceElement frame : cause.getStackTrace())
+            if (classes.containsKey(frame.getClassName().replace('.', '/'))
+                    && !(overflow && frame.getLineNumber() < 0))
+                return Math.max(frame.getLineNumber(), 0);
+        return 0;
+    }
+
+    public void writeClasses(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, byte[]> entry : classes.entrySet())
+            Files.write(directory.resolve(entry.getKey() + ".class"), entry.getValue());
+    }
+
+    // runs with java -jar, print writing to the standard output
+    public void writeJar(Path jar) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, CodeGenerator.PROGRAM_CLASS);
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                out.putNextEntry(new JarEntry(entry.getKey() + ".class"));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+            for (String runtimeClass : RUNTIME_CLASSES) {
+                out.putNextEntry(new JarEntry(runtimeClass + ".class"));
+                copyRuntimeClass(runtimeClass, out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static void copyRuntimeClass(String name, OutputStream out) throws IOException {
+        try (InputStream in = JvmProgram.class.getClassLoader().getResourceAsStream(name + ".class")) {
+            if (in == null)
+                throw new IOException("runtime class " + name + " not found");
+            in.transferTo(out);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package main.backend.jvm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A jump target in a Code; its stack depth is the one at the first jump to it
+class Label {
+    int position = -1;
+    int stack = -1;
+    // instruction start and offset position of every jump to the label before it was placed
+    final List<int[]> jumps = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package main.backend.specializing;
+
+final class AssignNode extends ExpressionNode {
+    private final LvalueNode target;
+    private final ExpressionNode source;
+
+    AssignNode(int line, LvalueNode target, ExpressionNode source) {
+        super(line);
+        this.target = target;
+        this.source = source;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return target.assign(frame, source, null);
+    }
+}
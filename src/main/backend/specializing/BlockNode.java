@@ -0,0 +1,14 @@
+package main.backend.specializing;
+
+final class BlockNode extends StatementNode {
+    private final StatementNode[] statements;
+
+    BlockNode(StatementNode[] statements) {
+        this.statements = statements;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        return executeAll(statements, frame);
+    }
+}
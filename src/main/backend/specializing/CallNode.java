@@ -0,0 +1,28 @@
+package main.backend.specializing;
+
+// receiver.name(args), or name(args) on self. The method is looked up in the class of the
+// receiver and cached there; on a hit the call costs a compare of the receiver's class.
+final class CallNode extends ExpressionNode {
+    private final SpecializingInterpreter interpreter;
+    private final ExpressionNode receiver;
+    private final ExpressionNode[] args;
+    private final InlineCache<CallTarget> targets;
+
+    CallNode(int line, SpecializingInterpreter interpreter, ExpressionNode receiver, ExpressionNode[] args,
+             InlineCache<CallTarget> targets) {
+        super(line);
+        this.interpreter = interpreter;
+        this.receiver = receiver;
+        this.args = args;
+        this.targets = targets;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Instance object = (Instance) receiver.execute(frame);
+        Object[] values = executeAll(args, frame);
+        nonNull(object, line);
+        interpreter.callLine = line;
+        return targets.get(object.classItem).call(object, values);
+    }
+}
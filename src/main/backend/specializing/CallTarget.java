@@ -0,0 +1,49 @@
+package main.backend.specializing;
+
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.statement.Statement;
+import main.symbolTable.items.MethodSymbolTableItem;
+
+import java.util.List;
+
+// A method ready to be called. Its tree is built on the first call, so only methods that run are
+// built and a recursive method can refer to its own target.
+final class CallTarget {
+    private final NodeBuilder builder;
+    private final MethodSymbolTableItem method;
+    private final Object defaultResult;
+    private ExpressionNode[] localValues;
+    private StatementNode[] body;
+
+    CallTarget(NodeBuilder builder, MethodSymbolTableItem method) {
+        this.builder = builder;
+        this.method = method;
+        this.defaultResult = NodeBuilder.defaultValue(method.getReturnType());
+    }
+
+    MethodSymbolTableItem getMethod() {
+        return method;
+    }
+
+    // falling off the end returns the default value
+    Object call(Instance receiver, Object[] args) {
+        if (body == null)
+            build();
+        Frame frame = new Frame(new Object[method.getFrameSize()], receiver);
+        System.arraycopy(args, 0, frame.slots, 0, args.length);
+        for (int i = 0; i < localValues.length; i++)
+            frame.slots[args.length + i] = localValues[i].execute(frame);
+        return StatementNode.executeAll(body, frame) ? frame.returnValue : defaultResult;
+    }
+
+    private void build() {
+        MethodDeclaration methodDeclaration = method.getMethodDeclaration();
+        List<VariableDeclaration> localVars = methodDeclaration.getLocalVars();
+        ExpressionNode[] values = new ExpressionNode[localVars.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = builder.initialValue(localVars.get(i));
+        localValues = values;
+        body = builder.statements(methodDeclaration.getBody());
+    }
+}
@@ -0,0 +1,38 @@
+package main.backend.specializing;
+
+import main.symbolTable.items.ClassSymbolTableItem;
+
+// How the objects of a class are created: the default of every field, and the sets and arrays
+// that are created for some of them, in layout order. Array sizes are computed with self being
+// the new object, so they may read the fields set before them.
+final class ClassShape {
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final ClassSymbolTableItem classItem;
+    private final Object[] defaults;
+    private final int[] createdOffsets;
+    private final ExpressionNode[] createdValues;
+    private final CallTarget constructor;
+
+    ClassShape(ClassSymbolTableItem classItem, Object[] defaults, int[] createdOffsets, ExpressionNode[] createdValues,
+               CallTarget constructor) {
+        this.classItem = classItem;
+        this.defaults = defaults;
+        this.createdOffsets = createdOffsets;
+        this.createdValues = createdValues;
+        this.constructor = constructor;
+    }
+
+    // null when the class has no constructor, not even an inherited one
+    CallTarget getConstructor() {
+        return constructor;
+    }
+
+    Instance newInstance() {
+        Instance object = new Instance(classItem, defaults.clone());
+        Frame frame = new Frame(NO_VALUES, object);
+        for (int i = 0; i < createdOffsets.length; i++)
+            object.fields[createdOffsets[i]] = createdValues[i].execute(frame);
+        return object;
+    }
+}
@@ -0,0 +1,12 @@
+package main.backend.specializing;
+
+// Value of an fptr: the method, ready to be called, together with the object it was taken from
+final class Closure {
+    final Instance receiver;
+    final CallTarget target;
+
+    Closure(Instance receiver, CallTarget target) {
+        this.receiver = receiver;
+        this.target = target;
+    }
+}
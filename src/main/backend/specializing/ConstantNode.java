@@ -0,0 +1,15 @@
+package main.backend.specializing;
+
+final class ConstantNode extends ExpressionNode {
+    private final Object value;
+
+    ConstantNode(int line, Object value) {
+        super(line);
+        this.value = value;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return value;
+    }
+}
@@ -0,0 +1,39 @@
+package main.backend.specializing;
+
+import main.runtime.IntSet;
+
+// Goes over the array, or over the elements a set has when the loop starts, in ascending order.
+// The array itself is fixed when the loop starts but its elements are read as it goes.
+final class EachNode extends StatementNode {
+    private final int line;
+    private final LvalueNode variable;
+    private final ExpressionNode list;
+    private final StatementNode body;
+
+    EachNode(int line, LvalueNode variable, ExpressionNode list, StatementNode body) {
+        this.line = line;
+        this.variable = variable;
+        this.list = list;
+        this.body = body;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        Object value = ExpressionNode.nonNull(list.execute(frame), line);
+        if (value instanceof IntSet) {
+            for (int element : ((IntSet) value).elements()) {
+                variable.assign(frame, null, element);
+                if (body != null && body.execute(frame))
+                    return true;
+            }
+            return false;
+        }
+        Object[] array = (Object[]) value;
+        for (Object element : array) {
+            variable.assign(frame, null, element);
+            if (body != null && body.execute(frame))
+                return true;
+        }
+        return false;
+    }
+}
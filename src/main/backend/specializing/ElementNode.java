@@ -0,0 +1,47 @@
+package main.backend.specializing;
+
+import main.runtime.RuntimeError;
+
+final class ElementNode extends LvalueNode {
+    private final ExpressionNode array;
+    private final ExpressionNode index;
+
+    ElementNode(int line, ExpressionNode array, ExpressionNode index) {
+        super(line);
+        this.array = array;
+        this.index = index;
+    }
+
+    private Object[] check(Object[] elements, int i) {
+        nonNull(elements, line);
+        if (i < 0 || i >= elements.length)
+            throw new RuntimeError(line, RuntimeError.INDEX_OUT_OF_BOUNDS);
+        return elements;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Object[] elements = (Object[]) array.execute(frame);
+        int i = index.executeInt(frame);
+        return check(elements, i)[i];
+    }
+
+    @Override
+    Object assign(Frame frame, ExpressionNode source, Object value) {
+        Object[] elements = (Object[]) array.execute(frame);
+        int i = index.executeInt(frame);
+        if (source != null)
+            value = source.execute(frame);
+        check(elements, i)[i] = value;
+        return value;
+    }
+
+    @Override
+    int increment(Frame frame, int delta, boolean post) {
+        Object[] elements = (Object[]) array.execute(frame);
+        int i = index.executeInt(frame);
+        int old = (Integer) check(elements, i)[i];
+        elements[i] = old + delta;
+        return post ? old : old + delta;
+    }
+}
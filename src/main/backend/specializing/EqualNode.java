@@ -0,0 +1,23 @@
+package main.backend.specializing;
+
+// ints and bools compare by value, everything else by reference
+final class EqualNode extends ExpressionNode {
+    private final boolean negated;
+    private final ExpressionNode first;
+    private final ExpressionNode second;
+
+    EqualNode(int line, boolean negated, ExpressionNode first, ExpressionNode second) {
+        super(line);
+        this.negated = negated;
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Object left = first.execute(frame);
+        Object right = second.execute(frame);
+        boolean equal = left instanceof Integer || left instanceof Boolean ? left.equals(right) : left == right;
+        return equal != negated;
+    }
+}
@@ -0,0 +1,38 @@
+package main.backend.specializing;
+
+import main.runtime.RuntimeError;
+
+// A node of the executable tree that computes a value. Statements return whether they returned
+// from the method instead; see StatementNode.
+abstract class ExpressionNode {
+    final int line;
+
+    ExpressionNode(int line) {
+        this.line = line;
+    }
+
+    abstract Object execute(Frame frame);
+
+    int executeInt(Frame frame) {
+        return (Integer) execute(frame);
+    }
+
+    boolean executeBool(Frame frame) {
+        return (Boolean) execute(frame);
+    }
+
+    static <T> T nonNull(T value, int line) {
+        if (value == null)
+            throw new RuntimeError(line, RuntimeError.NULL_REFERENCE);
+        return value;
+    }
+
+    static Object[] executeAll(ExpressionNode[] nodes, Frame frame) {
+        if (nodes.length == 0)
+            return nodes;
+        Object[] values = new Object[nodes.length];
+        for (int i = 0; i < nodes.length; i++)
+            values[i] = nodes[i].execute(frame);
+        return values;
+    }
+}
@@ -0,0 +1,16 @@
+package main.backend.specializing;
+
+// an assignment or a method call whose value is dropped
+final class ExpressionStatementNode extends StatementNode {
+    private final ExpressionNode expression;
+
+    ExpressionStatementNode(ExpressionNode expression) {
+        this.expression = expression;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        expression.execute(frame);
+        return false;
+    }
+}
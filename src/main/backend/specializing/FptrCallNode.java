@@ -0,0 +1,23 @@
+package main.backend.specializing;
+
+final class FptrCallNode extends ExpressionNode {
+    private final SpecializingInterpreter interpreter;
+    private final ExpressionNode function;
+    private final ExpressionNode[] args;
+
+    FptrCallNode(int line, SpecializingInterpreter interpreter, ExpressionNode function, ExpressionNode[] args) {
+        super(line);
+        this.interpreter = interpreter;
+        this.function = function;
+        this.args = args;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Closure closure = (Closure) function.execute(frame);
+        Object[] values = executeAll(args, frame);
+        nonNull(closure, line);
+        interpreter.callLine = line;
+        return closure.target.call(closure.receiver, values);
+    }
+}
@@ -0,0 +1,14 @@
+package main.backend.specializing;
+
+// The arguments and local variables of one method call, and the object it runs on
+final class Frame {
+    final Object[] slots;
+    final Instance self;
+    // set by a return statement
+    Object returnValue;
+
+    Frame(Object[] slots, Instance self) {
+        this.slots = slots;
+        this.self = self;
+    }
+}
@@ -0,0 +1,32 @@
+package main.backend.specializing;
+
+final class GlobalNode extends LvalueNode {
+    private final Object[] globals;
+    private final int index;
+
+    GlobalNode(int line, Object[] globals, int index) {
+        super(line);
+        this.globals = globals;
+        this.index = index;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return globals[index];
+    }
+
+    @Override
+    Object assign(Frame frame, ExpressionNode source, Object value) {
+        if (source != null)
+            value = source.execute(frame);
+        globals[index] = value;
+        return value;
+    }
+
+    @Override
+    int increment(Frame frame, int delta, boolean post) {
+        int old = (Integer) globals[index];
+        globals[index] = old + delta;
+        return post ? old : old + delta;
+    }
+}
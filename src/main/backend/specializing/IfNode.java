@@ -0,0 +1,20 @@
+package main.backend.specializing;
+
+// an elsif is an IfNode in the else branch; a missing branch is null
+final class IfNode extends StatementNode {
+    private final ExpressionNode condition;
+    private final StatementNode thenBody;
+    private final StatementNode elseBody;
+
+    IfNode(ExpressionNode condition, StatementNode thenBody, StatementNode elseBody) {
+        this.condition = condition;
+        this.thenBody = thenBody;
+        this.elseBody = elseBody;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        StatementNode body = condition.executeBool(frame) ? thenBody : elseBody;
+        return body != null && body.execute(frame);
+    }
+}
@@ -0,0 +1,19 @@
+package main.backend.specializing;
+
+final class IncrementNode extends ExpressionNode {
+    private final LvalueNode target;
+    private final int delta;
+    private final boolean post;
+
+    IncrementNode(int line, LvalueNode target, int delta, boolean post) {
+        super(line);
+        this.target = target;
+        this.delta = delta;
+        this.post = post;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return target.increment(frame, delta, post);
+    }
+}
@@ -0,0 +1,84 @@
+package main.backend.specializing;
+
+import main.symbolTable.items.ClassSymbolTableItem;
+
+import java.util.function.Function;
+
+// What a member name resolves to in the class of the receiver, at one site of the program. The
+// cache is a chain of dispatch nodes that rewrites itself: it starts uninitialized, a miss puts a
+// node for the receiver's class in front, so it becomes monomorphic and then polymorphic, and past
+// MAX_CLASSES classes the chain is replaced by a megamorphic node that looks the name up through
+// the class hierarchy on every call. A hit costs a load of the chain's head and a compare.
+final class InlineCache<T> {
+    enum State {
+        uninitialized, monomorphic, polymorphic, megamorphic
+    }
+
+    static final int MAX_CLASSES = 4;
+
+    private final Function<ClassSymbolTableItem, T> lookup;
+    private DispatchNode<T> head = new UninitializedNode();
+    private int classes = 0;
+
+    InlineCache(Function<ClassSymbolTableItem, T> lookup) {
+        this.lookup = lookup;
+    }
+
+    T get(ClassSymbolTableItem receiverClass) {
+        return head.get(receiverClass);
+    }
+
+    State getState() {
+        if (head instanceof MegamorphicNode)
+            return State.megamorphic;
+        if (classes == 0)
+            return State.uninitialized;
+        return classes == 1 ? State.monomorphic : State.polymorphic;
+    }
+
+    private T specialize(ClassSymbolTableItem receiverClass) {
+        T value = lookup.apply(receiverClass);
+        if (classes == MAX_CLASSES) {
+            head = new MegamorphicNode();
+        } else {
+            classes++;
+            head = new CachedNode(receiverClass, value, head);
+        }
+        return value;
+    }
+
+    private abstract static class DispatchNode<T> {
+        abstract T get(ClassSymbolTableItem receiverClass);
+    }
+
+    private final class UninitializedNode extends DispatchNode<T> {
+        @Override
+        T get(ClassSymbolTableItem receiverClass) {
+            return specialize(receiverClass);
+        }
+    }
+
+    private final class CachedNode extends DispatchNode<T> {
+        private final ClassSymbolTableItem cachedClass;
+        private final T value;
+        private final DispatchNode<T> next;
+
+        CachedNode(ClassSymbolTableItem cachedClass, T value, DispatchNode<T> next) {
+            this.cachedClass = cachedClass;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        T get(ClassSymbolTableItem receiverClass) {
+            return receiverClass == cachedClass ? value : next.get(receiverClass);
+        }
+    }
+
+    private final class MegamorphicNode extends DispatchNode<T> {
+        @Override
+        T get(ClassSymbolTableItem receiverClass) {
+            return lookup.apply(receiverClass);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package main.backend.specializing;
+
+import main.symbolTable.items.ClassSymbolTableItem;
+
+// An object of a SimpleLOOP class, its fields in the order of the class's layout. The class is
+// the key of the inline caches.
+final class Instance {
+    final ClassSymbolTableItem classItem;
+    final Object[] fields;
+
+    Instance(ClassSymbolTableItem classItem, Object[] fields) {
+        this.classItem = classItem;
+        this.fields = fields;
+    }
+}
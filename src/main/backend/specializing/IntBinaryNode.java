@@ -0,0 +1,40 @@
+package main.backend.specializing;
+
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.runtime.RuntimeError;
+
+// arithmetic and comparison of two ints
+final class IntBinaryNode extends ExpressionNode {
+    private final BinaryOperator operator;
+    private final ExpressionNode first;
+    private final ExpressionNode second;
+
+    IntBinaryNode(int line, BinaryOperator operator, ExpressionNode first, ExpressionNode second) {
+        super(line);
+        this.operator = operator;
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        int left = first.executeInt(frame);
+        int right = second.executeInt(frame);
+        switch (operator) {
+            case lt:
+                return left < right;
+            case gt:
+                return left > right;
+            case add:
+                return left + right;
+            case sub:
+                return left - right;
+            case mult:
+                return left * right;
+            default:
+                if (right == 0)
+                    throw new RuntimeError(line, RuntimeError.DIVISION_BY_ZERO);
+                return operator == BinaryOperator.div ? left / right : left % right;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package main.backend.specializing;
+
+// an argument or local variable, by its slot in the frame
+final class LocalNode extends LvalueNode {
+    private final int slot;
+
+    LocalNode(int line, int slot) {
+        super(line);
+        this.slot = slot;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return frame.slots[slot];
+    }
+
+    @Override
+    Object assign(Frame frame, ExpressionNode source, Object value) {
+        if (source != null)
+            value = source.execute(frame);
+        frame.slots[slot] = value;
+        return value;
+    }
+
+    @Override
+    int increment(Frame frame, int delta, boolean post) {
+        int old = (Integer) frame.slots[slot];
+        frame.slots[slot] = old + delta;
+        return post ? old : old + delta;
+    }
+}
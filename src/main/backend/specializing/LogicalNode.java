@@ -0,0 +1,22 @@
+package main.backend.specializing;
+
+// && and ||, evaluating the second operand only when it decides the result
+final class LogicalNode extends ExpressionNode {
+    private final boolean isAnd;
+    private final ExpressionNode first;
+    private final ExpressionNode second;
+
+    LogicalNode(int line, boolean isAnd, ExpressionNode first, ExpressionNode second) {
+        super(line);
+        this.isAnd = isAnd;
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        if (first.executeBool(frame) != isAnd)
+            return !isAnd;
+        return second.executeBool(frame);
+    }
+}
@@ -0,0 +1,15 @@
+package main.backend.specializing;
+
+// A variable, field or array element: read by execute, written by assign and increment. The object
+// or array that holds it is evaluated before the assigned value and checked after it.
+abstract class LvalueNode extends ExpressionNode {
+    LvalueNode(int line) {
+        super(line);
+    }
+
+    // stores the value of source, or value when there is no source, and returns what was stored
+    abstract Object assign(Frame frame, ExpressionNode source, Object value);
+
+    // adds delta and returns the old value with post, else the new one
+    abstract int increment(Frame frame, int delta, boolean post);
+}
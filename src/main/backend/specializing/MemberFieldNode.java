@@ -0,0 +1,39 @@
+package main.backend.specializing;
+
+import main.ast.names.Name;
+
+// receiver.name for a field; the offset is cached per class of the receiver
+final class MemberFieldNode extends LvalueNode {
+    private final ExpressionNode receiver;
+    private final InlineCache<Integer> offsets;
+
+    MemberFieldNode(int line, ExpressionNode receiver, Name name) {
+        super(line);
+        this.receiver = receiver;
+        this.offsets = new InlineCache<>(classItem -> classItem.getClassSymbolTable().lookupField(name, true).getOffset());
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Instance object = nonNull((Instance) receiver.execute(frame), line);
+        return object.fields[offsets.get(object.classItem)];
+    }
+
+    @Override
+    Object assign(Frame frame, ExpressionNode source, Object value) {
+        Instance object = (Instance) receiver.execute(frame);
+        if (source != null)
+            value = source.execute(frame);
+        nonNull(object, line).fields[offsets.get(object.classItem)] = value;
+        return value;
+    }
+
+    @Override
+    int increment(Frame frame, int delta, boolean post) {
+        Instance object = nonNull((Instance) receiver.execute(frame), line);
+        int offset = offsets.get(object.classItem);
+        int old = (Integer) object.fields[offset];
+        object.fields[offset] = old + delta;
+        return post ? old : old + delta;
+    }
+}
@@ -0,0 +1,24 @@
+package main.backend.specializing;
+
+// receiver.name, or a bare name, for a method: an fptr bound to the receiver. The method is
+// cached per class of the receiver.
+final class MethodValueNode extends ExpressionNode {
+    private final ExpressionNode receiver;
+    private final InlineCache<CallTarget> targets;
+
+    MethodValueNode(int line, ExpressionNode receiver, InlineCache<CallTarget> targets) {
+        super(line);
+        this.receiver = receiver;
+        this.targets = targets;
+    }
+
+    InlineCache<CallTarget> getCache() {
+        return targets;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Instance object = nonNull((Instance) receiver.execute(frame), line);
+        return new Closure(object, targets.get(object.classItem));
+    }
+}
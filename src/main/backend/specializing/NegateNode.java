@@ -0,0 +1,15 @@
+package main.backend.specializing;
+
+final class NegateNode extends ExpressionNode {
+    private final ExpressionNode operand;
+
+    NegateNode(int line, ExpressionNode operand) {
+        super(line);
+        this.operand = operand;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return -operand.executeInt(frame);
+    }
+}
@@ -0,0 +1,33 @@
+package main.backend.specializing;
+
+import main.runtime.RuntimeError;
+
+// all sizes are computed before any is checked
+final class NewArrayNode extends ExpressionNode {
+    private final ExpressionNode[] sizes;
+    private final Object element;
+
+    NewArrayNode(int line, ExpressionNode[] sizes, Object element) {
+        super(line);
+        this.sizes = sizes;
+        this.element = element;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        int[] values = new int[sizes.length];
+        for (int i = 0; i < values.length; i++)
+            values[i] = sizes[i].executeInt(frame);
+        for (int size : values)
+            if (size < 0)
+                throw new RuntimeError(line, RuntimeError.NEGATIVE_ARRAY_SIZE);
+        return newArray(values, 0);
+    }
+
+    private Object[] newArray(int[] values, int dimension) {
+        Object[] array = new Object[values[dimension]];
+        for (int i = 0; i < array.length; i++)
+            array[i] = dimension + 1 < values.length ? newArray(values, dimension + 1) : element;
+        return array;
+    }
+}
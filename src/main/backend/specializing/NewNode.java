@@ -0,0 +1,27 @@
+package main.backend.specializing;
+
+// the object is created before the arguments are evaluated
+final class NewNode extends ExpressionNode {
+    private final SpecializingInterpreter interpreter;
+    private final ClassShape shape;
+    private final ExpressionNode[] args;
+
+    NewNode(int line, SpecializingInterpreter interpreter, ClassShape shape, ExpressionNode[] args) {
+        super(line);
+        this.interpreter = interpreter;
+        this.shape = shape;
+        this.args = args;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        Instance object = shape.newInstance();
+        CallTarget constructor = shape.getConstructor();
+        if (constructor == null)
+            return object;
+        Object[] values = executeAll(args, frame);
+        interpreter.callLine = line;
+        constructor.call(object, values);
+        return object;
+    }
+}
@@ -0,0 +1,21 @@
+package main.backend.specializing;
+
+import main.runtime.IntSet;
+
+// Set.new(...), a set literal, or the empty set a declared set starts as
+final class NewSetNode extends ExpressionNode {
+    private final ExpressionNode[] elements;
+
+    NewSetNode(int line, ExpressionNode[] elements) {
+        super(line);
+        this.elements = elements;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        IntSet set = new IntSet();
+        for (ExpressionNode element : elements)
+            set.add(element.executeInt(frame));
+        return set;
+    }
+}
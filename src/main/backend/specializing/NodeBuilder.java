@@ -0,0 +1,343 @@
+package main.backend.specializing;
+
+import main.ast.names.Name;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.nodes.statement.set.SetMerge;
+import main.ast.types.Type;
+import main.ast.types.array.ArrayType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.set.SetType;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.GlobalVariableSymbolTableItem;
+import main.symbolTable.items.LocalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds the executable tree of a program that went through the Binder. Variables of the frame,
+// fields of self and globals use the numbers the Binder gave them. A member of another object
+// is named by its Name and found through an inline cache on the class of the receiver, and
+// calls go through one too, self calls included.
+// Expressions are visited to ExpressionNodes and statements to StatementNodes.
+class NodeBuilder extends Visitor<Object> {
+    private final SpecializingInterpreter interpreter;
+    private final Map<MethodSymbolTableItem, CallTarget> targets = new IdentityHashMap<>();
+    private final Map<ClassSymbolTableItem, ClassShape> shapes = new IdentityHashMap<>();
+
+    NodeBuilder(SpecializingInterpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    static Object defaultValue(Type type) {
+        if (type instanceof IntType)
+            return 0;
+        if (type instanceof BoolType)
+            return false;
+        return null;
+    }
+
+    CallTarget target(MethodSymbolTableItem method) {
+        return targets.computeIfAbsent(method, m -> new CallTarget(this, m));
+    }
+
+    ClassShape shape(ClassSymbolTableItem classItem) {
+        ClassShape shape = shapes.get(classItem);
+        if (shape != null)
+            return shape;
+        List<FieldSymbolTableItem> layout = classItem.getLayout();
+        Object[] defaults = new Object[layout.size()];
+        List<FieldSymbolTableItem> created = new ArrayList<>();
+        for (int i = 0; i < defaults.length; i++) {
+            FieldSymbolTableItem field = layout.get(i);
+            defaults[i] = defaultValue(field.getType());
+            if (field.getType() instanceof SetType || field.getType() instanceof ArrayType)
+                created.add(field);
+        }
+        int[] createdOffsets = new int[created.size()];
+        ExpressionNode[] createdValues = new ExpressionNode[created.size()];
+        for (int i = 0; i < createdOffsets.length; i++) {
+            createdOffsets[i] = created.get(i).getOffset();
+            createdValues[i] = initialValue(created.get(i).getFieldDeclaration().getVarDeclaration());
+        }
+        MethodSymbolTableItem constructor = classItem.getConstructor();
+        shape = new ClassShape(classItem, defaults, createdOffsets, createdValues,
+                constructor == null ? null : target(constructor));
+        shapes.put(classItem, shape);
+        return shape;
+    }
+
+    private InlineCache<CallTarget> methodCache(Name name) {
+        return new InlineCache<>(classItem -> target(classItem.getClassSymbolTable().lookupMethod(name, true)));
+    }
+
+    // sets and arrays start out created, everything else as 0, false or null
+    ExpressionNode initialValue(VariableDeclaration varDeclaration) {
+        Type type = varDeclaration.getType();
+        int line = varDeclaration.getLine();
+        if (type instanceof SetType)
+            return new NewSetNode(line, new ExpressionNode[0]);
+        if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            return new NewArrayNode(line, expressions(varDeclaration.getDimensions()), defaultValue(arrayType.getType()));
+        }
+        return new ConstantNode(line, defaultValue(type));
+    }
+
+    // merge statements come out of the parser as null and are left out
+    StatementNode[] statements(List<Statement> statements) {
+        List<StatementNode> nodes = new ArrayList<>(statements.size());
+        for (Statement statement : statements)
+            if (statement != null)
+                nodes.add(statement(statement));
+        return nodes.toArray(new StatementNode[0]);
+    }
+
+    private StatementNode statement(Statement statement) {
+        return statement == null ? null : (StatementNode) statement.accept(this);
+    }
+
+    private ExpressionNode expression(Expression expression) {
+        return (ExpressionNode) expression.accept(this);
+    }
+
+    private ExpressionNode[] expressions(List<Expression> expressions) {
+        ExpressionNode[] nodes = new ExpressionNode[expressions.size()];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = expression(expressions.get(i));
+        return nodes;
+    }
+
+    private LvalueNode lvalue(Expression expression) {
+        return (LvalueNode) expression(expression);
+    }
+
+    @Override
+    public Object visit(AssignmentStmt assignmentStmt) {
+        return new ExpressionStatementNode(new AssignNode(assignmentStmt.getLine(),
+                lvalue(assignmentStmt.getlValue()), expression(assignmentStmt.getrValue())));
+    }
+
+    @Override
+    public Object visit(BlockStmt blockStmt) {
+        return new BlockNode(statements(blockStmt.getStatements()));
+    }
+
+    @Override
+    public Object visit(ConditionalStmt conditionalStmt) {
+        StatementNode elseBody = statement(conditionalStmt.getElseBody());
+        List<ElsifStmt> elsifs = conditionalStmt.getElsif();
+        for (int i = elsifs.size() - 1; i >= 0; i--)
+            elseBody = new IfNode(expression(elsifs.get(i).getCondition()), statement(elsifs.get(i).getThenBody()),
+                    elseBody);
+        return new IfNode(expression(conditionalStmt.getCondition()), statement(conditionalStmt.getThenBody()),
+                elseBody);
+    }
+
+    @Override
+    public Object visit(MethodCallStmt methodCallStmt) {
+        return new ExpressionStatementNode(expression(methodCallStmt.getMethodCall()));
+    }
+
+    @Override
+    public Object visit(PrintStmt print) {
+        return new PrintNode(print.getLine(), interpreter.out, expression(print.getArg()));
+    }
+
+    @Override
+    public Object visit(ReturnStmt returnStmt) {
+        Expression returned = returnStmt.getReturnedExpr();
+        return new ReturnNode(returned instanceof NullValue ? null : expression(returned));
+    }
+
+    @Override
+    public Object visit(EachStmt eachStmt) {
+        return new EachNode(eachStmt.getLine(), lvalue(eachStmt.getVariable()), expression(eachStmt.getList()),
+                statement(eachStmt.getBody()));
+    }
+
+    @Override
+    public Object visit(SetAdd setAdd) {
+        return new SetUpdateNode(setAdd.getLine(), true, expression(setAdd.getSetArg()),
+                expression(setAdd.getElementArg()));
+    }
+
+    @Override
+    public Object visit(SetDelete setDelete) {
+        return new SetUpdateNode(setDelete.getLine(), false, expression(setDelete.getSetArg()),
+                expression(setDelete.getElementArg()));
+    }
+
+    @Override
+    public Object visit(SetMerge setMerge) {
+        return new SetMergeNode(setMerge.getLine(), expression(setMerge.getSetArg()),
+                expressions(setMerge.getElementArgs()));
+    }
+
+    @Override
+    public Object visit(BinaryExpression binaryExpression) {
+        int line = binaryExpression.getLine();
+        Expression first = binaryExpression.getFirstOperand();
+        Expression second = binaryExpression.getSecondOperand();
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        switch (operator) {
+            case assign:
+                return new AssignNode(line, lvalue(first), expression(second));
+            case and:
+            case or:
+                return new LogicalNode(line, operator == BinaryOperator.and, expression(first), expression(second));
+            case eq:
+            case neq:
+                return new EqualNode(line, operator == BinaryOperator.neq, expression(first), expression(second));
+            default:
+                return new IntBinaryNode(line, operator, expression(first), expression(second));
+        }
+    }
+
+    @Override
+    public Object visit(UnaryExpression unaryExpression) {
+        int line = unaryExpression.getLine();
+        Expression operand = unaryExpression.getOperand();
+        switch (unaryExpression.getOperator()) {
+            case not:
+                return new NotNode(line, expression(operand));
+            case minus:
+                return new NegateNode(line, expression(operand));
+            case preinc:
+                return new IncrementNode(line, lvalue(operand), 1, false);
+            case predec:
+                return new IncrementNode(line, lvalue(operand), -1, false);
+            case postinc:
+                return new IncrementNode(line, lvalue(operand), 1, true);
+            default:
+                return new IncrementNode(line, lvalue(operand), -1, true);
+        }
+    }
+
+    @Override
+    public Object visit(TernaryExpression ternaryExpression) {
+        return new TernaryNode(ternaryExpression.getLine(), expression(ternaryExpression.getCondition()),
+                expression(ternaryExpression.getTrueExpression()), expression(ternaryExpression.getFalseExpression()));
+    }
+
+    @Override
+    public Object visit(RangeExpression rangeExpression) {
+        throw new UnsupportedOperationException("range expressions are rejected by the type checker");
+    }
+
+    @Override
+    public Object visit(ObjectMemberAccess objectOrListMemberAccess) {
+        int line = objectOrListMemberAccess.getLine();
+        Identifier memberName = objectOrListMemberAccess.getMemberName();
+        ExpressionNode receiver = expression(objectOrListMemberAccess.getInstance());
+        if (memberName.getBinding() instanceof MethodSymbolTableItem)
+            return new MethodValueNode(line, receiver, methodCache(memberName.getSymbol()));
+        return new MemberFieldNode(line, receiver, memberName.getSymbol());
+    }
+
+    @Override
+    public Object visit(Identifier identifier) {
+        int line = identifier.getLine();
+        SymbolTableItem binding = identifier.getBinding();
+        switch (binding.getKind()) {
+            case localVarDec:
+                return new LocalNode(line, ((LocalVariableSymbolTableItem) binding).getSlot());
+            case fieldDec:
+                return new SelfFieldNode(line, ((FieldSymbolTableItem) binding).getOffset());
+            case globalVarDec:
+                return new GlobalNode(line, interpreter.globals, ((GlobalVariableSymbolTableItem) binding).getIndex());
+            default:
+                return new MethodValueNode(line, new SelfNode(line), methodCache(identifier.getSymbol()));
+        }
+    }
+
+    @Override
+    public Object visit(ArrayAccessByIndex listAccessByIndex) {
+        return new ElementNode(listAccessByIndex.getLine(), expression(listAccessByIndex.getInstance()),
+                expression(listAccessByIndex.getIndex()));
+    }
+
+    // a method named by the callee is called through a cache, anything else is an fptr value
+    @Override
+    public Object visit(MethodCall methodCall) {
+        int line = methodCall.getLine();
+        Expression callee = methodCall.getInstance();
+        ExpressionNode[] args = expressions(methodCall.getArgs());
+        if (callee instanceof NewClassInstance)
+            return newInstance((NewClassInstance) callee, args);
+        if (callee instanceof Identifier && ((Identifier) callee).getBinding() instanceof MethodSymbolTableItem)
+            return new CallNode(line, interpreter, new SelfNode(line), args,
+                    methodCache(((Identifier) callee).getSymbol()));
+        if (callee instanceof ObjectMemberAccess
+                && ((ObjectMemberAccess) callee).getMemberName().getBinding() instanceof MethodSymbolTableItem) {
+            ObjectMemberAccess access = (ObjectMemberAccess) callee;
+            return new CallNode(line, interpreter, expression(access.getInstance()), args,
+                    methodCache(access.getMemberName().getSymbol()));
+        }
+        return new FptrCallNode(line, interpreter, expression(callee), args);
+    }
+
+    @Override
+    public Object visit(NewClassInstance newClassInstance) {
+        return newInstance(newClassInstance, new ExpressionNode[0]);
+    }
+
+    private ExpressionNode newInstance(NewClassInstance newClassInstance, ExpressionNode[] args) {
+        ClassSymbolTableItem classItem = newClassInstance.getBinding();
+        return new NewNode(newClassInstance.getLine(), interpreter, shape(classItem), args);
+    }
+
+    @Override
+    public Object visit(SelfClass selfClass) {
+        return new SelfNode(selfClass.getLine());
+    }
+
+    @Override
+    public Object visit(NullValue nullValue) {
+        return new ConstantNode(nullValue.getLine(), null);
+    }
+
+    @Override
+    public Object visit(IntValue intValue) {
+        return new ConstantNode(intValue.getLine(), intValue.getConstant());
+    }
+
+    @Override
+    public Object visit(BoolValue boolValue) {
+        return new ConstantNode(boolValue.getLine(), boolValue.getConstant());
+    }
+
+    @Override
+    public Object visit(SetValue setValue) {
+        ExpressionNode[] elements = new ExpressionNode[setValue.getElements().size()];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = expression(setValue.getElements().get(i));
+        return new NewSetNode(setValue.getLine(), elements);
+    }
+
+    @Override
+    public Object visit(SetInclude setInclude) {
+        return new SetIncludeNode(setInclude.getLine(), expression(setInclude.getSetArg()),
+                expression(setInclude.getElementArg()));
+    }
+
+    @Override
+    public Object visit(SetNew setNew) {
+        return new NewSetNode(setNew.getLine(), expressions(setNew.getArgs()));
+    }
+}
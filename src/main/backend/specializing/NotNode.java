@@ -0,0 +1,15 @@
+package main.backend.specializing;
+
+final class NotNode extends ExpressionNode {
+    private final ExpressionNode operand;
+
+    NotNode(int line, ExpressionNode operand) {
+        super(line);
+        this.operand = operand;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return !operand.executeBool(frame);
+    }
+}
@@ -0,0 +1,21 @@
+package main.backend.specializing;
+
+import java.io.PrintStream;
+
+final class PrintNode extends StatementNode {
+    private final int line;
+    private final PrintStream out;
+    private final ExpressionNode arg;
+
+    PrintNode(int line, PrintStream out, ExpressionNode arg) {
+        this.line = line;
+        this.out = out;
+        this.arg = arg;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        out.println(ExpressionNode.nonNull(arg.execute(frame), line));
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package main.backend.specializing;
+
+// value is null for a bare return
+final class ReturnNode extends StatementNode {
+    private final ExpressionNode value;
+
+    ReturnNode(ExpressionNode value) {
+        this.value = value;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        frame.returnValue = value == null ? null : value.execute(frame);
+        return true;
+    }
+}
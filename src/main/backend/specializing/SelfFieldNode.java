@@ -0,0 +1,33 @@
+package main.backend.specializing;
+
+// a field of self named without self., by its offset; parent fields come first in every layout,
+// so the offset is the same whatever the class of self is
+final class SelfFieldNode extends LvalueNode {
+    private final int offset;
+
+    SelfFieldNode(int line, int offset) {
+        super(line);
+        this.offset = offset;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return frame.self.fields[offset];
+    }
+
+    @Override
+    Object assign(Frame frame, ExpressionNode source, Object value) {
+        if (source != null)
+            value = source.execute(frame);
+        frame.self.fields[offset] = value;
+        return value;
+    }
+
+    @Override
+    int increment(Frame frame, int delta, boolean post) {
+        Object[] fields = frame.self.fields;
+        int old = (Integer) fields[offset];
+        fields[offset] = old + delta;
+        return post ? old : old + delta;
+    }
+}
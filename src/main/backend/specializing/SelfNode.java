@@ -0,0 +1,12 @@
+package main.backend.specializing;
+
+final class SelfNode extends ExpressionNode {
+    SelfNode(int line) {
+        super(line);
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return frame.self;
+    }
+}
@@ -0,0 +1,21 @@
+package main.backend.specializing;
+
+import main.runtime.IntSet;
+
+final class SetIncludeNode extends ExpressionNode {
+    private final ExpressionNode set;
+    private final ExpressionNode element;
+
+    SetIncludeNode(int line, ExpressionNode set, ExpressionNode element) {
+        super(line);
+        this.set = set;
+        this.element = element;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        IntSet value = (IntSet) set.execute(frame);
+        int e = element.executeInt(frame);
+        return nonNull(value, line).include(e);
+    }
+}
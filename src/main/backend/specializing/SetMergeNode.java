@@ -0,0 +1,30 @@
+package main.backend.specializing;
+
+import main.runtime.IntSet;
+
+// every argument is an element or a set whose elements are added
+final class SetMergeNode extends StatementNode {
+    private final int line;
+    private final ExpressionNode set;
+    private final ExpressionNode[] args;
+
+    SetMergeNode(int line, ExpressionNode set, ExpressionNode[] args) {
+        this.line = line;
+        this.set = set;
+        this.args = args;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        IntSet value = (IntSet) set.execute(frame);
+        for (ExpressionNode arg : args) {
+            Object element = arg.execute(frame);
+            ExpressionNode.nonNull(value, line);
+            if (element instanceof Integer)
+                value.add((Integer) element);
+            else
+                value.merge(ExpressionNode.nonNull((IntSet) element, line));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package main.backend.specializing;
+
+import main.runtime.IntSet;
+
+// set.add(element) or set.delete(element)
+final class SetUpdateNode extends StatementNode {
+    private final int line;
+    private final boolean isAdd;
+    private final ExpressionNode set;
+    private final ExpressionNode element;
+
+    SetUpdateNode(int line, boolean isAdd, ExpressionNode set, ExpressionNode element) {
+        this.line = line;
+        this.isAdd = isAdd;
+        this.set = set;
+        this.element = element;
+    }
+
+    @Override
+    boolean execute(Frame frame) {
+        IntSet value = (IntSet) set.execute(frame);
+        int e = element.executeInt(frame);
+        if (isAdd)
+            ExpressionNode.nonNull(value, line).add(e);
+        else
+            ExpressionNode.nonNull(value, line).delete(e);
+        return false;
+    }
+}
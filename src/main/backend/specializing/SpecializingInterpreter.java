@@ -0,0 +1,55 @@
+package main.backend.specializing;
+
+import main.CompilationContext;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.runtime.RuntimeError;
+import main.symbolTable.items.ClassSymbolTableItem;
+
+import java.io.PrintStream;
+import java.util.List;
+
+// Runs a program that went through the Binder as a tree of nodes built for it. Unlike the AST
+// interpreter, every node knows what it does when it is built, and the member names of other
+// objects are resolved through inline caches that specialize to the classes they see, so a call
+// like book.getId() costs a compare of the receiver's class once the site has warmed up.
+// Values are the same as in the AST interpreter, with Closure for fptrs.
+public class SpecializingInterpreter {
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final Program program;
+    private final ClassSymbolTableItem mainClass;
+    private final NodeBuilder builder;
+
+    final Object[] globals;
+    final PrintStream out;
+    // of the call entered last, for a stack overflow
+    int callLine;
+
+    public SpecializingInterpreter(CompilationContext context, Program program, PrintStream out) {
+        this.program = program;
+        this.mainClass = context.getRoot().lookupClass(context.getNames().intern("Main"));
+        this.globals = new Object[program.getGlobalVariables().size()];
+        this.out = out;
+        this.builder = new NodeBuilder(this);
+    }
+
+    // An error of the program is thrown as a RuntimeError.
+    public void run() {
+        try {
+            List<VariableDeclaration> globalVariables = program.getGlobalVariables();
+            Frame frame = new Frame(NO_VALUES, null);
+            for (int i = 0; i < globals.length; i++)
+                globals[i] = builder.initialValue(globalVariables.get(i)).execute(frame);
+            callLine = mainClass.getClassDeclaration().getLine();
+            ClassShape shape = builder.shape(mainClass);
+            Instance main = shape.newInstance();
+            if (shape.getConstructor() != null)
+                shape.getConstructor().call(main, NO_VALUES);
+        } catch (StackOverflowError e) {
+            throw new RuntimeError(callLine, RuntimeError.STACK_OVERFLOW);
+        } finally {
+            out.flush();
+        }
+    }
+}
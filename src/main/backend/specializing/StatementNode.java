@@ -0,0 +1,14 @@
+package main.backend.specializing;
+
+// A node of the executable tree that runs a statement. execute returns true when a return
+// statement ran, with the value left in the frame.
+abstract class StatementNode {
+    abstract boolean execute(Frame frame);
+
+    static boolean executeAll(StatementNode[] statements, Frame frame) {
+        for (StatementNode statement : statements)
+            if (statement.execute(frame))
+                return true;
+        return false;
+    }
+}
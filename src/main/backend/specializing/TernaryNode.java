@@ -0,0 +1,19 @@
+package main.backend.specializing;
+
+final class TernaryNode extends ExpressionNode {
+    private final ExpressionNode condition;
+    private final ExpressionNode trueValue;
+    private final ExpressionNode falseValue;
+
+    TernaryNode(int line, ExpressionNode condition, ExpressionNode trueValue, ExpressionNode falseValue) {
+        super(line);
+        this.condition = condition;
+        this.trueValue = trueValue;
+        this.falseValue = falseValue;
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        return condition.executeBool(frame) ? trueValue.execute(frame) : falseValue.execute(frame);
+    }
+}
@@ -0,0 +1,99 @@
+package main.backend.vm;
+
+import java.util.Arrays;
+
+// The code of one function as it is emitted, with the source line of every instruction and the
+// registers the function needs. Temporary registers are taken above the ones taken before and
+// given back together with release.
+class Assembler {
+    private int[] code = new int[64];
+    private int[] lines = new int[64];
+    private int length = 0;
+    private int line = 0;
+    private int ints;
+    private int refs;
+    private int maxInts;
+    private int maxRefs;
+
+    Assembler(int ints, int refs) {
+        this.ints = maxInts = ints;
+        this.refs = maxRefs = refs;
+    }
+
+    // of the instructions emitted from now on
+    void line(int line) {
+        this.line = line;
+    }
+
+    int newInt() {
+        return newInts(1);
+    }
+
+    // the first of count registers in a row
+    int newInts(int count) {
+        int first = ints;
+        ints += count;
+        maxInts = Math.max(maxInts, ints);
+        return first;
+    }
+
+    int newRef() {
+        return newRefs(1);
+    }
+
+    int newRefs(int count) {
+        int first = refs;
+        refs += count;
+        maxRefs = Math.max(maxRefs, refs);
+        return first;
+    }
+
+    int intMark() {
+        return ints;
+    }
+
+    int refMark() {
+        return refs;
+    }
+
+    // gives back the registers taken since the marks
+    void release(int intMark, int refMark) {
+        ints = intMark;
+        refs = refMark;
+    }
+
+    void emit(int opcode, int... operands) {
+        ensureCapacity(1 + operands.length);
+        lines[length] = line;
+        code[length++] = opcode;
+        for (int operand : operands)
+            code[length++] = operand;
+    }
+
+    // the target is the last operand
+    void jump(int opcode, Label target, int... operands) {
+        emit(opcode, operands);
+        ensureCapacity(1);
+        if (target.position < 0)
+            target.jumps.add(length);
+        code[length++] = target.position;
+    }
+
+    void mark(Label label) {
+        label.position = length;
+        for (int jump : label.jumps)
+            code[jump] = length;
+        label.jumps.clear();
+    }
+
+    private void ensureCapacity(int more) {
+        if (length + more > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + more));
+            lines = Arrays.copyOf(lines, code.length);
+        }
+    }
+
+    Function toFunction(Function.Result result) {
+        return new Function(Arrays.copyOf(code, length), Arrays.copyOf(lines, length), maxInts, maxRefs, result);
+    }
+}
@@ -0,0 +1,12 @@
+package main.backend.vm;
+
+// Value of an fptr: a function together with the object it was taken from
+final class BoundFunction {
+    final VmObject receiver;
+    final Function function;
+
+    BoundFunction(VmObject receiver, Function function) {
+        this.receiver = receiver;
+        this.function = function;
+    }
+}
@@ -0,0 +1,911 @@
+package main.backend.vm;
+
+import main.CompilationContext;
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.nodes.statement.set.SetMerge;
+import main.ast.types.Type;
+import main.ast.types.primitives.VoidType;
+import main.ast.types.array.ArrayType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.set.SetType;
+import main.compileError.backendError.NestingTooDeep;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.GlobalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.Visitor;
+import main.visitor.traversal.Traversal;
+import main.visitor.traversal.TraversalPass;
+import main.visitor.typeChecker.TypeInfo;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static main.backend.vm.Opcodes.*;
+
+// Translates a type checked program that went through the Binder to the VM's bytecode. Every
+// method, constructors included, becomes a Function, and so do the creation of the sets and
+// arrays of the globals and of the objects of every class.
+// Values whose type is int or bool go to int registers, all others to ref registers. Arguments and
+// local variables keep a register for the whole function; temporaries are taken above them and
+// given back after every statement. A call takes a window of registers above the ones in use for
+// the receiver and arguments, where the callee's frame starts.
+// Since methods cannot be overridden, a method call is to the function the type checker resolved.
+// Expressions leave their value in the register target.
+public class BytecodeCompiler extends Visitor<Void> {
+    private final CompilationContext context;
+    private final TypeInfo typeInfo;
+    private final Map<MethodSymbolTableItem, Integer> functionIndices = new IdentityHashMap<>();
+    private final Map<ClassSymbolTableItem, Integer> classIndices = new IdentityHashMap<>();
+    // of every field among the int or ref fields of its objects, and of every global
+    private final Map<SymbolTableItem, Integer> indices = new IdentityHashMap<>();
+    private Function[] functions;
+
+    private ClassSymbolTableItem currentClass;
+    private Assembler code;
+    // register of every argument and local variable of the current function
+    private Map<SymbolTableItem, Integer> registers = new IdentityHashMap<>();
+    private Type returnType;
+    private int target;
+
+    public BytecodeCompiler(CompilationContext context, TypeInfo typeInfo) {
+        this.context = context;
+        this.typeInfo = typeInfo;
+    }
+
+    public VmProgram compile(Program program) {
+        SymbolTable root = context.getRoot();
+        int intGlobals = 0;
+        int refGlobals = 0;
+        for (VariableDeclaration global : program.getGlobalVariables()) {
+            GlobalVariableSymbolTableItem item = root.lookupGlobalVar(global.getVarName().getSymbol(), true);
+            indices.put(item, isReference(global.getType()) ? refGlobals++ : intGlobals++);
+        }
+        List<ClassDeclaration> classDeclarations = program.getClasses();
+        for (ClassDeclaration classDeclaration : classDeclarations) {
+            ClassSymbolTableItem classItem = root.lookupClass(classDeclaration.getClassName().getSymbol());
+            classIndices.put(classItem, classIndices.size());
+            SymbolTable classTable = classItem.getClassSymbolTable();
+            if (classDeclaration.getConstructor() != null)
+                functionIndices.put(classTable.lookupMethod(classDeclaration.getConstructor().getMethodName().getSymbol(), true),
+                        functionIndices.size());
+            for (MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+                functionIndices.put(classTable.lookupMethod(methodDeclaration.getMethodName().getSymbol(), true),
+                        functionIndices.size());
+        }
+        for (ClassSymbolTableItem classItem : classIndices.keySet())
+            numberFields(classItem);
+        functions = new Function[functionIndices.size()];
+        VmClass[] classes = new VmClass[classDeclarations.size()];
+        for (ClassDeclaration classDeclaration : classDeclarations) {
+            classDeclaration.accept(this);
+            classes[classIndices.get(currentClass)] = vmClass(currentClass);
+        }
+
+        code = new Assembler(0, 1);
+        registers = new IdentityHashMap<>();
+        for (VariableDeclaration global : program.getGlobalVariables()) {
+            if (!needsInitialValue(global.getType()))
+                continue;
+            int register = code.newRef();
+            initialValue(global, register);
+            code.emit(RGSTORE, indices.get(root.lookupGlobalVar(global.getVarName().getSymbol(), true)), register);
+            code.release(0, 1);
+        }
+        code.emit(RETURN);
+        Function initializer = code.toFunction(Function.Result.none);
+
+        ClassSymbolTableItem main = root.lookupClass(context.getNames().intern("Main"));
+        MethodSymbolTableItem constructor = main.getConstructor();
+        return new VmProgram(functions, classes, intGlobals, refGlobals, initializer, classIndices.get(main),
+                constructor == null ? -1 : functionIndices.get(constructor), main.getClassDeclaration().getLine());
+    }
+
+    // Numbers the fields of the class's layout apart by kind. The layout of a class starts with that
+    // of its parent, so inherited fields keep the numbers they have in the parent class.
+    private void numberFields(ClassSymbolTableItem classItem) {
+        int intFields = 0;
+        int refFields = 0;
+        for (FieldSymbolTableItem field : classItem.getLayout())
+            indices.put(field, isReference(field.getType()) ? refFields++ : intFields++);
+    }
+
+    // creates the sets and arrays among the fields in order
+    private VmClass vmClass(ClassSymbolTableItem classItem) {
+        List<FieldSymbolTableItem> layout = classItem.getLayout();
+        int intFields = 0;
+        int refFields = 0;
+        for (FieldSymbolTableItem field : layout) {
+            if (isReference(field.getType()))
+                refFields++;
+            else
+                intFields++;
+        }
+
+        code = new Assembler(0, 1);
+        registers = new IdentityHashMap<>();
+        boolean creates = false;
+        for (FieldSymbolTableItem field : layout) {
+            if (!needsInitialValue(field.getType()))
+                continue;
+            int register = code.newRef();
+            initialValue(field.getFieldDeclaration().getVarDeclaration(), register);
+            code.emit(RPUTFIELD, 0, indices.get(field), register);
+            code.release(0, 1);
+            creates = true;
+        }
+        code.emit(RETURN);
+        return new VmClass(intFields, refFields, creates ? code.toFunction(Function.Result.none) : null);
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        currentClass = context.getRoot().lookupClass(classDeclaration.getClassName().getSymbol());
+        if (classDeclaration.getConstructor() != null)
+            classDeclaration.getConstructor().accept(this);
+        for (MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+            methodDeclaration.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        return visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    // a method whose nesting overflows the recursive visits is reported instead of compiled
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        try {
+            compileMethod(methodDeclaration);
+        } catch (StackOverflowError e) {
+            context.getDiagnostics().report(methodDeclaration, new NestingTooDeep(methodDeclaration.getLine()));
+        }
+        return null;
+    }
+
+    private void compileMethod(MethodDeclaration methodDeclaration) {
+        MethodSymbolTableItem method = currentClass.getClassSymbolTable()
+                .lookupMethod(methodDeclaration.getMethodName().getSymbol(), true);
+        SymbolTable methodTable = method.getMethodSymbolTable();
+        code = new Assembler(0, 1);
+        registers = new IdentityHashMap<>();
+        returnType = method.getReturnType() == null ? context.getTypeFactory().voidType() : method.getReturnType();
+        for (VariableDeclaration arg : methodDeclaration.getArgs())
+            registers.put(methodTable.lookupLocalVar(arg.getVarName().getSymbol(), true), newRegister(arg.getType()));
+        for (VariableDeclaration localVar : methodDeclaration.getLocalVars()) {
+            int register = newRegister(localVar.getType());
+            registers.put(methodTable.lookupLocalVar(localVar.getVarName().getSymbol(), true), register);
+            initialValue(localVar, register);
+        }
+        for (Statement statement : methodDeclaration.getBody())
+            generate(statement);
+
+        // falling off the end returns the default value
+        Function.Result result;
+        if (returnType instanceof VoidType) {
+            code.emit(RETURN);
+            result = Function.Result.none;
+        } else if (isReference(returnType)) {
+            int register = code.newRef();
+            code.emit(RNULL, register);
+            code.emit(RRETURN, register);
+            result = Function.Result.reference;
+        } else {
+            int register = code.newInt();
+            code.emit(ICONST, register, 0);
+            code.emit(IRETURN, register);
+            result = Function.Result.integer;
+        }
+        functions[functionIndices.get(method)] = code.toFunction(result);
+    }
+
+    private static boolean isReference(Type type) {
+        return !(type instanceof IntType || type instanceof BoolType);
+    }
+
+    private int newRegister(Type type) {
+        return isReference(type) ? code.newRef() : code.newInt();
+    }
+
+    private void move(Type type, int to, int from) {
+        if (to != from)
+            code.emit(isReference(type) ? RMOVE : IMOVE, to, from);
+    }
+
+    // sets and arrays start out created, everything else as 0, false or null
+    private static boolean needsInitialValue(Type type) {
+        return type instanceof SetType || type instanceof ArrayType;
+    }
+
+    private void initialValue(VariableDeclaration varDeclaration, int register) {
+        Type type = varDeclaration.getType();
+        code.line(varDeclaration.getLine());
+        if (type instanceof SetType) {
+            code.emit(NEWSET, register);
+        } else if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            List<Expression> dimensions = varDeclaration.getDimensions();
+            int sizes = code.newInts(dimensions.size());
+            try {
+                for (int i = 0; i < dimensions.size(); i++)
+                    compile(dimensions.get(i), sizes + i);
+            } catch (StackOverflowError e) {
+                context.getDiagnostics().report(varDeclaration, new NestingTooDeep(varDeclaration.getLine()));
+            }
+            code.line(varDeclaration.getLine());
+            code.emit(NEWARRAY, register, sizes, dimensions.size(), isReference(arrayType.getType()) ? 0 : 1);
+        } else if (isReference(type)) {
+            code.emit(RNULL, register);
+        } else {
+            code.emit(ICONST, register, 0);
+        }
+    }
+
+    private void compile(Expression expression, int register) {
+        int outer = target;
+        target = register;
+        expression.accept(this);
+        target = outer;
+    }
+
+    // The register the value of the expression is in: that of a local variable or of self when
+    // nothing evaluated after it while it is in use can assign it, else a new one.
+    private int operand(Expression expression, boolean stable) {
+        if (expression instanceof SelfClass)
+            return 0;
+        if (stable && expression instanceof Identifier) {
+            Integer register = registers.get(typeInfo.getReferent(expression));
+            if (register != null)
+                return register;
+        }
+        int register = newRegister(typeInfo.getType(expression));
+        compile(expression, register);
+        return register;
+    }
+
+    // whether evaluating the expressions may assign a variable; a call never assigns the
+    // caller's local variables
+    private static boolean assigns(List<? extends Expression> expressions) {
+        boolean[] found = {false};
+        TraversalPass finder = new TraversalPass() {
+            @Override
+            public boolean enter(Node node) {
+                if (node instanceof BinaryExpression
+                        && ((BinaryExpression) node).getBinaryOperator() == BinaryOperator.assign)
+                    found[0] = true;
+                else if (node instanceof UnaryExpression) {
+                    UnaryOperator operator = ((UnaryExpression) node).getOperator();
+                    if (operator != UnaryOperator.not && operator != UnaryOperator.minus)
+                        found[0] = true;
+                }
+                return !found[0];
+            }
+        };
+        for (Expression expression : expressions) {
+            Traversal.run(expression, finder);
+            if (found[0])
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean assigns(Expression expression) {
+        return expression != null && assigns(List.of(expression));
+    }
+
+    // Stores the value of source, or the one in the register value when there is no source, in
+    // target and returns the register the value is in. The object or array of the target is
+    // evaluated before the source and checked after it.
+    private int assign(Expression target, Expression source, int value) {
+        Type type = typeInfo.getType(target);
+        boolean stable = !assigns(source);
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = typeInfo.getReferent(target);
+            Integer register = registers.get(variable);
+            if (register != null) {
+                if (source != null)
+                    compile(source, register);
+                else
+                    move(type, register, value);
+                return register;
+            }
+            if (source != null)
+                value = operand(source, true);
+            if (variable instanceof FieldSymbolTableItem)
+                code.emit(isReference(type) ? RPUTFIELD : IPUTFIELD, 0, indices.get(variable), value);
+            else
+                code.emit(isReference(type) ? RGSTORE : IGSTORE, indices.get(variable), value);
+            return value;
+        }
+        if (target instanceof ObjectMemberAccess) {
+            int object = operand(((ObjectMemberAccess) target).getInstance(), stable);
+            if (source != null)
+                value = operand(source, true);
+            code.line(target.getLine());
+            code.emit(isReference(type) ? RPUTFIELD : IPUTFIELD, object, indices.get(typeInfo.getReferent(target)), value);
+            return value;
+        }
+        ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+        int array = operand(element.getInstance(), stable && !assigns(element.getIndex()));
+        int index = operand(element.getIndex(), stable);
+        if (source != null)
+            value = operand(source, true);
+        code.line(target.getLine());
+        code.emit(isReference(type) ? RASTORE : IASTORE, array, index, value);
+        return value;
+    }
+
+    // adds delta to an int variable and leaves its old value in result with post, else its new value
+    private void increment(Expression target, int delta, boolean post, int result) {
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = typeInfo.getReferent(target);
+            Integer register = registers.get(variable);
+            if (register != null) {
+                if (post) {
+                    int old = result == register ? code.newInt() : result;
+                    code.emit(IMOVE, old, register);
+                    code.emit(IADDK, register, register, delta);
+                    code.emit(IMOVE, result, old);
+                } else {
+                    code.emit(IADDK, register, register, delta);
+                    code.emit(IMOVE, result, register);
+                }
+                return;
+            }
+        }
+        int old = code.newInt();
+        int updated = code.newInt();
+        if (target instanceof Identifier) {
+            SymbolTableItem variable = typeInfo.getReferent(target);
+            int index = indices.get(variable);
+            if (variable instanceof FieldSymbolTableItem) {
+                code.emit(IGETFIELD, old, 0, index);
+                code.emit(IADDK, updated, old, delta);
+                code.emit(IPUTFIELD, 0, index, updated);
+            } else {
+                code.emit(IGLOAD, old, index);
+                code.emit(IADDK, updated, old, delta);
+                code.emit(IGSTORE, index, updated);
+            }
+        } else if (target instanceof ObjectMemberAccess) {
+            int object = operand(((ObjectMemberAccess) target).getInstance(), true);
+            int index = indices.get(typeInfo.getReferent(target));
+            code.line(target.getLine());
+            code.emit(IGETFIELD, old, object, index);
+            code.emit(IADDK, updated, old, delta);
+            code.emit(IPUTFIELD, object, index, updated);
+        } else {
+            ArrayAccessByIndex element = (ArrayAccessByIndex) target;
+            int array = operand(element.getInstance(), !assigns(element.getIndex()));
+            int index = operand(element.getIndex(), true);
+            code.line(target.getLine());
+            code.emit(IALOAD, old, array, index);
+            code.emit(IADDK, updated, old, delta);
+            code.emit(IASTORE, array, index, updated);
+        }
+        code.emit(IMOVE, result, post ? old : updated);
+    }
+
+    // jumps to label when the bool condition is jumpWhen, and falls through otherwise
+    private void branch(Expression condition, boolean jumpWhen, Label label) {
+        if (condition instanceof UnaryExpression && ((UnaryExpression) condition).getOperator() == UnaryOperator.not) {
+            branch(((UnaryExpression) condition).getOperand(), !jumpWhen, label);
+            return;
+        }
+        if (condition instanceof BoolValue) {
+            if (((BoolValue) condition).getConstant() == jumpWhen)
+                code.jump(JUMP, label);
+            return;
+        }
+        if (condition instanceof BinaryExpression) {
+            BinaryExpression binaryExpression = (BinaryExpression) condition;
+            Expression first = binaryExpression.getFirstOperand();
+            Expression second = binaryExpression.getSecondOperand();
+            BinaryOperator operator = binaryExpression.getBinaryOperator();
+            if (operator == BinaryOperator.and || operator == BinaryOperator.or) {
+                // jump on the first operand only when it decides the result
+                boolean decides = operator == BinaryOperator.or;
+                if (decides == jumpWhen) {
+                    branch(first, jumpWhen, label);
+                    branch(second, jumpWhen, label);
+                } else {
+                    Label skip = new Label();
+                    branch(first, decides, skip);
+                    branch(second, jumpWhen, label);
+                    code.mark(skip);
+                }
+                return;
+            }
+            int opcode = compareOpcode(binaryExpression, jumpWhen);
+            if (opcode >= 0) {
+                int left = operand(first, !assigns(second));
+                int right = operand(second, true);
+                code.jump(opcode, label, left, right);
+                return;
+            }
+        }
+        code.jump(jumpWhen ? JTRUE : JFALSE, label, operand(condition, true));
+    }
+
+    // -1 when the operator is not a comparison
+    private int compareOpcode(BinaryExpression comparison, boolean jumpWhen) {
+        switch (comparison.getBinaryOperator()) {
+            case lt:
+                return jumpWhen ? JLT : JGE;
+            case gt:
+                return jumpWhen ? JGT : JLE;
+            case eq:
+            case neq:
+                boolean equal = (comparison.getBinaryOperator() == BinaryOperator.eq) == jumpWhen;
+                if (isReference(typeInfo.getType(comparison.getFirstOperand()))
+                        || isReference(typeInfo.getType(comparison.getSecondOperand())))
+                    return equal ? JREQ : JRNE;
+                return equal ? JEQ : JNE;
+            default:
+                return -1;
+        }
+    }
+
+    // 1 or 0 for a condition
+    private void boolValue(Expression condition) {
+        Label isTrue = new Label();
+        Label end = new Label();
+        branch(condition, true, isTrue);
+        code.emit(ICONST, target, 0);
+        code.jump(JUMP, end);
+        code.mark(isTrue);
+        code.emit(ICONST, target, 1);
+        code.mark(end);
+    }
+
+    // Calls with the receiver that receiver puts in the first register of the window, then the
+    // arguments in the registers after it by kind.
+    private void call(int opcode, int operand, IntConsumer receiver, List<Expression> args, int line) {
+        int intArgs = 0;
+        int refArgs = 0;
+        for (Expression arg : args) {
+            if (isReference(typeInfo.getType(arg)))
+                refArgs++;
+            else
+                intArgs++;
+        }
+        int intBase = code.newInts(intArgs);
+        int refBase = code.newRefs(1 + refArgs);
+        receiver.accept(refBase);
+        int intArg = intBase;
+        int refArg = refBase + 1;
+        for (Expression arg : args)
+            compile(arg, isReference(typeInfo.getType(arg)) ? refArg++ : intArg++);
+        code.line(line);
+        code.emit(opcode, target, operand, intBase, refBase);
+        code.release(intBase, refBase);
+    }
+
+    // merge statements come out of the parser as null, the same as no statement
+    private void generate(Statement statement) {
+        if (statement == null)
+            return;
+        int intMark = code.intMark();
+        int refMark = code.refMark();
+        statement.accept(this);
+        code.release(intMark, refMark);
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        code.line(assignmentStmt.getLine());
+        assign(assignmentStmt.getlValue(), assignmentStmt.getrValue(), 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        for (Statement statement : blockStmt.getStatements())
+            generate(statement);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        code.line(conditionalStmt.getLine());
+        Label end = new Label();
+        Label next = new Label();
+        branch(conditionalStmt.getCondition(), false, next);
+        generate(conditionalStmt.getThenBody());
+        code.jump(JUMP, end);
+        code.mark(next);
+        for (ElsifStmt elsifStmt : conditionalStmt.getElsif()) {
+            code.line(elsifStmt.getLine());
+            next = new Label();
+            branch(elsifStmt.getCondition(), false, next);
+            generate(elsifStmt.getThenBody());
+            code.jump(JUMP, end);
+            code.mark(next);
+        }
+        generate(conditionalStmt.getElseBody());
+        code.mark(end);
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        code.line(methodCallStmt.getLine());
+        MethodCall methodCall = methodCallStmt.getMethodCall();
+        Type type = typeInfo.getType(methodCall);
+        compile(methodCall, type instanceof VoidType ? 0 : newRegister(type));
+        return null;
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        code.line(print.getLine());
+        Type type = typeInfo.getType(print.getArg());
+        int value = operand(print.getArg(), true);
+        code.line(print.getLine());
+        if (type instanceof IntType)
+            code.emit(IPRINT, value);
+        else if (type instanceof BoolType)
+            code.emit(BPRINT, value);
+        else
+            code.emit(RPRINT, value);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        code.line(returnStmt.getLine());
+        if (returnType instanceof VoidType) {
+            code.emit(RETURN);
+            return null;
+        }
+        int value = operand(returnStmt.getReturnedExpr(), true);
+        code.emit(isReference(returnType) ? RRETURN : IRETURN, value);
+        return null;
+    }
+
+    // Goes over the array, or over the elements a set has when the loop starts, in ascending order.
+    // The array itself is fixed when the loop starts but its elements are read as it goes.
+    @Override
+    public Void visit(EachStmt eachStmt) {
+        code.line(eachStmt.getLine());
+        Type listType = typeInfo.getType(eachStmt.getList());
+        int array = code.newRef();
+        int length = code.newInt();
+        int index = code.newInt();
+        compile(eachStmt.getList(), array);
+        code.line(eachStmt.getLine());
+        Type elementType;
+        if (listType instanceof SetType) {
+            code.emit(SETELEMENTS, array, array);
+            elementType = context.getTypeFactory().intType();
+        } else {
+            elementType = elementType((ArrayType) listType);
+        }
+        code.emit(isReference(elementType) ? RLENGTH : ILENGTH, length, array);
+        code.emit(ICONST, index, 0);
+        // the test is at the bottom, so that an iteration takes a single jump
+        Label loop = new Label();
+        Label test = new Label();
+        code.jump(JUMP, test);
+        code.mark(loop);
+        Expression variable = eachStmt.getVariable();
+        Integer register = variable instanceof Identifier ? registers.get(typeInfo.getReferent(variable)) : null;
+        int element = register != null ? register : newRegister(elementType);
+        code.emit(isReference(elementType) ? RALOAD : IALOAD, element, array, index);
+        if (register == null) {
+            int intMark = code.intMark();
+            int refMark = code.refMark();
+            assign(variable, null, element);
+            code.release(intMark, refMark);
+        }
+        generate(eachStmt.getBody());
+        code.emit(IADDK, index, index, 1);
+        code.mark(test);
+        code.jump(JLT, loop, index, length);
+        return null;
+    }
+
+    private static Type elementType(ArrayType arrayType) {
+        return arrayType.getDimensionCount() == 1 ? arrayType.getType() : arrayType;
+    }
+
+    @Override
+    public Void visit(SetAdd setAdd) {
+        setOperation(SETADD, setAdd, setAdd.getSetArg(), setAdd.getElementArg());
+        return null;
+    }
+
+    @Override
+    public Void visit(SetDelete setDelete) {
+        setOperation(SETDELETE, setDelete, setDelete.getSetArg(), setDelete.getElementArg());
+        return null;
+    }
+
+    private void setOperation(int opcode, Statement statement, Expression set, Expression element) {
+        code.line(statement.getLine());
+        int setRegister = operand(set, !assigns(element));
+        int elementRegister = operand(element, true);
+        code.line(statement.getLine());
+        code.emit(opcode, setRegister, elementRegister);
+    }
+
+    @Override
+    public Void visit(SetMerge setMerge) {
+        code.line(setMerge.getLine());
+        int set = operand(setMerge.getSetArg(), !assigns(setMerge.getElementArgs()));
+        for (Expression arg : setMerge.getElementArgs()) {
+            int value = operand(arg, true);
+            code.line(setMerge.getLine());
+            code.emit(typeInfo.getType(arg) instanceof SetType ? SETMERGE : SETADD, set, value);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        code.line(binaryExpression.getLine());
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        Expression first = binaryExpression.getFirstOperand();
+        Expression second = binaryExpression.getSecondOperand();
+        int opcode;
+        switch (operator) {
+            case assign:
+                move(typeInfo.getType(binaryExpression), target, assign(first, second, 0));
+                return null;
+            case and:
+            case or:
+                boolValue(binaryExpression);
+                return null;
+            case lt:
+                opcode = ILT;
+                break;
+            case gt:
+                opcode = IGT;
+                break;
+            case eq:
+            case neq:
+                if (isReference(typeInfo.getType(first)) || isReference(typeInfo.getType(second)))
+                    opcode = operator == BinaryOperator.eq ? REQ : RNE;
+                else
+                    opcode = operator == BinaryOperator.eq ? IEQ : INE;
+                break;
+            case add:
+            case sub:
+                if (second instanceof IntValue) {
+                    int constant = ((IntValue) second).getConstant();
+                    code.emit(IADDK, target, operand(first, true), operator == BinaryOperator.add ? constant : -constant);
+                    return null;
+                }
+                opcode = operator == BinaryOperator.add ? IADD : ISUB;
+                break;
+            case mult:
+                opcode = IMUL;
+                break;
+            case div:
+                opcode = IDIV;
+                break;
+            default:
+                opcode = IREM;
+        }
+        int left = operand(first, !assigns(second));
+        int right = operand(second, true);
+        code.line(binaryExpression.getLine());
+        code.emit(opcode, target, left, right);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        code.line(unaryExpression.getLine());
+        Expression operand = unaryExpression.getOperand();
+        switch (unaryExpression.getOperator()) {
+            case not:
+                code.emit(INOT, target, operand(operand, true));
+                break;
+            case minus:
+                code.emit(INEG, target, operand(operand, true));
+                break;
+            case preinc:
+                increment(operand, 1, false, target);
+                break;
+            case predec:
+                increment(operand, -1, false, target);
+                break;
+            case postinc:
+                increment(operand, 1, true, target);
+                break;
+            default:
+                increment(operand, -1, true, target);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryExpression ternaryExpression) {
+        code.line(ternaryExpression.getLine());
+        Label otherwise = new Label();
+        Label end = new Label();
+        branch(ternaryExpression.getCondition(), false, otherwise);
+        compile(ternaryExpression.getTrueExpression(), target);
+        code.jump(JUMP, end);
+        code.mark(otherwise);
+        compile(ternaryExpression.getFalseExpression(), target);
+        code.mark(end);
+        return null;
+    }
+
+    @Override
+    public Void visit(RangeExpression rangeExpression) {
+        throw new UnsupportedOperationException("range expressions are rejected by the type checker");
+    }
+
+    @Override
+    public Void visit(ObjectMemberAccess objectOrListMemberAccess) {
+        code.line(objectOrListMemberAccess.getLine());
+        int object = operand(objectOrListMemberAccess.getInstance(), true);
+        code.line(objectOrListMemberAccess.getLine());
+        SymbolTableItem member = typeInfo.getReferent(objectOrListMemberAccess);
+        if (member instanceof MethodSymbolTableItem)
+            code.emit(FUNCTION, target, object, functionIndices.get(member));
+        else
+            code.emit(isReference(typeInfo.getType(objectOrListMemberAccess)) ? RGETFIELD : IGETFIELD, target, object,
+                    indices.get(member));
+        return null;
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        code.line(identifier.getLine());
+        SymbolTableItem referent = typeInfo.getReferent(identifier);
+        Type type = typeInfo.getType(identifier);
+        Integer register = registers.get(referent);
+        if (register != null)
+            move(type, target, register);
+        else if (referent instanceof MethodSymbolTableItem)
+            code.emit(FUNCTION, target, 0, functionIndices.get(referent));
+        else if (referent instanceof FieldSymbolTableItem)
+            code.emit(isReference(type) ? RGETFIELD : IGETFIELD, target, 0, indices.get(referent));
+        else
+            code.emit(isReference(type) ? RGLOAD : IGLOAD, target, indices.get(referent));
+        return null;
+    }
+
+    @Override
+    public Void visit(ArrayAccessByIndex listAccessByIndex) {
+        code.line(listAccessByIndex.getLine());
+        int array = operand(listAccessByIndex.getInstance(), !assigns(listAccessByIndex.getIndex()));
+        int index = operand(listAccessByIndex.getIndex(), true);
+        code.line(listAccessByIndex.getLine());
+        code.emit(isReference(typeInfo.getType(listAccessByIndex)) ? RALOAD : IALOAD, target, array, index);
+        return null;
+    }
+
+    // a method named by the callee is called directly, anything else is an fptr value
+    @Override
+    public Void visit(MethodCall methodCall) {
+        code.line(methodCall.getLine());
+        Expression callee = methodCall.getInstance();
+        List<Expression> args = methodCall.getArgs();
+        if (callee instanceof NewClassInstance) {
+            construct((NewClassInstance) callee, args);
+            return null;
+        }
+        SymbolTableItem method = typeInfo.getReferent(methodCall);
+        if (method == null) {
+            int function = operand(callee, !assigns(args));
+            call(FCALL, function, receiver -> {}, args, methodCall.getLine());
+        } else if (callee instanceof Identifier) {
+            call(CALL, functionIndices.get(method), receiver -> code.emit(RMOVE, receiver, 0), args,
+                    methodCall.getLine());
+        } else {
+            Expression instance = ((ObjectMemberAccess) callee).getInstance();
+            call(CALL, functionIndices.get(method), receiver -> compile(instance, receiver), args,
+                    methodCall.getLine());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        code.line(newClassInstance.getLine());
+        construct(newClassInstance, List.of());
+        return null;
+    }
+
+    // the object is created before the arguments are evaluated
+    private void construct(NewClassInstance newClassInstance, List<Expression> args) {
+        ClassSymbolTableItem classItem = newClassInstance.getBinding();
+        int vmClass = classIndices.get(classItem);
+        MethodSymbolTableItem constructor = classItem.getConstructor();
+        code.line(newClassInstance.getLine());
+        if (constructor == null) {
+            code.emit(NEW, target, vmClass);
+            return;
+        }
+        int object = code.refMark();
+        call(CALL, functionIndices.get(constructor), receiver -> code.emit(NEW, receiver, vmClass), args,
+                newClassInstance.getLine());
+        code.emit(RMOVE, target, object);
+    }
+
+    @Override
+    public Void visit(SelfClass selfClass) {
+        code.emit(RMOVE, target, 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(NullValue nullValue) {
+        code.emit(RNULL, target);
+        return null;
+    }
+
+    @Override
+    public Void visit(IntValue intValue) {
+        code.emit(ICONST, target, intValue.getConstant());
+        return null;
+    }
+
+    @Override
+    public Void visit(BoolValue boolValue) {
+        code.emit(ICONST, target, boolValue.getConstant() ? 1 : 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(SetValue setValue) {
+        code.emit(NEWSET, target);
+        int element = code.newInt();
+        for (IntValue value : setValue.getElements()) {
+            code.emit(ICONST, element, value.getConstant());
+            code.emit(SETADD, target, element);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(SetInclude setInclude) {
+        code.line(setInclude.getLine());
+        int set = operand(setInclude.getSetArg(), !assigns(setInclude.getElementArg()));
+        int element = operand(setInclude.getElementArg(), true);
+        code.line(setInclude.getLine());
+        code.emit(SETINCLUDE, target, set, element);
+        return null;
+    }
+
+    // the set is made in a register of its own, as the elements may read the variable it goes to
+    @Override
+    public Void visit(SetNew setNew) {
+        code.line(setNew.getLine());
+        int set = code.newRef();
+        int element = code.newInt();
+        code.emit(NEWSET, set);
+        for (Expression arg : setNew.getArgs()) {
+            compile(arg, element);
+            code.emit(SETADD, set, element);
+        }
+        code.emit(RMOVE, target, set);
+        return null;
+    }
+}
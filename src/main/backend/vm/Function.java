@@ -0,0 +1,27 @@
+package main.backend.vm;
+
+// A method, or the code that creates the sets and arrays of the globals or of an object, as the
+// VM runs it. Its frame is a window of intRegisters int and refRegisters ref registers. The int
+// arguments are in the first int registers, and the first ref register holds self followed by
+// the ref arguments, so that a caller puts them in place and the callee's window starts there.
+// A result is left in the first register of its kind.
+final class Function {
+    enum Result {
+        none, integer, reference
+    }
+
+    final int[] code;
+    // the source line of the instruction that starts at each position
+    final int[] lines;
+    final int intRegisters;
+    final int refRegisters;
+    final Result result;
+
+    Function(int[] code, int[] lines, int intRegisters, int refRegisters, Result result) {
+        this.code = code;
+        this.lines = lines;
+        this.intRegisters = intRegisters;
+        this.refRegisters = refRegisters;
+        this.result = result;
+    }
+}
@@ -0,0 +1,11 @@
+package main.backend.vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A jump target in an Assembler
+class Label {
+    int position = -1;
+    // where the target operand is of every jump to the label before it was placed
+    final List<Integer> jumps = new ArrayList<>();
+}
@@ -0,0 +1,76 @@
+package main.backend.vm;
+
+// The instructions of the VM. An instruction is its opcode followed by its operands in the code of
+// a function. In the comments i operands are int registers and r operands ref registers of the
+// frame, k is a constant, t the position of a jump target, and g, n, c and f are the index of a
+// global, a field, a class and a function. The first operand is the one written, if any.
+// Bools are ints that are 1 or 0.
+final class Opcodes {
+    static final int ICONST = 0;        // i k
+    static final int IMOVE = 1;         // i i
+    static final int RMOVE = 2;         // r r
+    static final int RNULL = 3;         // r
+    static final int IGLOAD = 4;        // i g
+    static final int IGSTORE = 5;       // g i
+    static final int RGLOAD = 6;        // r g
+    static final int RGSTORE = 7;       // g r
+    static final int IGETFIELD = 8;     // i r n, field n of the object in r
+    static final int IPUTFIELD = 9;     // r n i
+    static final int RGETFIELD = 10;    // r r n
+    static final int RPUTFIELD = 11;    // r n r
+    static final int IADD = 12;         // i i i
+    static final int ISUB = 13;         // i i i
+    static final int IMUL = 14;         // i i i
+    static final int IDIV = 15;         // i i i
+    static final int IREM = 16;         // i i i
+    static final int IADDK = 17;        // i i k
+    static final int INEG = 18;         // i i
+    static final int INOT = 19;         // i i
+    static final int ILT = 20;          // i i i
+    static final int IGT = 21;          // i i i
+    static final int IEQ = 22;          // i i i
+    static final int INE = 23;          // i i i
+    static final int REQ = 24;          // i r r
+    static final int RNE = 25;          // i r r
+    static final int JUMP = 26;         // t
+    static final int JTRUE = 27;        // i t
+    static final int JFALSE = 28;       // i t
+    static final int JLT = 29;          // i i t, jumps when the first is less than the second
+    static final int JGE = 30;          // i i t
+    static final int JGT = 31;          // i i t
+    static final int JLE = 32;          // i i t
+    static final int JEQ = 33;          // i i t
+    static final int JNE = 34;          // i i t
+    static final int JREQ = 35;         // r r t
+    static final int JRNE = 36;         // r r t
+    static final int NEWARRAY = 37;     // r i k k, the sizes of the k dimensions in the int registers
+                                        // from i; the elements are ints when the last k is 1
+    static final int IALOAD = 38;       // i r i
+    static final int IASTORE = 39;      // r i i
+    static final int RALOAD = 40;       // r r i
+    static final int RASTORE = 41;      // r i r
+    static final int ILENGTH = 42;      // i r, of an int array
+    static final int RLENGTH = 43;      // i r, of a ref array
+    static final int NEWSET = 44;       // r
+    static final int SETADD = 45;       // r i
+    static final int SETDELETE = 46;    // r i
+    static final int SETMERGE = 47;     // r r
+    static final int SETINCLUDE = 48;   // i r i
+    static final int SETELEMENTS = 49;  // r r, the elements of the set as an int array
+    static final int NEW = 50;          // r c
+    static final int CALL = 51;         // d f i r, the result goes to d, an int or ref register as f
+                                        // returns; the arguments are in the int registers from i and
+                                        // the receiver and the ref arguments in the ref registers from r
+    static final int FCALL = 52;        // d r i r, the first r holding the fptr; its object is put
+                                        // in the second r
+    static final int FUNCTION = 53;     // r r f, an fptr to function f of the object in the second r
+    static final int RETURN = 54;
+    static final int IRETURN = 55;      // i
+    static final int RRETURN = 56;      // r
+    static final int IPRINT = 57;       // i
+    static final int BPRINT = 58;       // i
+    static final int RPRINT = 59;       // r
+
+    private Opcodes() {
+    }
+}
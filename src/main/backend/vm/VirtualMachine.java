@@ -0,0 +1,428 @@
+package main.backend.vm;
+
+import main.runtime.IntSet;
+import main.runtime.RuntimeError;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import static main.backend.vm.Opcodes.*;
+
+// Runs a VmProgram. There is one file of int registers and one of ref registers; the frame of a
+// function is a window into each, starting where its caller put the arguments. A call of the
+// program is a call of execute, whose loop is a switch over the code of the function.
+// Ints and bools live unboxed in the int registers and in int arrays; objects, sets, fptrs and the
+// other arrays in the ref registers.
+final class VirtualMachine {
+    private static final int INITIAL_REGISTERS = 256;
+
+    private final Function[] functions;
+    private final VmClass[] classes;
+    private final VmProgram program;
+    private final PrintStream out;
+    private final int[] intGlobals;
+    private final Object[] refGlobals;
+
+    private int[] ints = new int[INITIAL_REGISTERS];
+    private Object[] refs = new Object[INITIAL_REGISTERS];
+    // of the call entered last, for a stack overflow
+    private int callLine;
+
+    VirtualMachine(VmProgram program, PrintStream out) {
+        this.functions = program.functions;
+        this.classes = program.classes;
+        this.program = program;
+        this.out = out;
+        this.intGlobals = new int[program.intGlobals];
+        this.refGlobals = new Object[program.refGlobals];
+    }
+
+    void run() {
+        try {
+            invoke(program.initializer, 0, 0);
+            callLine = program.mainLine;
+            VmObject main = newObject(classes[program.mainClass], 0, 0);
+            if (program.mainConstructor >= 0) {
+                refs[0] = main;
+                invoke(functions[program.mainConstructor], 0, 0);
+            }
+        } catch (StackOverflowError e) {
+            throw new RuntimeError(callLine, RuntimeError.STACK_OVERFLOW);
+        } finally {
+            out.flush();
+        }
+    }
+
+    // makes room for the registers up to intTop and refTop; the files only grow
+    private void reserve(int intTop, int refTop) {
+        if (intTop > ints.length)
+            ints = Arrays.copyOf(ints, Math.max(ints.length * 2, intTop));
+        if (refTop > refs.length)
+            refs = Arrays.copyOf(refs, Math.max(refs.length * 2, refTop));
+    }
+
+    private void invoke(Function function, int intBase, int refBase) {
+        reserve(intBase + function.intRegisters, refBase + function.refRegisters);
+        execute(function, intBase, refBase);
+    }
+
+    // the sets and arrays of the object are created with its initializer's frame at the bases
+    private VmObject newObject(VmClass vmClass, int intBase, int refBase) {
+        VmObject object = new VmObject(vmClass);
+        Function initializer = vmClass.initializer;
+        if (initializer != null) {
+            reserve(intBase + initializer.intRegisters, refBase + initializer.refRegisters);
+            refs[refBase] = object;
+            execute(initializer, intBase, refBase);
+        }
+        return object;
+    }
+
+    private static RuntimeError error(Function function, int pc, String message) {
+        return new RuntimeError(function.lines[pc], message);
+    }
+
+    private static VmObject object(Object value, Function function, int pc) {
+        if (value == null)
+            throw error(function, pc, RuntimeError.NULL_REFERENCE);
+        return (VmObject) value;
+    }
+
+    private static IntSet set(Object value, Function function, int pc) {
+        if (value == null)
+            throw error(function, pc, RuntimeError.NULL_REFERENCE);
+        return (IntSet) value;
+    }
+
+    private static int[] intArray(Object value, int index, Function function, int pc) {
+        if (value == null)
+            throw error(function, pc, RuntimeError.NULL_REFERENCE);
+        int[] array = (int[]) value;
+        if (index < 0 || index >= array.length)
+            throw error(function, pc, RuntimeError.INDEX_OUT_OF_BOUNDS);
+        return array;
+    }
+
+    private static Object[] refArray(Object value, int index, Function function, int pc) {
+        if (value == null)
+            throw error(function, pc, RuntimeError.NULL_REFERENCE);
+        Object[] array = (Object[]) value;
+        if (index < 0 || index >= array.length)
+            throw error(function, pc, RuntimeError.INDEX_OUT_OF_BOUNDS);
+        return array;
+    }
+
+    private static Object newArray(int[] sizes, int dimension, boolean intElements) {
+        if (dimension == sizes.length - 1)
+            return intElements ? new int[sizes[dimension]] : new Object[sizes[dimension]];
+        Object[] array = new Object[sizes[dimension]];
+        for (int i = 0; i < array.length; i++)
+            array[i] = newArray(sizes, dimension + 1, intElements);
+        return array;
+    }
+
+    // Registers are read at the frame's bases. The register files are read again after anything
+    // that may have made them grow.
+    private void execute(Function function, int ib, int rb) {
+        int[] code = function.code;
+        int[] I = ints;
+        Object[] R = refs;
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case ICONST:
+                    I[ib + code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case IMOVE:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]];
+                    pc += 3;
+                    break;
+                case RMOVE:
+                    R[rb + code[pc + 1]] = R[rb + code[pc + 2]];
+                    pc += 3;
+                    break;
+                case RNULL:
+                    R[rb + code[pc + 1]] = null;
+                    pc += 2;
+                    break;
+                case IGLOAD:
+                    I[ib + code[pc + 1]] = intGlobals[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case IGSTORE:
+                    intGlobals[code[pc + 1]] = I[ib + code[pc + 2]];
+                    pc += 3;
+                    break;
+                case RGLOAD:
+                    R[rb + code[pc + 1]] = refGlobals[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case RGSTORE:
+                    refGlobals[code[pc + 1]] = R[rb + code[pc + 2]];
+                    pc += 3;
+                    break;
+                case IGETFIELD:
+                    I[ib + code[pc + 1]] = object(R[rb + code[pc + 2]], function, pc).ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IPUTFIELD:
+                    object(R[rb + code[pc + 1]], function, pc).ints[code[pc + 2]] = I[ib + code[pc + 3]];
+                    pc += 4;
+                    break;
+                case RGETFIELD:
+                    R[rb + code[pc + 1]] = object(R[rb + code[pc + 2]], function, pc).refs[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case RPUTFIELD:
+                    object(R[rb + code[pc + 1]], function, pc).refs[code[pc + 2]] = R[rb + code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IADD:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] + I[ib + code[pc + 3]];
+                    pc += 4;
+                    break;
+                case ISUB:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] - I[ib + code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IMUL:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] * I[ib + code[pc + 3]];
+                    pc += 4;
+                    break;
+                case IDIV: {
+                    int divisor = I[ib + code[pc + 3]];
+                    if (divisor == 0)
+                        throw error(function, pc, RuntimeError.DIVISION_BY_ZERO);
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] / divisor;
+                    pc += 4;
+                    break;
+                }
+                case IREM: {
+                    int divisor = I[ib + code[pc + 3]];
+                    if (divisor == 0)
+                        throw error(function, pc, RuntimeError.DIVISION_BY_ZERO);
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] % divisor;
+                    pc += 4;
+                    break;
+                }
+                case IADDK:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] + code[pc + 3];
+                    pc += 4;
+                    break;
+                case INEG:
+                    I[ib + code[pc + 1]] = -I[ib + code[pc + 2]];
+                    pc += 3;
+                    break;
+                case INOT:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] ^ 1;
+                    pc += 3;
+                    break;
+                case ILT:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] < I[ib + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case IGT:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] > I[ib + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case IEQ:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] == I[ib + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case INE:
+                    I[ib + code[pc + 1]] = I[ib + code[pc + 2]] != I[ib + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case REQ:
+                    I[ib + code[pc + 1]] = R[rb + code[pc + 2]] == R[rb + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case RNE:
+                    I[ib + code[pc + 1]] = R[rb + code[pc + 2]] != R[rb + code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case JTRUE:
+                    pc = I[ib + code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case JFALSE:
+                    pc = I[ib + code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case JLT:
+                    pc = I[ib + code[pc + 1]] < I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGE:
+                    pc = I[ib + code[pc + 1]] >= I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGT:
+                    pc = I[ib + code[pc + 1]] > I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JLE:
+                    pc = I[ib + code[pc + 1]] <= I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JEQ:
+                    pc = I[ib + code[pc + 1]] == I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JNE:
+                    pc = I[ib + code[pc + 1]] != I[ib + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JREQ:
+                    pc = R[rb + code[pc + 1]] == R[rb + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JRNE:
+                    pc = R[rb + code[pc + 1]] != R[rb + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case NEWARRAY: {
+                    int[] sizes = Arrays.copyOfRange(I, ib + code[pc + 2], ib + code[pc + 2] + code[pc + 3]);
+                    for (int size : sizes)
+                        if (size < 0)
+                            throw error(function, pc, RuntimeError.NEGATIVE_ARRAY_SIZE);
+                    R[rb + code[pc + 1]] = newArray(sizes, 0, code[pc + 4] != 0);
+                    pc += 5;
+                    break;
+                }
+                case IALOAD: {
+                    int index = I[ib + code[pc + 3]];
+                    I[ib + code[pc + 1]] = intArray(R[rb + code[pc + 2]], index, function, pc)[index];
+                    pc += 4;
+                    break;
+                }
+                case IASTORE: {
+                    int index = I[ib + code[pc + 2]];
+                    intArray(R[rb + code[pc + 1]], index, function, pc)[index] = I[ib + code[pc + 3]];
+                    pc += 4;
+                    break;
+                }
+                case RALOAD: {
+                    int index = I[ib + code[pc + 3]];
+                    R[rb + code[pc + 1]] = refArray(R[rb + code[pc + 2]], index, function, pc)[index];
+                    pc += 4;
+                    break;
+                }
+                case RASTORE: {
+                    int index = I[ib + code[pc + 2]];
+                    refArray(R[rb + code[pc + 1]], index, function, pc)[index] = R[rb + code[pc + 3]];
+                    pc += 4;
+                    break;
+                }
+                case ILENGTH: {
+                    int[] array = (int[]) R[rb + code[pc + 2]];
+                    if (array == null)
+                        throw error(function, pc, RuntimeError.NULL_REFERENCE);
+                    I[ib + code[pc + 1]] = array.length;
+                    pc += 3;
+                    break;
+                }
+                case RLENGTH: {
+                    Object[] array = (Object[]) R[rb + code[pc + 2]];
+                    if (array == null)
+                        throw error(function, pc, RuntimeError.NULL_REFERENCE);
+                    I[ib + code[pc + 1]] = array.length;
+                    pc += 3;
+                    break;
+                }
+                case NEWSET:
+                    R[rb + code[pc + 1]] = new IntSet();
+                    pc += 2;
+                    break;
+                case SETADD:
+                    set(R[rb + code[pc + 1]], function, pc).add(I[ib + code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case SETDELETE:
+                    set(R[rb + code[pc + 1]], function, pc).delete(I[ib + code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case SETMERGE: {
+                    IntSet set = set(R[rb + code[pc + 1]], function, pc);
+                    set.merge(set(R[rb + code[pc + 2]], function, pc));
+                    pc += 3;
+                    break;
+                }
+                case SETINCLUDE:
+                    I[ib + code[pc + 1]] = set(R[rb + code[pc + 2]], function, pc).include(I[ib + code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case SETELEMENTS:
+                    R[rb + code[pc + 1]] = set(R[rb + code[pc + 2]], function, pc).elements();
+                    pc += 3;
+                    break;
+                case NEW: {
+                    VmObject object = newObject(classes[code[pc + 2]], ib + function.intRegisters,
+                            rb + function.refRegisters);
+                    I = ints;
+                    R = refs;
+                    R[rb + code[pc + 1]] = object;
+                    pc += 3;
+                    break;
+                }
+                case CALL: {
+                    int intBase = ib + code[pc + 3];
+                    int refBase = rb + code[pc + 4];
+                    if (R[refBase] == null)
+                        throw error(function, pc, RuntimeError.NULL_REFERENCE);
+                    Function callee = functions[code[pc + 2]];
+                    callLine = function.lines[pc];
+                    invoke(callee, intBase, refBase);
+                    I = ints;
+                    R = refs;
+                    if (callee.result == Function.Result.integer)
+                        I[ib + code[pc + 1]] = I[intBase];
+                    else if (callee.result == Function.Result.reference)
+                        R[rb + code[pc + 1]] = R[refBase];
+                    pc += 5;
+                    break;
+                }
+                case FCALL: {
+                    BoundFunction fptr = (BoundFunction) R[rb + code[pc + 2]];
+                    if (fptr == null)
+                        throw error(function, pc, RuntimeError.NULL_REFERENCE);
+                    int intBase = ib + code[pc + 3];
+                    int refBase = rb + code[pc + 4];
+                    R[refBase] = fptr.receiver;
+                    Function callee = fptr.function;
+                    callLine = function.lines[pc];
+                    invoke(callee, intBase, refBase);
+                    I = ints;
+                    R = refs;
+                    if (callee.result == Function.Result.integer)
+                        I[ib + code[pc + 1]] = I[intBase];
+                    else if (callee.result == Function.Result.reference)
+                        R[rb + code[pc + 1]] = R[refBase];
+                    pc += 5;
+                    break;
+                }
+                case FUNCTION:
+                    R[rb + code[pc + 1]] = new BoundFunction(object(R[rb + code[pc + 2]], function, pc),
+                            functions[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case RETURN:
+                    return;
+                case IRETURN:
+                    I[ib] = I[ib + code[pc + 1]];
+                    return;
+                case RRETURN:
+                    R[rb] = R[rb + code[pc + 1]];
+                    return;
+                case IPRINT:
+                    out.println(I[ib + code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case BPRINT:
+                    out.println(I[ib + code[pc + 1]] != 0);
+                    pc += 2;
+                    break;
+                case RPRINT:
+                    out.println(set(R[rb + code[pc + 1]], function, pc));
+                    pc += 2;
+                    break;
+                default:
+                    throw new IllegalStateException("unknown opcode " + code[pc] + " at " + pc);
+            }
+        }
+    }
+}
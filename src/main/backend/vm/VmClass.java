@@ -0,0 +1,15 @@
+package main.backend.vm;
+
+// How the objects of a class are made: their numbers of int and ref fields, in layout order, and
+// the function that creates their sets and arrays, or null when they have none
+final class VmClass {
+    final int intFields;
+    final int refFields;
+    final Function initializer;
+
+    VmClass(int intFields, int refFields, Function initializer) {
+        this.intFields = intFields;
+        this.refFields = refFields;
+        this.initializer = initializer;
+    }
+}
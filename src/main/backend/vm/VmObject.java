@@ -0,0 +1,12 @@
+package main.backend.vm;
+
+// An object of a SimpleLOOP class, its int and bool fields apart from the others
+final class VmObject {
+    final int[] ints;
+    final Object[] refs;
+
+    VmObject(VmClass vmClass) {
+        this.ints = new int[vmClass.intFields];
+        this.refs = new Object[vmClass.refFields];
+    }
+}
@@ -0,0 +1,35 @@
+package main.backend.vm;
+
+import java.io.PrintStream;
+
+// A program compiled for the VM: its functions and classes, indexed as the code refers to them,
+// the numbers of int and ref globals with the function that creates the sets and arrays among
+// them, and Main with its constructor.
+public class VmProgram {
+    final Function[] functions;
+    final VmClass[] classes;
+    final int intGlobals;
+    final int refGlobals;
+    final Function initializer;
+    final int mainClass;
+    // -1 when Main has no constructor
+    final int mainConstructor;
+    final int mainLine;
+
+    VmProgram(Function[] functions, VmClass[] classes, int intGlobals, int refGlobals, Function initializer,
+              int mainClass, int mainConstructor, int mainLine) {
+        this.functions = functions;
+        this.classes = classes;
+        this.intGlobals = intGlobals;
+        this.refGlobals = refGlobals;
+        this.initializer = initializer;
+        this.mainClass = mainClass;
+        this.mainConstructor = mainConstructor;
+        this.mainLine = mainLine;
+    }
+
+    // Runs Main with print writing to out. An error of the program is thrown as a RuntimeError.
+    public void run(PrintStream out) {
+        new VirtualMachine(this, out).run();
+    }
+}
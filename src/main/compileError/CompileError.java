@@ -1,6 +1,7 @@
 package main.compileError;
 
-public class CompileError extends Exception {
+// Not an exception: errors are reported to Diagnostics, never thrown, so they carry no stack trace
+public class CompileError {
     private int line;
     protected String message;
 
@@ -9,6 +10,10 @@ public class CompileError extends Exception {
         this.message = message;
     }
 
+    public int getLine() {
+        return line;
+    }
+
     public String getMessage() {
         return "Line " + line + ": " + message;
     }
@@ -0,0 +1,84 @@
+package main.compileError;
+
+import main.ast.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Collects the errors of one compilation as they are reported.
+// errorLimit 0 means no limit; with stopEarly the passes give up after the first error.
+public class Diagnostics {
+    private ArrayList<CompileError> errors = new ArrayList<>();
+    // set for deferred diagnostics: the nodes to mark once the errors are reported for real
+    private ArrayList<Node> nodes;
+    private int errorLimit;
+    private boolean stopEarly;
+
+    public Diagnostics() {
+        this(0, false);
+    }
+
+    public Diagnostics(int errorLimit, boolean stopEarly) {
+        this.errorLimit = errorLimit;
+        this.stopEarly = stopEarly;
+    }
+
+    // Holds the errors of one part of a pass that runs concurrently with other parts, without
+    // marking nodes or applying limits, until reportAll hands them to the real Diagnostics.
+    public static Diagnostics deferred() {
+        Diagnostics diagnostics = new Diagnostics();
+        diagnostics.nodes = new ArrayList<>();
+        return diagnostics;
+    }
+
+    public void report(Node node, CompileError error) {
+        if (nodes != null) {
+            nodes.add(node);
+            errors.add(error);
+            return;
+        }
+        node.markError();
+        if (!isLimitReached())
+            errors.add(error);
+    }
+
+    // reports the errors of a deferred Diagnostics in the order they were collected
+    public void reportAll(Diagnostics deferred) {
+        for (int i = 0; i < deferred.errors.size(); i++)
+            report(deferred.nodes.get(i), deferred.errors.get(i));
+    }
+
+    public boolean shouldStop() {
+        if (stopEarly && !errors.isEmpty())
+            return true;
+        return isLimitReached();
+    }
+
+    public boolean isLimitReached() {
+        return errorLimit > 0 && errors.size() >= errorLimit;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    public int getErrorCount() {
+        return errors.size();
+    }
+
+    public int getErrorLimit() {
+        return errorLimit;
+    }
+
+    public boolean isStopEarly() {
+        return stopEarly;
+    }
+
+    // sorted by line; errors on the same line keep the order they were reported in
+    public List<CompileError> getSortedErrors() {
+        ArrayList<CompileError> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingInt(CompileError::getLine));
+        return sorted;
+    }
+}
@@ -0,0 +1,9 @@
+package main.compileError.backendError;
+
+import main.compileError.CompileError;
+
+public class NestingTooDeep extends CompileError {
+    public NestingTooDeep(int line) {
+        super(line, "Code is nested too deeply to compile");
+    }
+}
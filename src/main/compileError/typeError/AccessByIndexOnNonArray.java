@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class AccessByIndexOnNonArray extends CompileError {
+    public AccessByIndexOnNonArray(int line) {
+        super(line, "Index access on something that is not an array");
+    }
+}
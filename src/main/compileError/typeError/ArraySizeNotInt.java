@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class ArraySizeNotInt extends CompileError {
+    public ArraySizeNotInt(int line) {
+        super(line, "Array size must be int");
+    }
+}
@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class CallOnNoneCallable extends CompileError {
+    public CallOnNoneCallable(int line) {
+        super(line, "Call on something that is not callable");
+    }
+}
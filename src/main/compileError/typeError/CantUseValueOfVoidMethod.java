@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class CantUseValueOfVoidMethod extends CompileError {
+    public CantUseValueOfVoidMethod(int line) {
+        super(line, "Can not use the value of a void method");
+    }
+}
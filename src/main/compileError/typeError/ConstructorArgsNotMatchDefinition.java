@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class ConstructorArgsNotMatchDefinition extends CompileError {
+    public ConstructorArgsNotMatchDefinition(int line, String className) {
+        super(line, "Arguments of " + className + ".new do not match its constructor");
+    }
+}
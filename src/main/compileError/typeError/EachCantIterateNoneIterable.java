@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class EachCantIterateNoneIterable extends CompileError {
+    public EachCantIterateNoneIterable(int line) {
+        super(line, "Each can only iterate over an array or a set");
+    }
+}
@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class EachVarNotMatchList extends CompileError {
+    public EachVarNotMatchList(int line) {
+        super(line, "Type of each variable does not match the elements");
+    }
+}
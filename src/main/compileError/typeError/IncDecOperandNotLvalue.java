@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class IncDecOperandNotLvalue extends CompileError {
+    public IncDecOperandNotLvalue(int line, String operator) {
+        super(line, "Operand of " + operator + " must be a valid lvalue");
+    }
+}
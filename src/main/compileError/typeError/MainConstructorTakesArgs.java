@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class MainConstructorTakesArgs extends CompileError {
+    public MainConstructorTakesArgs(int line) {
+        super(line, "Constructor of Main can not take arguments");
+    }
+}
@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class MethodCallNotMatchDefinition extends CompileError {
+    public MethodCallNotMatchDefinition(int line) {
+        super(line, "Method call does not match definition");
+    }
+}
@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class NoMainClass extends CompileError {
+    public NoMainClass(int line) {
+        super(line, "No class named Main");
+    }
+}
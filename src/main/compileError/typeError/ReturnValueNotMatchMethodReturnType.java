@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class ReturnValueNotMatchMethodReturnType extends CompileError {
+    public ReturnValueNotMatchMethodReturnType(int line) {
+        super(line, "Return value does not match method return type");
+    }
+}
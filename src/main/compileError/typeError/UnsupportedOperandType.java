@@ -0,0 +1,9 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+public class UnsupportedOperandType extends CompileError {
+    public UnsupportedOperandType(int line, String operator) {
+        super(line, "Unsupported operand type for " + operator);
+    }
+}
@@ -17,9 +17,31 @@ grammar SimpleLOOP;
      import main.ast.types.set.*;
      import main.ast.types.functionPointer.*;
      import main.ast.types.array.*;
+     import main.ast.names.*;
      import java.util.*;
  }
 
+@members{
+    private NameTable names = new NameTable();
+    private TypeFactory typeFactory = new TypeFactory();
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public void setNames(NameTable names) {
+        this.names = names;
+    }
+
+    public TypeFactory getTypeFactory() {
+        return typeFactory;
+    }
+
+    public void setTypeFactory(TypeFactory typeFactory) {
+        this.typeFactory = typeFactory;
+    }
+}
+
 simpleLOOP returns [Program simpleLOOPProgram]:
     NEWLINE* p = program {$simpleLOOPProgram = $p.programRet;} NEWLINE* EOF;
 
@@ -101,7 +123,7 @@ method returns [MethodDeclaration methodRet, Identifier id,Type returnType,Array
               $id = $id_.id;
               $args = $mArgs.args;
               $mBody = $mBody_.methodBodyRet;
-              $returnType = new VoidType();
+              $returnType = typeFactory.voidType();
               $localVars = $mBody_.localVars;
            };
 
@@ -123,7 +145,7 @@ methodArgsDec returns [ArrayList<VariableDeclaration> args]
 
 //todo: done
 argDec[int line] returns [VariableDeclaration arg]: t=type id=identifier
-       {$arg = new VariableDeclaration($id.id,$t.typeRet); $arg.setLine($line);};
+       {$arg = new VariableDeclaration($id.id,$t.typeRet); $arg.setDimensions($t.dimensionsRet); $arg.setLine($line);};
 
 //todo: done
 methodArgs returns [ArrayList<Expression> methodArgsRet]:
@@ -224,6 +246,7 @@ varDecStatement returns [ArrayList<VariableDeclaration> varDecStmtRet, VariableD
     t = type id = identifier
      {
           VariableDeclaration newVar = new VariableDeclaration($id.id,$t.typeRet);
+          newVar.setDimensions($t.dimensionsRet);
           newVar.setLine($id.line);
           $varDecStmtRet.add(newVar);
 
@@ -232,6 +255,7 @@ varDecStatement returns [ArrayList<VariableDeclaration> varDecStmtRet, VariableD
      (COMMA id2 = identifier
      {
         VariableDeclaration newVar2 = new VariableDeclaration($id2.id,$t.typeRet);
+        newVar2.setDimensions($t.dimensionsRet);
         newVar2.setLine($id2.line);
         $varDecStmtRet.add(newVar2);
      }
@@ -556,7 +580,7 @@ accessExpression returns[Expression accessExpressionRet]:
             }
             | init = INITIALIZE
             {
-                Identifier id = new Identifier($init.text);
+                Identifier id = new Identifier(names.intern($init.text));
                 id.setLine($init.getLine());
                 $accessExpressionRet = new ObjectMemberAccess($accessExpressionRet, id);
                 $accessExpressionRet.setLine($init.getLine());
@@ -588,7 +612,7 @@ otherExpression returns[Expression otherExprRet, ClassType ct]:
     c = class_identifier
     {
         $otherExprRet = $c.class_id;
-        $ct = new ClassType($c.class_id);
+        $ct = typeFactory.classType($c.class_id);
     }
     | v = value { $otherExprRet = $v.valueRet; }
     | id = identifier { $otherExprRet = $id.id; }
@@ -654,7 +678,7 @@ class_identifier returns [Identifier class_id,int line]
     :
     c = CLASS_IDENTIFIER
          {
-            $class_id = new Identifier($c.text);
+            $class_id = new Identifier(names.intern($c.text));
             $class_id.setLine($c.getLine());
          }
 ;
@@ -663,7 +687,7 @@ class_identifier returns [Identifier class_id,int line]
 identifier returns [Identifier id, int line]
        :   identifierLine = IDENTIFIER
        {
-           $id = new Identifier($identifierLine.text);
+           $id = new Identifier(names.intern($identifierLine.text));
            $id.setLine($identifierLine.getLine());
 
            $line = $identifierLine.getLine();
@@ -671,38 +695,39 @@ identifier returns [Identifier id, int line]
 ;
 
 //todo
-type returns [Type typeRet]
+type returns [Type typeRet, ArrayList<Expression> dimensionsRet]
+    @init { $dimensionsRet = new ArrayList<Expression>(); }
     :
     INT
-     { $typeRet = new IntType(); }
+     { $typeRet = typeFactory.intType(); }
     | BOOL
-      { $typeRet = new BoolType(); }
+      { $typeRet = typeFactory.boolType(); }
     | a = array_type
-      { $typeRet = $a.arrayTypeRet; }
+      { $typeRet = $a.arrayTypeRet; $dimensionsRet = $a.dimensionsRet; }
     | f = fptr_type
       { $typeRet = $f.fptrTypeRet; }
     | s = set_type
       { $typeRet = $s.setTypeRet; }
     | c = class_identifier
       {
-            $typeRet  = new ClassType($c.class_id);
+            $typeRet  = typeFactory.classType($c.class_id);
       }
     ;
 
 //todo: done
-array_type returns [ArrayType arrayTypeRet]
+array_type returns [ArrayType arrayTypeRet, ArrayList<Expression> dimensionsRet]
     locals[Type elemType, ArrayList<Expression> dim]
     :
     (INT
-    { $elemType = new IntType(); }
+    { $elemType = typeFactory.intType(); }
     | BOOL
-    { $elemType = new BoolType(); }
+    { $elemType = typeFactory.boolType(); }
     | c = class_identifier
-    { $elemType  = new ClassType($c.class_id); }
+    { $elemType  = typeFactory.classType($c.class_id); }
     )
     {$dim = new ArrayList<Expression>();}
     (LBRACK exp = expression {$dim.add($exp.expressionRet);} RBRACK)+
-    { $arrayTypeRet = new ArrayType($elemType, $dim); }
+    { $arrayTypeRet = typeFactory.arrayType($elemType, $dim); $dimensionsRet = $dim; }
     ;
 
 //todo: done
@@ -715,11 +740,11 @@ fptr_type returns[FptrType fptrTypeRet]
     { $argsTypes = $types.typesWithCommaRet; }
     ) ARROW
     (VOID
-    { $returnType = new VoidType(); }
+    { $returnType = typeFactory.voidType(); }
     | t=type
     { $returnType = $t.typeRet; }
     ) GREATER_THAN
-    { $fptrTypeRet = new FptrType($argsTypes, $returnType); }
+    { $fptrTypeRet = typeFactory.fptrType($argsTypes, $returnType); }
     ;
 
 typesWithComma returns[ArrayList<Type> typesWithCommaRet]:
@@ -733,7 +758,7 @@ typesWithComma returns[ArrayList<Type> typesWithCommaRet]:
 
 //todo: Done
 set_type returns [SetType setTypeRet]:
-    SET LESS_THAN (INT) GREATER_THAN { $setTypeRet = new SetType(); };
+    SET LESS_THAN (INT) GREATER_THAN { $setTypeRet = typeFactory.setType(); };
 
 LINE_BREAK: ('//\n') -> skip;
 
@@ -0,0 +1,289 @@
+package main.lexer;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+import parsers.SimpleLOOPLexer;
+
+import java.util.Arrays;
+
+import static parsers.SimpleLOOPLexer.*;
+
+// Direct-coded replacement for SimpleLOOPLexer. It produces the same tokens (types, text, positions)
+// and the same "token recognition error" messages, but picks rules by looking at the next
+// characters instead of simulating the lexer ATN.
+public class SimpleLOOPDirectLexer extends Lexer {
+    private static final String[][] KEYWORDS = new String[128][];
+    private static final int[][] KEYWORD_TYPES = new int[128][];
+
+    static {
+        String[] texts = {"class", "public", "private", "initialize", "new", "self", "return", "void", "delete",
+                "include", "add", "merge", "print", "if", "else", "elsif", "true", "false", "null", "int",
+                "bool", "fptr", "Set", "each", "do"};
+        int[] types = {CLASS, PUBLIC, PRIVATE, INITIALIZE, NEW, SELF, RETURN, VOID, DELETE,
+                INCLUDE, ADD, MERGE, PRINT, IF, ELSE, ELSIF, TRUE, FALSE, NULL, INT,
+                BOOL, FPTR, SET, EACH, DO};
+        for (int i = 0; i < texts.length; i++) {
+            char first = texts[i].charAt(0);
+            String[] sameFirst = KEYWORDS[first] == null ? new String[0] : KEYWORDS[first];
+            int[] sameFirstTypes = KEYWORD_TYPES[first] == null ? new int[0] : KEYWORD_TYPES[first];
+            KEYWORDS[first] = Arrays.copyOf(sameFirst, sameFirst.length + 1);
+            KEYWORD_TYPES[first] = Arrays.copyOf(sameFirstTypes, sameFirstTypes.length + 1);
+            KEYWORDS[first][sameFirst.length] = texts[i];
+            KEYWORD_TYPES[first][sameFirst.length] = types[i];
+        }
+    }
+
+    private static final int INVALID = -2;
+
+    private int line = 1;
+    private int charPositionInLine = 0;
+
+    public SimpleLOOPDirectLexer(CharStream input) {
+        super(input);
+    }
+
+    @Override
+    public Token nextToken() {
+        while (true) {
+            _token = null;
+            _channel = Token.DEFAULT_CHANNEL;
+            _tokenStartCharIndex = _input.index();
+            _tokenStartLine = line;
+            _tokenStartCharPositionInLine = charPositionInLine;
+            _text = null;
+            if (_input.LA(1) == CharStream.EOF) {
+                _hitEOF = true;
+                return emitEOF();
+            }
+            _type = match();
+            if (_type == SKIP)
+                continue;
+            if (_type == INVALID) {
+                notifyListeners(new LexerNoViableAltException(this, _input, _tokenStartCharIndex, null));
+                // like Lexer.recover, the character the match failed on is dropped as well
+                if (_input.LA(1) != CharStream.EOF)
+                    consume(1);
+                continue;
+            }
+            return emit();
+        }
+    }
+
+    // consumes the longest match and returns its type, SKIP for skipped rules or INVALID
+    private int match() {
+        int c = _input.LA(1);
+        if ((c >= 'a' && c <= 'z') || c == '_')
+            return matchWord(IDENTIFIER);
+        if (c >= 'A' && c <= 'Z')
+            return matchWord(CLASS_IDENTIFIER);
+        if (c >= '1' && c <= '9') {
+            int length = 1;
+            while (isDigit(_input.LA(length + 1)))
+                length++;
+            consume(length);
+            return INT_VALUE;
+        }
+        switch (c) {
+            case '0': return single(INT_VALUE);
+            case ' ':
+            case '\t':
+            case '\r':
+            case ';':
+                consume(1);
+                return SKIP;
+            case '\n': return single(NEWLINE);
+            case '*': return single(MULT);
+            case '>': return single(GREATER_THAN);
+            case '<': return single(LESS_THAN);
+            case '!': return single(NOT);
+            case '?': return single(TIF);
+            case ':': return single(TELSE);
+            case '(': return single(LPAR);
+            case ')': return single(RPAR);
+            case '[': return single(LBRACK);
+            case ']': return single(RBRACK);
+            case '{': return single(LBRACE);
+            case '}': return single(RBRACE);
+            case ',': return single(COMMA);
+            case '.': return single(DOT);
+            case '+': return _input.LA(2) == '+' ? pair(INC) : single(PLUS);
+            case '|': return _input.LA(2) == '|' ? pair(OR) : single(BAR);
+            case '-':
+                if (_input.LA(2) == '-')
+                    return pair(DEC);
+                return _input.LA(2) == '>' ? pair(ARROW) : single(MINUS);
+            case '&':
+                if (_input.LA(2) == '&')
+                    return pair(AND);
+                consume(1);
+                return INVALID;
+            case '/':
+                if (_input.LA(2) == '/' && _input.LA(3) == '\n') {
+                    consume(3);
+                    return SKIP;
+                }
+                return single(DIVIDE);
+            case '#': {
+                int end = find("\n", 2);
+                if (end < 0)
+                    return single(SHARP);
+                consume(end);
+                return SKIP;
+            }
+            case '=':
+                if (_input.LA(2) == '=')
+                    return pair(EQUAL);
+                if (lookingAt("begin", 2)) {
+                    int end = find("=end", 7);
+                    if (end < 0) {
+                        consume(6);
+                        return BEGIN;
+                    }
+                    consume(end);
+                    return SKIP;
+                }
+                if (lookingAt("end", 2)) {
+                    consume(4);
+                    return END;
+                }
+                return single(ASSIGN);
+            default:
+                return INVALID;
+        }
+    }
+
+    private int matchWord(int type) {
+        int length = 1;
+        while (isWordPart(_input.LA(length + 1)))
+            length++;
+        String[] keywords = KEYWORDS[_input.LA(1)];
+        if (keywords != null)
+            for (int i = 0; i < keywords.length; i++)
+                if (keywords[i].length() == length && lookingAt(keywords[i], 1)) {
+                    type = KEYWORD_TYPES[_input.LA(1)][i];
+                    break;
+                }
+        consume(length);
+        return type;
+    }
+
+    // true if text starts at lookahead offset i
+    private boolean lookingAt(String text, int i) {
+        for (int j = 0; j < text.length(); j++)
+            if (_input.LA(i + j) != text.charAt(j))
+                return false;
+        return true;
+    }
+
+    // length up to and including the first text at or after lookahead offset i, -1 if there is none
+    private int find(String text, int i) {
+        int first = text.charAt(0);
+        for (int c = _input.LA(i); c != CharStream.EOF; c = _input.LA(++i))
+            if (c == first && lookingAt(text, i))
+                return i + text.length() - 1;
+        return -1;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordPart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private int single(int type) {
+        consume(1);
+        return type;
+    }
+
+    private int pair(int type) {
+        consume(2);
+        return type;
+    }
+
+    private void consume(int count) {
+        for (int i = 0; i < count; i++) {
+            if (_input.LA(1) == '\n') {
+                line++;
+                charPositionInLine = 0;
+            } else {
+                charPositionInLine++;
+            }
+            _input.consume();
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (_input != null)
+            _input.seek(0);
+        line = 1;
+        charPositionInLine = 0;
+        _token = null;
+        _type = Token.INVALID_TYPE;
+        _channel = Token.DEFAULT_CHANNEL;
+        _tokenStartCharIndex = -1;
+        _tokenStartCharPositionInLine = -1;
+        _tokenStartLine = -1;
+        _text = null;
+        _hitEOF = false;
+        _mode = Lexer.DEFAULT_MODE;
+        _modeStack.clear();
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return charPositionInLine;
+    }
+
+    @Override
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    @Override
+    public void setCharPositionInLine(int charPositionInLine) {
+        this.charPositionInLine = charPositionInLine;
+    }
+
+    @Override
+    public String getGrammarFileName() {
+        return "SimpleLOOP.g4";
+    }
+
+    @Override
+    public String[] getRuleNames() {
+        return SimpleLOOPLexer.ruleNames;
+    }
+
+    @Override
+    public String[] getModeNames() {
+        return SimpleLOOPLexer.modeNames;
+    }
+
+    @Override
+    @Deprecated
+    public String[] getTokenNames() {
+        return SimpleLOOPLexer.tokenNames;
+    }
+
+    @Override
+    public Vocabulary getVocabulary() {
+        return SimpleLOOPLexer.VOCABULARY;
+    }
+
+    @Override
+    public ATN getATN() {
+        return SimpleLOOPLexer._ATN;
+    }
+}
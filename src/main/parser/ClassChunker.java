@@ -0,0 +1,149 @@
+package main.parser;
+
+import org.antlr.v4.runtime.CharStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits a source at its "class" keywords. The scan follows the lexer rules for words, numbers,
+// comments and error recovery, so no token of the whole input crosses a boundary and lexing the
+// chunks one by one gives the same tokens as lexing the whole input.
+public class ClassChunker {
+    public static class Chunk {
+        private final int start;
+        private final int stop;
+        private final int line;
+        private final int charPositionInLine;
+
+        Chunk(int start, int stop, int line, int charPositionInLine) {
+            this.start = start;
+            this.stop = stop;
+            this.line = line;
+            this.charPositionInLine = charPositionInLine;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        // exclusive
+        public int getStop() {
+            return stop;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getCharPositionInLine() {
+            return charPositionInLine;
+        }
+    }
+
+    private final CharStream input;
+    private final int size;
+    private int line = 1;
+    private int lineStart = 0;
+
+    private ClassChunker(CharStream input) {
+        this.input = input;
+        this.size = input.size();
+    }
+
+    // The first chunk holds everything before the first class (possibly nothing), every other
+    // chunk starts with "class". Leaves the stream at index 0.
+    public static List<Chunk> split(CharStream input) {
+        List<Chunk> chunks = new ArrayList<>();
+        new ClassChunker(input).scan(chunks);
+        input.seek(0);
+        return chunks;
+    }
+
+    private void scan(List<Chunk> chunks) {
+        int chunkStart = 0;
+        int chunkLine = 1;
+        int chunkCharPosition = 0;
+        int i = 0;
+        while (i < size) {
+            int c = charAt(i);
+            int next;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_') {
+                next = i + 1;
+                while (isWordPart(charAt(next)))
+                    next++;
+                if (next - i == 5 && lookingAt("class", i)) {
+                    chunks.add(new Chunk(chunkStart, i, chunkLine, chunkCharPosition));
+                    chunkStart = i;
+                    chunkLine = line;
+                    chunkCharPosition = i - lineStart;
+                }
+            } else if (c >= '1' && c <= '9') {
+                next = i + 1;
+                while (isDigit(charAt(next)))
+                    next++;
+            } else if (c == '#') {
+                int end = find("\n", i + 1);
+                next = end < 0 ? i + 1 : end;
+            } else if (c == '=') {
+                if (charAt(i + 1) == '=') {
+                    next = i + 2;
+                } else if (lookingAt("begin", i + 1)) {
+                    int end = find("=end", i + 6);
+                    next = end < 0 ? i + 6 : end;
+                } else if (lookingAt("end", i + 1)) {
+                    next = i + 4;
+                } else {
+                    next = i + 1;
+                }
+            } else if (c == '&') {
+                // a lone '&' is an error and recovery drops the character after it too
+                next = Math.min(i + 2, size);
+            } else {
+                next = i + 1;
+            }
+            advance(i, next);
+            i = next;
+        }
+        chunks.add(new Chunk(chunkStart, size, chunkLine, chunkCharPosition));
+    }
+
+    // counts the lines in [from, to)
+    private void advance(int from, int to) {
+        for (int i = from; i < to; i++)
+            if (charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+    }
+
+    private int charAt(int i) {
+        if (i >= size)
+            return CharStream.EOF;
+        input.seek(i);
+        return input.LA(1);
+    }
+
+    private boolean lookingAt(String text, int i) {
+        for (int j = 0; j < text.length(); j++)
+            if (charAt(i + j) != text.charAt(j))
+                return false;
+        return true;
+    }
+
+    // index just after the first text at or after i, -1 if there is none
+    private int find(String text, int i) {
+        int first = text.charAt(0);
+        for (; i < size; i++)
+            if (charAt(i) == first && lookingAt(text, i))
+                return i + text.length();
+        return -1;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordPart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+}
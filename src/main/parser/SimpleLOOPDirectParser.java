@@ -0,0 +1,1119 @@
+package main.parser;
+
+import main.ast.names.NameTable;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.Value;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.types.Type;
+import main.ast.types.TypeFactory;
+import main.ast.types.array.ArrayType;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.primitives.ClassType;
+import main.symbolTable.utils.stack.Stack;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.ArrayList;
+
+import static parsers.SimpleLOOPLexer.*;
+
+// Recursive-descent parser that builds the same AST as the grammar actions of SimpleLOOPParser.
+// Expressions are parsed by precedence climbing instead of one rule call per precedence level.
+// Only correct programs are handled: on the first unexpected token parse() throws
+// ParseCancellationException and the caller reparses with SimpleLOOPParser, which reports the errors.
+public class SimpleLOOPDirectParser {
+    // stackless, so failed alternatives are cheap to try
+    private static class Mismatch extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Mismatch() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Mismatch MISMATCH = new Mismatch();
+
+    // binding power of the binary operators, 0 for every other token
+    private static final int[] PRECEDENCE = new int[CLASS_IDENTIFIER + 1];
+    private static final BinaryOperator[] BINARY_OPERATORS = new BinaryOperator[CLASS_IDENTIFIER + 1];
+
+    static {
+        setBinary(OR, 1, BinaryOperator.or);
+        setBinary(AND, 2, BinaryOperator.and);
+        setBinary(EQUAL, 3, BinaryOperator.eq);
+        setBinary(GREATER_THAN, 4, BinaryOperator.gt);
+        setBinary(LESS_THAN, 4, BinaryOperator.lt);
+        setBinary(PLUS, 5, BinaryOperator.add);
+        setBinary(MINUS, 5, BinaryOperator.sub);
+        setBinary(MULT, 6, BinaryOperator.mult);
+        setBinary(DIVIDE, 6, BinaryOperator.div);
+    }
+
+    private static void setBinary(int tokenType, int precedence, BinaryOperator operator) {
+        PRECEDENCE[tokenType] = precedence;
+        BINARY_OPERATORS[tokenType] = operator;
+    }
+
+    private TokenStream tokens;
+    private NameTable names = new NameTable();
+    private TypeFactory typeFactory = new TypeFactory();
+
+    // the last method call an access expression ended with, for methodCallStmt to give back
+    private int lastCallStart;
+    private Expression beforeLastCall;
+
+    public SimpleLOOPDirectParser(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public void setNames(NameTable names) {
+        this.names = names;
+    }
+
+    public TypeFactory getTypeFactory() {
+        return typeFactory;
+    }
+
+    public void setTypeFactory(TypeFactory typeFactory) {
+        this.typeFactory = typeFactory;
+    }
+
+    public Program parse() {
+        try {
+            skipNewlines();
+            Program program = program();
+            skipNewlines();
+            expect(Token.EOF);
+            return program;
+        } catch (Mismatch e) {
+            throw cancel();
+        }
+    }
+
+    // a class declaration, the newlines after it and the end of input: one chunk of ClassChunker
+    public ClassDeclaration parseClass() {
+        try {
+            ClassDeclaration classDec = classDeclaration();
+            newlines();
+            expect(Token.EOF);
+            return classDec;
+        } catch (Mismatch e) {
+            throw cancel();
+        }
+    }
+
+    private ParseCancellationException cancel() {
+        return new ParseCancellationException("syntax error at token " + tokens.index());
+    }
+
+    // a literal out of the int range is given up on, not backtracked over, and left to the generated parser
+    private int intConstant(Token token) {
+        try {
+            return Integer.parseInt(token.getText());
+        } catch (NumberFormatException e) {
+            throw cancel();
+        }
+    }
+
+    private Program program() {
+        Program program = new Program();
+        program.setLine(1);
+        while (startsType(la(1))) {
+            for (VariableDeclaration varDec : varDecStatement())
+                program.addGlobalVariable(varDec);
+            newlines();
+        }
+        while (la(1) == CLASS) {
+            program.addClass(classDeclaration());
+            newlines();
+        }
+        return program;
+    }
+
+    private ClassDeclaration classDeclaration() {
+        Token line = expect(CLASS);
+        ClassDeclaration classDec = new ClassDeclaration(classIdentifier());
+        classDec.setLine(line.getLine());
+        if (la(1) == LESS_THAN) {
+            consume();
+            classDec.setParentClassName(classIdentifier());
+        }
+        skipNewlines();
+        if (la(1) != LBRACE) {
+            fieldDeclaration(classDec);
+            return classDec;
+        }
+        consume();
+        newlines();
+        do {
+            fieldDeclaration(classDec);
+            newlines();
+        } while (la(1) != RBRACE);
+        consume();
+        return classDec;
+    }
+
+    // isPrivate is always false: the grammar compares the access token's text with ==
+    private void fieldDeclaration(ClassDeclaration classDec) {
+        if (la(1) == PUBLIC && la(2) == INITIALIZE) {
+            classDec.setConstructor(constructor());
+            return;
+        }
+        if (la(1) != PUBLIC && la(1) != PRIVATE)
+            throw MISMATCH;
+        Token accessType = consume();
+        Type type;
+        if (la(1) == VOID) {
+            consume();
+            type = typeFactory.voidType();
+        } else {
+            ArrayList<Expression> dimensions = new ArrayList<>();
+            type = type(dimensions);
+            if (la(2) != LPAR) {
+                VariableDeclaration first = varDecStatement(type, dimensions).get(0);
+                FieldDeclaration fieldDec = new FieldDeclaration(first, false);
+                fieldDec.setLine(accessType.getLine());
+                classDec.addField(fieldDec);
+                return;
+            }
+        }
+        MethodDeclaration methodDec = new MethodDeclaration(identifier(), type, false);
+        methodDec.setArgs(methodArgsDec());
+        skipNewlines();
+        ArrayList<VariableDeclaration> localVars = new ArrayList<>();
+        methodDec.setBody(methodBody(localVars));
+        methodDec.setLocalVars(localVars);
+        methodDec.setLine(accessType.getLine());
+        classDec.addMethod(methodDec);
+    }
+
+    private ConstructorDeclaration constructor() {
+        expect(PUBLIC);
+        Token init = expect(INITIALIZE);
+        ArrayList<VariableDeclaration> args = methodArgsDec();
+        skipNewlines();
+        ArrayList<VariableDeclaration> localVars = new ArrayList<>();
+        ArrayList<Statement> body = methodBody(localVars);
+        ConstructorDeclaration constructorDec = new ConstructorDeclaration();
+        constructorDec.setLine(init.getLine());
+        constructorDec.setBody(body);
+        constructorDec.setLocalVars(localVars);
+        constructorDec.setArgs(args);
+        return constructorDec;
+    }
+
+    private ArrayList<Statement> methodBody(ArrayList<VariableDeclaration> localVars) {
+        ArrayList<Statement> body = new ArrayList<>();
+        if (la(1) != LBRACE) {
+            ArrayList<VariableDeclaration> varDecs = tryVarDecStatement();
+            if (varDecs != null)
+                localVars.addAll(varDecs);
+            else
+                body.add(singleStatement());
+            return body;
+        }
+        consume();
+        newlines();
+        ArrayList<VariableDeclaration> varDecs;
+        while ((varDecs = tryVarDecStatement()) != null) {
+            localVars.addAll(varDecs);
+            newlines();
+        }
+        while (la(1) != RBRACE) {
+            body.add(singleStatement());
+            newlines();
+        }
+        consume();
+        return body;
+    }
+
+    // default values are parsed and dropped, like in the grammar
+    private ArrayList<VariableDeclaration> methodArgsDec() {
+        ArrayList<VariableDeclaration> args = new ArrayList<>();
+        Token line = expect(LPAR);
+        if (la(1) != RPAR) {
+            args.add(argDec(line.getLine()));
+            boolean hasDefaults = false;
+            if (la(1) == ASSIGN) {
+                consume();
+                orExpression();
+                hasDefaults = true;
+            }
+            while (la(1) == COMMA) {
+                consume();
+                args.add(argDec(line.getLine()));
+                if (la(1) == ASSIGN) {
+                    consume();
+                    orExpression();
+                    hasDefaults = true;
+                } else if (hasDefaults) {
+                    throw MISMATCH;
+                }
+            }
+        }
+        expect(RPAR);
+        return args;
+    }
+
+    private VariableDeclaration argDec(int line) {
+        ArrayList<Expression> dimensions = new ArrayList<>();
+        Type type = type(dimensions);
+        VariableDeclaration arg = new VariableDeclaration(identifier(), type);
+        arg.setDimensions(dimensions);
+        arg.setLine(line);
+        return arg;
+    }
+
+    private ArrayList<VariableDeclaration> varDecStatement() {
+        ArrayList<Expression> dimensions = new ArrayList<>();
+        Type type = type(dimensions);
+        return varDecStatement(type, dimensions);
+    }
+
+    private ArrayList<VariableDeclaration> varDecStatement(Type type, ArrayList<Expression> dimensions) {
+        ArrayList<VariableDeclaration> varDecs = new ArrayList<>();
+        Identifier id = identifier();
+        VariableDeclaration varDec = new VariableDeclaration(id, type);
+        varDec.setDimensions(dimensions);
+        varDec.setLine(id.getLine());
+        varDecs.add(varDec);
+        while (la(1) == COMMA) {
+            consume();
+            id = identifier();
+            varDec = new VariableDeclaration(id, type);
+            varDec.setDimensions(dimensions);
+            varDec.setLine(id.getLine());
+            varDecs.add(varDec);
+        }
+        return varDecs;
+    }
+
+    // a variable declaration line if the tokens up to the next newline are one, otherwise null
+    private ArrayList<VariableDeclaration> tryVarDecStatement() {
+        int t = la(1);
+        if (!startsType(t) || (t == SET && la(2) != LESS_THAN) || (t == CLASS_IDENTIFIER && la(2) == DOT))
+            return null;
+        int start = tokens.index();
+        int marker = tokens.mark();
+        try {
+            ArrayList<VariableDeclaration> varDecs = varDecStatement();
+            if (la(1) == NEWLINE) {
+                tokens.release(marker);
+                return varDecs;
+            }
+        } catch (Mismatch ignored) {
+        }
+        // an unbuffered stream can only seek back while the mark is held
+        tokens.seek(start);
+        tokens.release(marker);
+        return null;
+    }
+
+    // A statement whose body is being parsed, or a block whose statements are. Statements nest
+    // through these frames on a heap stack instead of Java calls, as expressions do through Frame.
+    private static class StatementFrame {
+        // if, each or the opening brace of a block
+        final Token keyword;
+        // the condition of an if, until its statement is built after the then-body
+        Expression condition;
+        EachStmt eachStmt;
+        ConditionalStmt conditionalStmt;
+        boolean inElse;
+        // null unless this is a block
+        ArrayList<Statement> statements;
+        boolean wantsBody = true;
+
+        StatementFrame(Token keyword) {
+            this.keyword = keyword;
+        }
+    }
+
+    // The alternatives that start with an expression are tried in grammar order and the first one
+    // that reaches a token able to follow a statement is the one ANTLR predicts.
+    private Statement singleStatement() {
+        Stack<StatementFrame> open = new Stack<>();
+        Statement statement = beginStatement(open);
+        while (true) {
+            StatementFrame frame = open.peek();
+            if (frame == null)
+                return statement;
+            if (frame.wantsBody) {
+                frame.wantsBody = false;
+                statement = beginBody(open);
+            } else {
+                statement = endNested(open, frame, statement);
+            }
+        }
+    }
+
+    // a whole statement, or null with the frame of a statement that waits for its body
+    private Statement beginStatement(Stack<StatementFrame> open) {
+        switch (la(1)) {
+            case IF: {
+                StatementFrame frame = new StatementFrame(expect(IF));
+                frame.condition = condition();
+                open.push(frame);
+                return null;
+            }
+            case PRINT: return printStatement();
+            case RETURN: return returnStatement();
+        }
+        int start = tokens.index();
+        int marker = tokens.mark();
+        for (int alternative = 0; alternative < 4; alternative++) {
+            try {
+                if (alternative == 2) {
+                    // no other alternative can parse past the header of an each loop
+                    StatementFrame frame = loopStatementHeader();
+                    tokens.release(marker);
+                    open.push(frame);
+                    return null;
+                }
+                Statement statement = expressionStatement(alternative);
+                if (endsStatement(la(1))) {
+                    tokens.release(marker);
+                    return statement;
+                }
+            } catch (Mismatch ignored) {
+            }
+            tokens.seek(start);
+        }
+        tokens.release(marker);
+        throw MISMATCH;
+    }
+
+    // a whole body, or null with the frame of a block or statement that waits for more
+    private Statement beginBody(Stack<StatementFrame> open) {
+        if (la(1) != LBRACE) {
+            newlines();
+            return beginStatement(open);
+        }
+        StatementFrame block = new StatementFrame(consume());
+        block.statements = new ArrayList<>();
+        block.wantsBody = false;
+        newlines();
+        if (la(1) == RBRACE)
+            return endBlock(block);
+        open.push(block);
+        return beginStatement(open);
+    }
+
+    // gives a parsed statement to the innermost frame, which may then be complete itself
+    private Statement endNested(Stack<StatementFrame> open, StatementFrame frame, Statement statement) {
+        if (frame.statements != null) {
+            frame.statements.add(statement);
+            newlines();
+            if (la(1) != RBRACE)
+                return beginStatement(open);
+            open.pop();
+            return endBlock(frame);
+        }
+        if (frame.eachStmt != null) {
+            open.pop();
+            frame.eachStmt.setBody(statement);
+            if (!endsStatement(la(1)))
+                throw MISMATCH;
+            return frame.eachStmt;
+        }
+        if (frame.inElse) {
+            open.pop();
+            frame.conditionalStmt.setElseBody(statement);
+            return frame.conditionalStmt;
+        }
+        // elsif branches are parsed but, as in the grammar, not attached to the statement
+        if (frame.conditionalStmt == null) {
+            frame.conditionalStmt = new ConditionalStmt(frame.condition, statement);
+            frame.conditionalStmt.setLine(frame.keyword.getLine());
+        }
+        if (nextAfterNewlines() == ELSIF) {
+            skipNewlines();
+            consume();
+            condition();
+            frame.wantsBody = true;
+            return null;
+        }
+        if (nextAfterNewlines() == ELSE) {
+            skipNewlines();
+            consume();
+            frame.inElse = true;
+            frame.wantsBody = true;
+            return null;
+        }
+        open.pop();
+        return frame.conditionalStmt;
+    }
+
+    private BlockStmt endBlock(StatementFrame block) {
+        expect(RBRACE);
+        BlockStmt blockStmt = new BlockStmt(block.statements);
+        blockStmt.setLine(block.keyword.getLine());
+        return blockStmt;
+    }
+
+    private Statement expressionStatement(int alternative) {
+        switch (alternative) {
+            case 0: return methodCallStmt();
+            case 1: return assignmentStatement();
+            default: return setStatement();
+        }
+    }
+
+    private MethodCallStmt methodCallStmt() {
+        Expression instance = accessExpression();
+        if (la(1) != LPAR) {
+            // the access expression took the call this statement ends with
+            if (beforeLastCall == null)
+                throw MISMATCH;
+            instance = beforeLastCall;
+            tokens.seek(lastCallStart);
+        }
+        Token lpar = consume();
+        MethodCall methodCall = new MethodCall(instance, methodArgs());
+        expect(RPAR);
+        methodCall.setLine(lpar.getLine());
+        MethodCallStmt methodCallStmt = new MethodCallStmt(methodCall);
+        methodCallStmt.setLine(lpar.getLine());
+        return methodCallStmt;
+    }
+
+    private AssignmentStmt assignmentStatement() {
+        Expression lValue = orExpression();
+        Token a = expect(ASSIGN);
+        AssignmentStmt assignmentStmt = new AssignmentStmt(lValue, expression());
+        assignmentStmt.setLine(a.getLine());
+        return assignmentStmt;
+    }
+
+    private StatementFrame loopStatementHeader() {
+        Expression list = accessExpression();
+        expect(DOT);
+        Token each = expect(EACH);
+        expect(DO);
+        expect(BAR);
+        Identifier variable = identifier();
+        expect(BAR);
+        StatementFrame frame = new StatementFrame(each);
+        frame.eachStmt = new EachStmt(variable, list);
+        frame.eachStmt.setLine(each.getLine());
+        return frame;
+    }
+
+    // add, merge and delete; merge has no AST node in the grammar and yields null
+    private Statement setStatement() {
+        Expression setArg = expression();
+        expect(DOT);
+        Token operation = consume();
+        expect(LPAR);
+        Expression elementArg = orExpression();
+        Statement statement;
+        switch (operation.getType()) {
+            case ADD:
+                statement = new SetAdd(setArg, elementArg);
+                break;
+            case DELETE:
+                statement = new SetDelete(setArg, elementArg);
+                break;
+            case MERGE:
+                while (la(1) == COMMA) {
+                    consume();
+                    orExpression();
+                }
+                expect(RPAR);
+                return null;
+            default:
+                throw MISMATCH;
+        }
+        expect(RPAR);
+        statement.setLine(operation.getLine());
+        return statement;
+    }
+
+    // "(e)" followed by a body matches both alternatives; the grammar takes the first one
+    private Expression condition() {
+        if (la(1) == LPAR) {
+            int start = tokens.index();
+            int marker = tokens.mark();
+            try {
+                consume();
+                Expression condition = expression();
+                expect(RPAR);
+                if (la(1) == LBRACE || la(1) == NEWLINE) {
+                    tokens.release(marker);
+                    return condition;
+                }
+            } catch (Mismatch ignored) {
+            }
+            tokens.seek(start);
+            tokens.release(marker);
+        }
+        return expression();
+    }
+
+    private PrintStmt printStatement() {
+        Token print = expect(PRINT);
+        expect(LPAR);
+        PrintStmt printStmt = new PrintStmt(expression());
+        expect(RPAR);
+        printStmt.setLine(print.getLine());
+        return printStmt;
+    }
+
+    private ReturnStmt returnStatement() {
+        ReturnStmt returnStmt = new ReturnStmt();
+        Token r = expect(RETURN);
+        returnStmt.setLine(r.getLine());
+        if (startsExpression(la(1)))
+            returnStmt.setReturnedExpr(expression());
+        return returnStmt;
+    }
+
+    private ArrayList<Expression> methodArgs() {
+        ArrayList<Expression> args = new ArrayList<>();
+        if (!startsExpression(la(1)))
+            return args;
+        args.add(expression());
+        while (la(1) == COMMA) {
+            consume();
+            args.add(expression());
+        }
+        return args;
+    }
+
+    // A rule whose parse waits on the nested expressions in it. Expressions nest through these
+    // frames on a heap stack instead of Java calls, so the depth of a program is not limited by
+    // the thread stack. begin and resume return the next nested rule to parse, or null once the
+    // frame's own result is set.
+    private abstract static class Frame {
+        Expression result;
+
+        abstract Frame begin();
+
+        abstract Frame resume(Expression nested);
+    }
+
+    private Expression parse(Frame root) {
+        Stack<Frame> frames = new Stack<>();
+        frames.push(root);
+        Frame next = root.begin();
+        while (true) {
+            if (next != null) {
+                frames.push(next);
+                next = next.begin();
+                continue;
+            }
+            Frame done = frames.pop();
+            Frame outer = frames.peek();
+            if (outer == null)
+                return done.result;
+            next = outer.resume(done.result);
+        }
+    }
+
+    private Expression expression() {
+        return parse(new ExpressionRule());
+    }
+
+    private Expression orExpression() {
+        return parse(new BinaryRule(1));
+    }
+
+    private Expression accessExpression() {
+        return parse(new UnaryRule(true));
+    }
+
+    // "a = b = c" and chains of ternaries or prefix operators are gathered in loops and built
+    // from the inside out
+    private class ExpressionRule extends Frame {
+        private Expression expression;
+        private ArrayList<Expression> targets;
+        private ArrayList<Token> assigns;
+        // the assignments not yet built, or -1 while they are being gathered
+        private int left = -1;
+        private Token include;
+
+        @Override
+        Frame begin() {
+            return new TernaryRule();
+        }
+
+        @Override
+        Frame resume(Expression nested) {
+            if (include != null) {
+                expression = new SetInclude(expression, nested);
+                expect(RPAR);
+                expression.setLine(include.getLine());
+                include = null;
+                return build(false);
+            }
+            expression = nested;
+            if (la(1) == ASSIGN) {
+                if (targets == null) {
+                    targets = new ArrayList<>();
+                    assigns = new ArrayList<>();
+                }
+                targets.add(expression);
+                assigns.add(consume());
+                return new TernaryRule();
+            }
+            left = targets == null ? 0 : targets.size();
+            return build(true);
+        }
+
+        private Frame build(boolean includeAllowed) {
+            while (true) {
+                if (includeAllowed && la(1) == DOT && la(2) == INCLUDE) {
+                    consume();
+                    include = consume();
+                    expect(LPAR);
+                    return new BinaryRule(1);
+                }
+                if (left == 0) {
+                    result = expression;
+                    return null;
+                }
+                expression = new BinaryExpression(targets.get(left - 1), expression, BinaryOperator.assign);
+                expression.setLine(assigns.get(left - 1).getLine());
+                left--;
+                includeAllowed = true;
+            }
+        }
+    }
+
+    private class TernaryRule extends Frame {
+        private ArrayList<Expression> conditions;
+        private ArrayList<Expression> trueExpressions;
+        private ArrayList<Token> tifs;
+        private boolean inTrueExpression;
+
+        @Override
+        Frame begin() {
+            return new BinaryRule(1);
+        }
+
+        @Override
+        Frame resume(Expression nested) {
+            if (inTrueExpression) {
+                trueExpressions.add(nested);
+                expect(TELSE);
+                inTrueExpression = false;
+                return new BinaryRule(1);
+            }
+            if (la(1) == TIF) {
+                if (conditions == null) {
+                    conditions = new ArrayList<>();
+                    trueExpressions = new ArrayList<>();
+                    tifs = new ArrayList<>();
+                }
+                tifs.add(consume());
+                conditions.add(nested);
+                inTrueExpression = true;
+                return new TernaryRule();
+            }
+            Expression ternary = nested;
+            for (int i = conditions == null ? -1 : conditions.size() - 1; i >= 0; i--) {
+                ternary = new TernaryExpression(conditions.get(i), trueExpressions.get(i), ternary);
+                ternary.setLine(tifs.get(i).getLine());
+            }
+            result = ternary;
+            return null;
+        }
+    }
+
+    // every binary level of the grammar is a left-associative loop, so one climbing loop covers them all
+    private class BinaryRule extends Frame {
+        private final int minPrecedence;
+        private Expression left;
+        private Token operator;
+
+        BinaryRule(int minPrecedence) {
+            this.minPrecedence = minPrecedence;
+        }
+
+        @Override
+        Frame begin() {
+            return new UnaryRule(false);
+        }
+
+        @Override
+        Frame resume(Expression nested) {
+            if (operator == null) {
+                left = nested;
+            } else {
+                left = new BinaryExpression(left, nested, BINARY_OPERATORS[operator.getType()]);
+                left.setLine(operator.getLine());
+            }
+            int t = la(1);
+            int precedence = t > 0 && t < PRECEDENCE.length ? PRECEDENCE[t] : 0;
+            if (precedence < minPrecedence) {
+                result = left;
+                return null;
+            }
+            operator = consume();
+            return new BinaryRule(precedence + 1);
+        }
+    }
+
+    // Prefix operators, then calls, member accesses, "new" and "initialize", then member accesses
+    // and indexing only, then a postfix operator. An access expression alone has no operators.
+    private class UnaryRule extends Frame {
+        private final boolean accessOnly;
+        private ArrayList<Token> operators;
+        private ClassType classType;
+        private Expression access;
+        // what the nested expression is: one of the int constants below
+        private int nested;
+        private Token open;
+        private ArrayList<Expression> arguments;
+        private int callStart;
+
+        private static final int PARENTHESIZED = 0;
+        private static final int SET_ARGUMENT = 1;
+        private static final int CALL_ARGUMENT = 2;
+        private static final int INDEX = 3;
+
+        UnaryRule(boolean accessOnly) {
+            this.accessOnly = accessOnly;
+        }
+
+        @Override
+        Frame begin() {
+            if (!accessOnly) {
+                while (la(1) == NOT || la(1) == MINUS) {
+                    if (operators == null)
+                        operators = new ArrayList<>();
+                    operators.add(consume());
+                }
+            }
+            if (la(1) == CLASS_IDENTIFIER) {
+                Identifier classId = classIdentifier();
+                classType = typeFactory.classType(classId);
+                access = classId;
+                beforeLastCall = null;
+                return calls();
+            }
+            Token token = tokens.LT(1);
+            switch (token.getType()) {
+                case TRUE:
+                case FALSE:
+                    consume();
+                    access = new BoolValue(token.getType() == TRUE);
+                    access.setLine(token.getLine());
+                    break;
+                case INT_VALUE:
+                    consume();
+                    access = new IntValue(intConstant(token));
+                    access.setLine(token.getLine());
+                    break;
+                case IDENTIFIER:
+                    access = identifier();
+                    break;
+                case SET:
+                    open = expect(SET);
+                    expect(DOT);
+                    expect(NEW);
+                    expect(LPAR);
+                    arguments = new ArrayList<>();
+                    if (la(1) != LPAR)
+                        return endSetNew();
+                    consume();
+                    nested = SET_ARGUMENT;
+                    return new BinaryRule(1);
+                case LPAR:
+                    open = consume();
+                    nested = PARENTHESIZED;
+                    return new ExpressionRule();
+                case SELF:
+                    consume();
+                    access = new SelfClass();
+                    access.setLine(token.getLine());
+                    break;
+                default:
+                    throw MISMATCH;
+            }
+            beforeLastCall = null;
+            return calls();
+        }
+
+        @Override
+        Frame resume(Expression expression) {
+            switch (nested) {
+                case PARENTHESIZED:
+                    expect(RPAR);
+                    expression.setLine(open.getLine());
+                    access = expression;
+                    beforeLastCall = null;
+                    return calls();
+                case SET_ARGUMENT:
+                    arguments.add(expression);
+                    if (la(1) == COMMA) {
+                        consume();
+                        return new BinaryRule(1);
+                    }
+                    expect(RPAR);
+                    return endSetNew();
+                case CALL_ARGUMENT:
+                    arguments.add(expression);
+                    if (la(1) == COMMA) {
+                        consume();
+                        return new ExpressionRule();
+                    }
+                    endCall();
+                    return calls();
+                default:
+                    expect(RBRACK);
+                    access = new ArrayAccessByIndex(access, expression);
+                    access.setLine(open.getLine());
+                    beforeLastCall = null;
+                    return indexes();
+            }
+        }
+
+        private Frame endSetNew() {
+            expect(RPAR);
+            access = new SetNew(arguments);
+            access.setLine(open.getLine());
+            beforeLastCall = null;
+            return calls();
+        }
+
+        private Frame calls() {
+            while (true) {
+                if (la(1) == LPAR) {
+                    callStart = tokens.index();
+                    open = consume();
+                    arguments = new ArrayList<>();
+                    if (startsExpression(la(1))) {
+                        nested = CALL_ARGUMENT;
+                        return new ExpressionRule();
+                    }
+                    endCall();
+                    continue;
+                }
+                if (la(1) != DOT)
+                    break;
+                int member = la(2);
+                if (member == IDENTIFIER) {
+                    Token dot = consume();
+                    access = new ObjectMemberAccess(access, identifier());
+                    access.setLine(dot.getLine());
+                } else if (member == NEW) {
+                    consume();
+                    Token n = consume();
+                    access = new NewClassInstance(classType);
+                    access.setLine(n.getLine());
+                } else if (member == INITIALIZE) {
+                    consume();
+                    Token init = consume();
+                    Identifier id = new Identifier(names.intern(init.getText()));
+                    id.setLine(init.getLine());
+                    access = new ObjectMemberAccess(access, id);
+                    access.setLine(init.getLine());
+                } else {
+                    break;
+                }
+                beforeLastCall = null;
+            }
+            return indexes();
+        }
+
+        // the last call so far, for methodCallStmt to give back
+        private void endCall() {
+            expect(RPAR);
+            Expression call = new MethodCall(access, arguments);
+            call.setLine(open.getLine());
+            lastCallStart = callStart;
+            beforeLastCall = access;
+            access = call;
+        }
+
+        private Frame indexes() {
+            while (true) {
+                if (la(1) == DOT && la(2) == IDENTIFIER) {
+                    Token dot = consume();
+                    access = new ObjectMemberAccess(access, identifier());
+                    access.setLine(dot.getLine());
+                } else if (la(1) == LBRACK) {
+                    open = consume();
+                    nested = INDEX;
+                    return new ExpressionRule();
+                } else {
+                    break;
+                }
+                beforeLastCall = null;
+            }
+            Expression unary = access;
+            int t = la(1);
+            if (!accessOnly && (t == INC || t == DEC)) {
+                Token operator = consume();
+                unary = new UnaryExpression(access, t == INC ? UnaryOperator.postinc : UnaryOperator.postdec);
+                unary.setLine(operator.getLine());
+            }
+            for (int i = operators == null ? -1 : operators.size() - 1; i >= 0; i--) {
+                Token operator = operators.get(i);
+                unary = new UnaryExpression(unary, operator.getType() == NOT ? UnaryOperator.not : UnaryOperator.minus);
+                unary.setLine(operator.getLine());
+            }
+            result = unary;
+            return null;
+        }
+    }
+
+    private Type type() {
+        return type(new ArrayList<>());
+    }
+
+    // the sizes of an array type are added to dimensions
+    private Type type(ArrayList<Expression> dimensions) {
+        switch (la(1)) {
+            case INT:
+                consume();
+                return la(1) == LBRACK ? arrayType(typeFactory.intType(), dimensions) : typeFactory.intType();
+            case BOOL:
+                consume();
+                return la(1) == LBRACK ? arrayType(typeFactory.boolType(), dimensions) : typeFactory.boolType();
+            case CLASS_IDENTIFIER: {
+                Identifier classId = classIdentifier();
+                return la(1) == LBRACK ? arrayType(typeFactory.classType(classId), dimensions) : typeFactory.classType(classId);
+            }
+            case FPTR:
+                return fptrType();
+            case SET:
+                consume();
+                expect(LESS_THAN);
+                expect(INT);
+                expect(GREATER_THAN);
+                return typeFactory.setType();
+            default:
+                throw MISMATCH;
+        }
+    }
+
+    private ArrayType arrayType(Type elementType, ArrayList<Expression> dimensions) {
+        do {
+            expect(LBRACK);
+            dimensions.add(expression());
+            expect(RBRACK);
+        } while (la(1) == LBRACK);
+        return typeFactory.arrayType(elementType, dimensions);
+    }
+
+    private FptrType fptrType() {
+        expect(FPTR);
+        expect(LESS_THAN);
+        ArrayList<Type> argumentTypes = new ArrayList<>();
+        if (la(1) == VOID) {
+            consume();
+        } else {
+            argumentTypes.add(type());
+            while (la(1) == COMMA) {
+                consume();
+                argumentTypes.add(type());
+            }
+        }
+        expect(ARROW);
+        Type returnType;
+        if (la(1) == VOID) {
+            consume();
+            returnType = typeFactory.voidType();
+        } else {
+            returnType = type();
+        }
+        expect(GREATER_THAN);
+        return typeFactory.fptrType(argumentTypes, returnType);
+    }
+
+    private Identifier classIdentifier() {
+        Token c = expect(CLASS_IDENTIFIER);
+        Identifier classId = new Identifier(names.intern(c.getText()));
+        classId.setLine(c.getLine());
+        return classId;
+    }
+
+    private Identifier identifier() {
+        Token token = expect(IDENTIFIER);
+        Identifier id = new Identifier(names.intern(token.getText()));
+        id.setLine(token.getLine());
+        return id;
+    }
+
+    private static boolean startsType(int t) {
+        return t == INT || t == BOOL || t == FPTR || t == SET || t == CLASS_IDENTIFIER;
+    }
+
+    private static boolean endsStatement(int t) {
+        return t == NEWLINE || t == ELSIF || t == ELSE;
+    }
+
+    private static boolean startsExpression(int t) {
+        switch (t) {
+            case NOT:
+            case MINUS:
+            case CLASS_IDENTIFIER:
+            case TRUE:
+            case FALSE:
+            case INT_VALUE:
+            case IDENTIFIER:
+            case SET:
+            case LPAR:
+            case SELF:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // NEWLINE+
+    private void newlines() {
+        expect(NEWLINE);
+        skipNewlines();
+    }
+
+    // NEWLINE*
+    private void skipNewlines() {
+        while (la(1) == NEWLINE)
+            tokens.consume();
+    }
+
+    private int nextAfterNewlines() {
+        int i = 1;
+        while (la(i) == NEWLINE)
+            i++;
+        return la(i);
+    }
+
+    private int la(int i) {
+        return tokens.LA(i);
+    }
+
+    private Token consume() {
+        Token token = tokens.LT(1);
+        tokens.consume();
+        return token;
+    }
+
+    private Token expect(int type) {
+        Token token = tokens.LT(1);
+        if (token.getType() != type)
+            throw MISMATCH;
+        if (type != Token.EOF)
+            tokens.consume();
+        return token;
+    }
+}
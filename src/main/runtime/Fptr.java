@@ -0,0 +1,51 @@
+package main.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Value of an fptr in classes made by the JVM backend: a method bound to its object.
+public class Fptr {
+    // unbound handles by method name, per declaring class
+    private static class Handles extends ClassValue<Map<String, MethodHandle>> {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> owner) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+
+    private static final Handles handles = new Handles();
+
+    private final MethodHandle method;
+
+    // The method is looked up in the class that declares it. A static one takes the object as
+    // its first argument, as constructors do.
+    public Fptr(Object receiver, Class<?> owner, String name, String descriptor, boolean isStatic) {
+        Objects.requireNonNull(receiver);
+        this.method = lookup(owner, name, descriptor, isStatic).bindTo(receiver);
+    }
+
+    private static MethodHandle lookup(Class<?> owner, String name, String descriptor, boolean isStatic) {
+        Map<String, MethodHandle> ownerHandles = handles.get(owner);
+        MethodHandle handle = ownerHandles.get(name);
+        if (handle != null)
+            return handle;
+        MethodType type = MethodType.fromMethodDescriptorString(descriptor, owner.getClassLoader());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            handle = isStatic ? lookup.findStatic(owner, name, type) : lookup.findVirtual(owner, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        ownerHandles.put(name, handle);
+        return handle;
+    }
+
+    // ints and bools are boxed; the result is null for a void method
+    public Object call(Object[] args) throws Throwable {
+        return method.invokeWithArguments(args);
+    }
+}
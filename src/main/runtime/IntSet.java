@@ -0,0 +1,273 @@
+package main.runtime;
+
+import java.util.Arrays;
+
+// Runtime value of a Set<int>. Iteration and printing go in ascending order.
+// Elements are kept unboxed: a sparse set in an open addressing table with linear probing, where
+// 0 marks a free slot and the element 0 is a flag of its own, and a dense one in a bitmap over the
+// range it covers. A set starts out as a table and becomes a bitmap when the table has to grow
+// while its elements span few bits per element; a bitmap that would have to cover too many bits
+// per element becomes a table again.
+public class IntSet {
+    private static final int INITIAL_CAPACITY = 8;
+    // the most bits per element for a table to become a bitmap, and for a bitmap to stay one
+    private static final int DENSE_BITS = 32;
+    private static final int SPARSE_BITS = 128;
+
+    private int size;
+    // table representation; null while the set is a bitmap
+    private int[] table = new int[INITIAL_CAPACITY];
+    private int shift = 32 - 3;
+    private boolean hasZero;
+    // bitmap representation, bit i standing for base + i
+    private long[] words;
+    private long base;
+    // the sorted elements, until the set changes
+    private int[] sorted;
+
+    public void add(int element) {
+        if (words != null) {
+            long offset = element - base;
+            if (offset < 0 || offset >= 64L * words.length) {
+                cover(element);
+                if (table != null) {
+                    add(element);
+                    return;
+                }
+                offset = element - base;
+            }
+            long bit = 1L << offset;
+            int index = (int) (offset >>> 6);
+            if ((words[index] & bit) == 0) {
+                words[index] |= bit;
+                size++;
+                sorted = null;
+            }
+            return;
+        }
+        if (element == 0) {
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+                sorted = null;
+            }
+            return;
+        }
+        int mask = table.length - 1;
+        int i = slot(element);
+        while (table[i] != 0) {
+            if (table[i] == element)
+                return;
+            i = (i + 1) & mask;
+        }
+        table[i] = element;
+        size++;
+        sorted = null;
+        if (2 * size > table.length)
+            grow();
+    }
+
+    // deleting an element that is not there does nothing
+    public void delete(int element) {
+        if (words != null) {
+            long offset = element - base;
+            if (offset < 0 || offset >= 64L * words.length)
+                return;
+            long bit = 1L << offset;
+            int index = (int) (offset >>> 6);
+            if ((words[index] & bit) != 0) {
+                words[index] &= ~bit;
+                size--;
+                sorted = null;
+            }
+            return;
+        }
+        if (element == 0) {
+            if (hasZero) {
+                hasZero = false;
+                size--;
+                sorted = null;
+            }
+            return;
+        }
+        int mask = table.length - 1;
+        int i = slot(element);
+        while (table[i] != element) {
+            if (table[i] == 0)
+                return;
+            i = (i + 1) & mask;
+        }
+        // moves back the elements after it that could not take their own slot, so that no probe
+        // stops early
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            if (((j - slot(table[j])) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+        size--;
+        sorted = null;
+    }
+
+    public boolean include(int element) {
+        if (words != null) {
+            long offset = element - base;
+            return offset >= 0 && offset < 64L * words.length && (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+        }
+        if (element == 0)
+            return hasZero;
+        int mask = table.length - 1;
+        for (int i = slot(element); table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == element)
+                return true;
+        }
+        return false;
+    }
+
+    public void merge(IntSet other) {
+        if (other == this)
+            return;
+        if (other.words != null) {
+            for (int index = 0; index < other.words.length; index++) {
+                for (long word = other.words[index]; word != 0; word &= word - 1)
+                    add((int) (other.base + 64L * index + Long.numberOfTrailingZeros(word)));
+            }
+            return;
+        }
+        if (other.hasZero)
+            add(0);
+        for (int element : other.table) {
+            if (element != 0)
+                add(element);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // The elements in ascending order, as they are when called; changing the set later does not
+    // change the array. The same array is returned until the set changes, so it must not be written.
+    public int[] elements() {
+        if (sorted != null)
+            return sorted;
+        int[] array = new int[size];
+        int i = 0;
+        if (words != null) {
+            for (int index = 0; index < words.length; index++) {
+                for (long word = words[index]; word != 0; word &= word - 1)
+                    array[i++] = (int) (base + 64L * index + Long.numberOfTrailingZeros(word));
+            }
+        } else {
+            if (hasZero)
+                array[i++] = 0;
+            for (int element : table) {
+                if (element != 0)
+                    array[i++] = element;
+            }
+            Arrays.sort(array);
+        }
+        sorted = array;
+        return array;
+    }
+
+    // {1, 2, 3}
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int element : elements()) {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(element);
+        }
+        return builder.append('}').toString();
+    }
+
+    private int slot(int element) {
+        return (element * 0x9E3779B9) >>> shift;
+    }
+
+    // the table is half full: it doubles, or the set becomes a bitmap when it is dense
+    private void grow() {
+        int[] old = table;
+        long min = hasZero ? 0 : Long.MAX_VALUE;
+        long max = hasZero ? 0 : Long.MIN_VALUE;
+        for (int element : old) {
+            if (element != 0) {
+                min = Math.min(min, element);
+                max = Math.max(max, element);
+            }
+        }
+        if (max - min + 1 <= (long) DENSE_BITS * size) {
+            toBitmap(min, max);
+            return;
+        }
+        table = new int[2 * old.length];
+        shift--;
+        int mask = table.length - 1;
+        for (int element : old) {
+            if (element == 0)
+                continue;
+            int i = slot(element);
+            while (table[i] != 0)
+                i = (i + 1) & mask;
+            table[i] = element;
+        }
+    }
+
+    private void toBitmap(long min, long max) {
+        int[] old = table;
+        base = Math.floorDiv(min, 64) * 64;
+        words = new long[(int) ((max - base) / 64 + 1)];
+        for (int element : old) {
+            if (element != 0)
+                setBit(element);
+        }
+        if (hasZero)
+            setBit(0);
+        table = null;
+        hasZero = false;
+    }
+
+    private void setBit(long element) {
+        long offset = element - base;
+        words[(int) (offset >>> 6)] |= 1L << offset;
+    }
+
+    // makes the bitmap cover element, with room to grow on that side, or makes the set a table
+    // when the bitmap would be sparse
+    private void cover(int element) {
+        long end = base + 64L * words.length;
+        long word = Math.floorDiv((long) element, 64) * 64;
+        long low = Math.min(base, word);
+        long high = Math.max(end, word + 64);
+        if (high - low > (long) SPARSE_BITS * (size + 1)) {
+            toTable();
+            return;
+        }
+        long span = high - low;
+        if (low < base)
+            low = Math.max(Integer.MIN_VALUE, Math.min(low, end - 2 * span));
+        else
+            high = Math.max(high, base + 2 * span);
+        long[] grown = new long[(int) ((high - low) / 64)];
+        System.arraycopy(words, 0, grown, (int) ((base - low) / 64), words.length);
+        words = grown;
+        base = low;
+    }
+
+    private void toTable() {
+        int[] elements = elements();
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 4 * (elements.length + 1))
+            capacity *= 2;
+        words = null;
+        table = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+        for (int element : elements)
+            add(element);
+        sorted = elements;
+    }
+}
@@ -0,0 +1,29 @@
+package main.runtime;
+
+// An error that stops a running program, at the source line where it happened (0 when unknown).
+// Every backend reports the same message for the same error.
+public class RuntimeError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public static final String NULL_REFERENCE = "null reference";
+    public static final String INDEX_OUT_OF_BOUNDS = "array index out of bounds";
+    public static final String NEGATIVE_ARRAY_SIZE = "negative array size";
+    public static final String DIVISION_BY_ZERO = "division by zero";
+    public static final String STACK_OVERFLOW = "stack overflow";
+
+    private final int line;
+
+    public RuntimeError(int line, String message) {
+        super(message, null, false, false);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    // "Line 3: division by zero" like a compile error
+    public String getReport() {
+        return line > 0 ? "Line " + line + ": " + getMessage() : getMessage();
+    }
+}
@@ -0,0 +1,50 @@
+package main.symbolTable;
+
+import main.ast.names.Name;
+import main.symbolTable.items.SymbolKind;
+import main.symbolTable.items.SymbolTableItem;
+
+import java.util.Map;
+
+// One map per SymbolKind, keyed by Name; a kind without items has null.
+class Namespaces {
+    private Map<Name, SymbolTableItem> classes;
+    private Map<Name, SymbolTableItem> methods;
+    private Map<Name, SymbolTableItem> fields;
+    private Map<Name, SymbolTableItem> localVars;
+    private Map<Name, SymbolTableItem> globalVars;
+
+    Map<Name, SymbolTableItem> get(SymbolKind kind) {
+        switch (kind) {
+            case classDec:
+                return classes;
+            case methodDec:
+                return methods;
+            case fieldDec:
+                return fields;
+            case localVarDec:
+                return localVars;
+            default:
+                return globalVars;
+        }
+    }
+
+    void set(SymbolKind kind, Map<Name, SymbolTableItem> items) {
+        switch (kind) {
+            case classDec:
+                classes = items;
+                break;
+            case methodDec:
+                methods = items;
+                break;
+            case fieldDec:
+                fields = items;
+                break;
+            case localVarDec:
+                localVars = items;
+                break;
+            default:
+                globalVars = items;
+        }
+    }
+}
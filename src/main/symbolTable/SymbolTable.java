@@ -1,40 +1,22 @@
 package main.symbolTable;
 
 
+import main.ast.names.Name;
 import main.symbolTable.exceptions.ItemAlreadyExistsException;
-import main.symbolTable.exceptions.ItemNotFoundException;
-import main.symbolTable.items.SymbolTableItem;
-import main.symbolTable.utils.stack.Stack;
+import main.symbolTable.items.*;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 
 
 public class SymbolTable {
 
-    //Start of static members
-
-    public static SymbolTable top;
-    public static SymbolTable root;
-    private static Stack<SymbolTable> stack = new Stack<>();
-
-    public static void push(SymbolTable symbolTable) {
-        if (top != null)
-            stack.push(top);
-        top = symbolTable;
-    }
-
-    public static void pop() {
-        top = stack.pop();
-    }
-
-    //End of static members
-
     public SymbolTable pre;
-    private Map<String, SymbolTableItem> items;
+    // maps are created on first put
+    private final Namespaces namespaces = new Namespaces();
+    // methods and fields reachable through pre, nearest first; filled in for class tables once they are linked
+    private Namespaces inheritedMembers;
 
     public SymbolTable() {
         this(null);
@@ -42,30 +24,127 @@ public class SymbolTable {
 
     public SymbolTable(SymbolTable pre) {
         this.pre = pre;
-        this.items = new HashMap<>();
     }
 
     public void put(SymbolTableItem item) throws ItemAlreadyExistsException {
-        if (items.containsKey(item.getKey()))
+        if (!tryPut(item))
             throw new ItemAlreadyExistsException();
-        items.put(item.getKey(), item);
     }
 
-    public SymbolTableItem getItem(String key, boolean searchInCurST) throws ItemNotFoundException {
-        Set<SymbolTable> visitedSymbolTables = new HashSet<>();
-        SymbolTable currentSymbolTable = this;
-        if (!searchInCurST) {
-            visitedSymbolTables.add(this);
-            currentSymbolTable = this.pre;
+    // returns false instead of throwing when the name is already taken in the item's namespace
+    public boolean tryPut(SymbolTableItem item) {
+        Map<Name, SymbolTableItem> items = namespaces.get(item.getKind());
+        if (items == null) {
+            items = new HashMap<>();
+            namespaces.set(item.getKind(), items);
         }
-        while((currentSymbolTable != null) && (!visitedSymbolTables.contains(currentSymbolTable))) {
-            visitedSymbolTables.add( currentSymbolTable );
-            SymbolTableItem symbolTableItem = currentSymbolTable.items.get(key);
-            if( symbolTableItem != null )
-                return symbolTableItem;
+        return items.putIfAbsent(item.getSymbol(), item) == null;
+    }
+
+    public ClassSymbolTableItem lookupClass(Name name) {
+        return (ClassSymbolTableItem) lookup(SymbolKind.classDec, name, true);
+    }
+
+    public MethodSymbolTableItem lookupMethod(Name name, boolean searchInCurST) {
+        return (MethodSymbolTableItem) lookup(SymbolKind.methodDec, name, searchInCurST);
+    }
+
+    public FieldSymbolTableItem lookupField(Name name, boolean searchInCurST) {
+        return (FieldSymbolTableItem) lookup(SymbolKind.fieldDec, name, searchInCurST);
+    }
+
+    public LocalVariableSymbolTableItem lookupLocalVar(Name name, boolean searchInCurST) {
+        return (LocalVariableSymbolTableItem) lookup(SymbolKind.localVarDec, name, searchInCurST);
+    }
+
+    public GlobalVariableSymbolTableItem lookupGlobalVar(Name name, boolean searchInCurST) {
+        return (GlobalVariableSymbolTableItem) lookup(SymbolKind.globalVarDec, name, searchInCurST);
+    }
+
+    // Searches this table (when searchInCurST) and then the pre chain, returning null when nothing is found.
+    // The pre chain may loop (classes in an inheritance cycle), so the walk stops when it
+    // gets back to this table and otherwise uses Brent's cycle detection instead of a visited set.
+    public SymbolTableItem lookup(SymbolKind kind, Name name, boolean searchInCurST) {
+        boolean isMember = isMemberKind(kind);
+        if (!searchInCurST && isMember && inheritedMembers != null)
+            return get(inheritedMembers.get(kind), name);
+        SymbolTable currentSymbolTable = searchInCurST ? this : this.pre;
+        SymbolTable mark = currentSymbolTable;
+        int power = 1;
+        int steps = 0;
+        while (currentSymbolTable != null) {
+            Map<Name, SymbolTableItem> items = currentSymbolTable.namespaces.get(kind);
+            if (items != null) {
+                SymbolTableItem symbolTableItem = items.get(name);
+                if (symbolTableItem != null)
+                    return symbolTableItem;
+            }
+            if (isMember && currentSymbolTable.inheritedMembers != null)
+                return get(currentSymbolTable.inheritedMembers.get(kind), name);
             currentSymbolTable = currentSymbolTable.pre;
+            if (currentSymbolTable == this || currentSymbolTable == mark)
+                return null;
+            if (++steps == power) {
+                mark = currentSymbolTable;
+                power <<= 1;
+                steps = 0;
+            }
+        }
+        return null;
+    }
+
+    private static SymbolTableItem get(Map<Name, SymbolTableItem> items, Name name) {
+        return items == null ? null : items.get(name);
+    }
+
+    private static boolean isMemberKind(SymbolKind kind) {
+        return kind == SymbolKind.methodDec || kind == SymbolKind.fieldDec;
+    }
+
+    public boolean hasFlattenedMembers() {
+        return inheritedMembers != null;
+    }
+
+    // Flattens members when this table is not on an inheritance cycle. pre must already be flattened,
+    // or be a table without ancestors (such as the root), because its inherited members are reused.
+    // Maps are shared with pre whenever one side adds nothing, so tables must not change afterwards.
+    public void inheritMembersFromPre() {
+        Namespaces inherited = new Namespaces();
+        if (pre != null) {
+            for (SymbolKind kind : SymbolKind.values()) {
+                if (!isMemberKind(kind))
+                    continue;
+                Map<Name, SymbolTableItem> preItems = pre.namespaces.get(kind);
+                Map<Name, SymbolTableItem> preInherited = pre.inheritedMembers == null ? null : pre.inheritedMembers.get(kind);
+                if (preItems == null || preItems.isEmpty()) {
+                    inherited.set(kind, preInherited);
+                } else if (preInherited == null || preInherited.isEmpty()) {
+                    inherited.set(kind, preItems);
+                } else {
+                    Map<Name, SymbolTableItem> merged = new HashMap<>(preInherited);
+                    merged.putAll(preItems);
+                    inherited.set(kind, merged);
+                }
+            }
+        }
+        inheritedMembers = inherited;
+    }
+
+    // Flattens members of a table on an inheritance cycle by walking pre until it comes back here,
+    // which matches what lookup would have found without flattening.
+    public void inheritMembersAlongCycle() {
+        Namespaces inherited = new Namespaces();
+        for (SymbolKind kind : SymbolKind.values()) {
+            if (!isMemberKind(kind))
+                continue;
+            Map<Name, SymbolTableItem> merged = new HashMap<>();
+            for (SymbolTable table = pre; table != null && table != this; table = table.pre)
+                if (table.namespaces.get(kind) != null)
+                    for (Map.Entry<Name, SymbolTableItem> entry : table.namespaces.get(kind).entrySet())
+                        merged.putIfAbsent(entry.getKey(), entry.getValue());
+            inherited.set(kind, merged);
         }
-        throw new ItemNotFoundException();
+        inheritedMembers = inherited;
     }
 
 }
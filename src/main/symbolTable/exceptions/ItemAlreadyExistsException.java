@@ -1,4 +1,8 @@
 package main.symbolTable.exceptions;
 
+// thrown on ordinary redefinitions, so no stack trace is filled in
 public class ItemAlreadyExistsException extends Exception {
+    public ItemAlreadyExistsException() {
+        super(null, null, false, false);
+    }
 }
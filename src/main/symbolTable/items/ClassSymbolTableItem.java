@@ -4,14 +4,19 @@ package main.symbolTable.items;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.symbolTable.SymbolTable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ClassSymbolTableItem extends SymbolTableItem {
-    public static final String START_KEY = "Class_";
     private SymbolTable classSymbolTable;
     private ClassDeclaration classDeclaration;
+    // set by the Binder: every field of an object by offset, and the constructor, inherited or not
+    private List<FieldSymbolTableItem> layout = new ArrayList<>();
+    private MethodSymbolTableItem constructor;
 
     public ClassSymbolTableItem(ClassDeclaration classDeclaration) {
         this.classDeclaration = classDeclaration;
-        this.name = classDeclaration.getClassName().getName();
+        this.name = classDeclaration.getClassName().getSymbol();
     }
 
     public SymbolTable getClassSymbolTable() {
@@ -30,8 +35,24 @@ public class ClassSymbolTableItem extends SymbolTableItem {
         this.classDeclaration = classDeclaration;
     }
 
+    public List<FieldSymbolTableItem> getLayout() {
+        return layout;
+    }
+
+    public void setLayout(List<FieldSymbolTableItem> layout) {
+        this.layout = layout;
+    }
+
+    public MethodSymbolTableItem getConstructor() {
+        return constructor;
+    }
+
+    public void setConstructor(MethodSymbolTableItem constructor) {
+        this.constructor = constructor;
+    }
+
     @Override
-    public String getKey() {
-        return START_KEY + this.name;
+    public SymbolKind getKind() {
+        return SymbolKind.classDec;
     }
 }
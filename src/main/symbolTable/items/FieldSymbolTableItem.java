@@ -5,16 +5,28 @@ import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
 import main.ast.types.Type;
 
 public class FieldSymbolTableItem extends SymbolTableItem {
-    public static String START_KEY = "Field_";
+    private FieldDeclaration fieldDeclaration;
     protected Type type;
+    // place in an object, after the fields of the parent classes; set by the Binder
+    private int offset = -1;
 
     public FieldSymbolTableItem(FieldDeclaration fieldDeclaration) {
-        this.name = fieldDeclaration.getVarDeclaration().getVarName().getName();
+        this.fieldDeclaration = fieldDeclaration;
+        this.name = fieldDeclaration.getVarDeclaration().getVarName().getSymbol();
         this.type = fieldDeclaration.getVarDeclaration().getType();
     }
 
-    public String getKey() {
-        return START_KEY + this.name;
+    @Override
+    public SymbolKind getKind() {
+        return SymbolKind.fieldDec;
+    }
+
+    public FieldDeclaration getFieldDeclaration() {
+        return fieldDeclaration;
+    }
+
+    public void setFieldDeclaration(FieldDeclaration fieldDeclaration) {
+        this.fieldDeclaration = fieldDeclaration;
     }
 
     public Type getType() {
@@ -25,4 +37,12 @@ public class FieldSymbolTableItem extends SymbolTableItem {
         this.type = type;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
 }
@@ -5,16 +5,18 @@ import main.ast.nodes.declaration.variableDec.VariableDeclaration;
 import main.ast.types.Type;
 
 public class GlobalVariableSymbolTableItem extends SymbolTableItem {
-    public static String START_KEY = "GlobalVar_";
     protected Type type;
+    // place among the globals, in declaration order; set by the Binder
+    private int index = -1;
 
     public GlobalVariableSymbolTableItem(VariableDeclaration varDeclaration) {
-        this.name = varDeclaration.getVarName().getName();
+        this.name = varDeclaration.getVarName().getSymbol();
         this.type = varDeclaration.getType();
     }
 
-    public String getKey() {
-        return START_KEY + this.name;
+    @Override
+    public SymbolKind getKind() {
+        return SymbolKind.globalVarDec;
     }
 
     public Type getType() {
@@ -25,4 +27,12 @@ public class GlobalVariableSymbolTableItem extends SymbolTableItem {
         this.type = type;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
 }
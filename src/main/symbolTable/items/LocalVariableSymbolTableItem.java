@@ -5,16 +5,18 @@ import main.ast.nodes.declaration.variableDec.VariableDeclaration;
 import main.ast.types.Type;
 
 public class LocalVariableSymbolTableItem extends SymbolTableItem {
-    public static String START_KEY = "Var_";
     protected Type type;
+    // place in the method's frame, arguments first; set by the Binder
+    private int slot = -1;
 
     public LocalVariableSymbolTableItem(VariableDeclaration varDeclaration) {
-        this.name = varDeclaration.getVarName().getName();
+        this.name = varDeclaration.getVarName().getSymbol();
         this.type = varDeclaration.getType();
     }
 
-    public String getKey() {
-        return START_KEY + this.name;
+    @Override
+    public SymbolKind getKind() {
+        return SymbolKind.localVarDec;
     }
 
     public Type getType() {
@@ -25,4 +27,12 @@ public class LocalVariableSymbolTableItem extends SymbolTableItem {
         this.type = type;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
 }
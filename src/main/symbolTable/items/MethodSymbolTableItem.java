@@ -9,11 +9,12 @@ import main.symbolTable.SymbolTable;
 import java.util.ArrayList;
 
 public class MethodSymbolTableItem extends SymbolTableItem {
-    public static final String START_KEY = "Method_";
     private MethodDeclaration methodDeclaration;
     private Type returnType;
     private ArrayList<Type> argTypes = new ArrayList<>();
     private SymbolTable methodSymbolTable;
+    // arguments and local variables; set by the Binder
+    private int frameSize = -1;
 
     public MethodSymbolTableItem(MethodDeclaration methodDeclaration) {
         this.methodDeclaration = methodDeclaration;
@@ -21,7 +22,7 @@ public class MethodSymbolTableItem extends SymbolTableItem {
         for(VariableDeclaration varDeclaration : methodDeclaration.getArgs()) {
             this.argTypes.add(varDeclaration.getType());
         }
-        this.name = methodDeclaration.getMethodName().getName();
+        this.name = methodDeclaration.getMethodName().getSymbol();
     }
 
     public MethodDeclaration getMethodDeclaration() {
@@ -56,9 +57,17 @@ public class MethodSymbolTableItem extends SymbolTableItem {
         this.methodSymbolTable = methodSymbolTable;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
     @Override
-    public String getKey() {
-        return START_KEY + this.name;
+    public SymbolKind getKind() {
+        return SymbolKind.methodDec;
     }
 
 }
@@ -0,0 +1,6 @@
+package main.symbolTable.items;
+
+// every kind has its own namespace in a SymbolTable
+public enum SymbolKind {
+    classDec, methodDec, fieldDec, localVarDec, globalVarDec
+}
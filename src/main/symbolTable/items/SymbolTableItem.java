@@ -1,16 +1,22 @@
 package main.symbolTable.items;
 
+import main.ast.names.Name;
+
 public abstract class SymbolTableItem {
 
-    protected String name;
+    protected Name name;
 
-    public abstract String getKey();
+    public abstract SymbolKind getKind();
 
     public String getName() {
-        return name;
+        return name.getText();
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = new Name(name);
+    }
+
+    public Name getSymbol() {
+        return name;
     }
 }
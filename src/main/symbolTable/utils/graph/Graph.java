@@ -8,10 +8,24 @@ import java.util.*;
 public class Graph<N> {
     private Map<N, Set<N>> parentShipRelation = new HashMap<>();
 
+    // Built by analyze() and dropped whenever the graph changes.
+    // Nodes are numbered densely; parent edges are kept in CSR form (parentEdges[parentStart[v] .. parentStart[v + 1]]).
+    private volatile boolean analyzed = false;
+    private Map<N, Integer> nodeIds;
+    private int[] parentStart;
+    private int[] parentEdges;
+    private int[] component;
+    private boolean[] inCycle;
+    // pre/post-order interval of every component in the condensed graph, valid when isForest
+    private int[] preOrder;
+    private int[] postOrder;
+    private boolean isForest;
+
     public void addNode(N desired) throws NodeAlreadyExistsException {
         if (parentShipRelation.containsKey(desired))
             throw new NodeAlreadyExistsException();
         parentShipRelation.put(desired, new HashSet<>());
+        analyzed = false;
     }
 
     public boolean doesGraphContainNode(N desired) {
@@ -22,6 +36,7 @@ public class Graph<N> {
         if (!parentShipRelation.containsKey(desired))
             throw new GraphDoesNotContainNodeException();
         parentShipRelation.get(desired).add(parentNode);
+        analyzed = false;
     }
 
     public Collection<N> getParentsOfNode(N desired) throws GraphDoesNotContainNodeException {
@@ -30,29 +45,231 @@ public class Graph<N> {
         return parentShipRelation.get(desired);
     }
 
+    // true when second can be reached from first by following parent edges (or first equals second)
     public boolean isSecondNodeAncestorOf(N first , N second) {
-        Set<N> visitedNodes = new HashSet<>();
-        return _isSecondNodeAncestorOf(first,second, visitedNodes);
+        if (first.equals(second))
+            return true;
+        if (!parentShipRelation.containsKey(first))
+            return false;
+        ensureAnalyzed();
+        Integer secondId = nodeIds.get(second);
+        if (secondId == null)
+            return false;
+        int from = nodeIds.get(first);
+        int to = secondId;
+        int fromComponent = component[from];
+        int toComponent = component[to];
+        if (fromComponent == toComponent)
+            return inCycle[from];
+        if (isForest)
+            return preOrder[toComponent] <= preOrder[fromComponent] && postOrder[fromComponent] <= postOrder[toComponent];
+        return isReachable(from, to);
     }
 
-    private boolean _isSecondNodeAncestorOf(N first, N second, Set<N> visitedNodes) {
-        try {
-            if(first.equals(second))
-                return true;
-            Collection<N> parents = getParentsOfNode(first);
-            for(N node : parents) {
-                if (node.equals(second)) {
-                    return true;
+    // true when the node lies on a cycle of parent edges, including a node that is its own parent
+    public boolean isNodeInCycle(N desired) {
+        ensureAnalyzed();
+        Integer id = nodeIds.get(desired);
+        return id != null && inCycle[id];
+    }
+
+    private void ensureAnalyzed() {
+        if (!analyzed)
+            analyze();
+    }
+
+    // Numbers the nodes, finds strongly connected components and labels the condensed graph, all in O(V + E).
+    public synchronized void analyze() {
+        if (analyzed)
+            return;
+        buildAdjacency();
+        findComponents();
+        labelComponents();
+        analyzed = true;
+    }
+
+    private void buildAdjacency() {
+        nodeIds = new HashMap<>();
+        List<N> nodes = new ArrayList<>();
+        int edgeCount = 0;
+        for (Map.Entry<N, Set<N>> entry : parentShipRelation.entrySet()) {
+            addNodeId(entry.getKey(), nodes);
+            edgeCount += entry.getValue().size();
+        }
+        for (Set<N> parents : parentShipRelation.values())
+            for (N parent : parents)
+                addNodeId(parent, nodes);
+
+        int nodeCount = nodes.size();
+        parentStart = new int[nodeCount + 1];
+        parentEdges = new int[edgeCount];
+        int edge = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            parentStart[v] = edge;
+            Set<N> parents = parentShipRelation.get(nodes.get(v));
+            if (parents != null)
+                for (N parent : parents)
+                    parentEdges[edge++] = nodeIds.get(parent);
+        }
+        parentStart[nodeCount] = edge;
+    }
+
+    private void addNodeId(N node, List<N> nodes) {
+        if (!nodeIds.containsKey(node)) {
+            nodeIds.put(node, nodes.size());
+            nodes.add(node);
+        }
+    }
+
+    // iterative Tarjan
+    private void findComponents() {
+        int nodeCount = parentStart.length - 1;
+        component = new int[nodeCount];
+        inCycle = new boolean[nodeCount];
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] sccStack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int sccTop = 0;
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] != -1)
+                continue;
+            int callTop = 0;
+            callStack[callTop++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            nextEdge[root] = parentStart[root];
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (nextEdge[v] < parentStart[v + 1]) {
+                    int w = parentEdges[nextEdge[v]++];
+                    if (index[w] == -1) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        nextEdge[w] = parentStart[w];
+                        sccStack[sccTop++] = w;
+                        onStack[w] = true;
+                        callStack[callTop++] = w;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
                 }
-                if (visitedNodes.contains(node))
+                callTop--;
+                if (callTop > 0) {
+                    int caller = callStack[callTop - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[v]);
+                }
+                if (lowLink[v] != index[v])
                     continue;
-                visitedNodes.add(node);
-                if (_isSecondNodeAncestorOf(node, second, visitedNodes))
+                int size = 0;
+                int w;
+                do {
+                    w = sccStack[--sccTop];
+                    onStack[w] = false;
+                    component[w] = componentCount;
+                    size++;
+                } while (w != v);
+                if (size > 1) {
+                    for (int i = sccTop; i < sccTop + size; i++)
+                        inCycle[sccStack[i]] = true;
+                } else {
+                    for (int e = parentStart[v]; e < parentStart[v + 1]; e++)
+                        if (parentEdges[e] == v)
+                            inCycle[v] = true;
+                }
+                componentCount++;
+            }
+        }
+        preOrder = new int[componentCount];
+        postOrder = new int[componentCount];
+    }
+
+    // With single inheritance every component has at most one parent component, so the condensed
+    // graph is a forest and ancestry becomes interval containment of pre/post-order numbers.
+    private void labelComponents() {
+        int componentCount = preOrder.length;
+        int nodeCount = component.length;
+        int[] parentComponent = new int[componentCount];
+        Arrays.fill(parentComponent, -1);
+        isForest = true;
+        for (int v = 0; v < nodeCount; v++) {
+            for (int e = parentStart[v]; e < parentStart[v + 1]; e++) {
+                int from = component[v];
+                int to = component[parentEdges[e]];
+                if (from == to)
+                    continue;
+                if (parentComponent[from] != -1 && parentComponent[from] != to)
+                    isForest = false;
+                parentComponent[from] = to;
+            }
+        }
+        if (!isForest)
+            return;
+
+        int[] childStart = new int[componentCount + 1];
+        for (int c = 0; c < componentCount; c++)
+            if (parentComponent[c] != -1)
+                childStart[parentComponent[c] + 1]++;
+        for (int c = 0; c < componentCount; c++)
+            childStart[c + 1] += childStart[c];
+        int[] children = new int[componentCount];
+        int[] fill = Arrays.copyOf(childStart, componentCount);
+        for (int c = 0; c < componentCount; c++)
+            if (parentComponent[c] != -1)
+                children[fill[parentComponent[c]]++] = c;
+
+        int[] nextChild = new int[componentCount];
+        int[] callStack = new int[componentCount];
+        int counter = 0;
+        for (int root = 0; root < componentCount; root++) {
+            if (parentComponent[root] != -1)
+                continue;
+            int callTop = 0;
+            callStack[callTop++] = root;
+            preOrder[root] = counter++;
+            nextChild[root] = childStart[root];
+            while (callTop > 0) {
+                int c = callStack[callTop - 1];
+                if (nextChild[c] < childStart[c + 1]) {
+                    int child = children[nextChild[c]++];
+                    preOrder[child] = counter++;
+                    nextChild[child] = childStart[child];
+                    callStack[callTop++] = child;
+                } else {
+                    postOrder[c] = counter++;
+                    callTop--;
+                }
+            }
+        }
+    }
+
+    // fallback for graphs where a node has several parents
+    private boolean isReachable(int from, int to) {
+        boolean[] visited = new boolean[component.length];
+        int[] stack = new int[component.length];
+        int top = 0;
+        stack[top++] = from;
+        visited[from] = true;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int e = parentStart[v]; e < parentStart[v + 1]; e++) {
+                int w = parentEdges[e];
+                if (w == to)
                     return true;
+                if (!visited[w]) {
+                    visited[w] = true;
+                    stack[top++] = w;
+                }
             }
-        } catch(GraphDoesNotContainNodeException ignored) {
         }
         return false;
     }
 
-}
\ No newline at end of file
+}
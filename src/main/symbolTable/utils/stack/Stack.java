@@ -1,27 +1,45 @@
 package main.symbolTable.utils.stack;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
+// Array-backed stack; pop and peek return null when it is empty.
 public class Stack<T> {
-    private int top;
-    private ArrayList<T> elements;
+    private Object[] elements;
+    private int size = 0;
 
     public Stack() {
-        top = -1;
-        elements = new ArrayList<>();
+        this(16);
+    }
+
+    public Stack(int initialCapacity) {
+        elements = new Object[Math.max(initialCapacity, 1)];
     }
 
     public void push(T pushValue) {
-        elements.add(pushValue);
-        ++top;
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = pushValue;
     }
 
+    @SuppressWarnings("unchecked")
     public T pop() {
-        if (top == -1)
+        if (size == 0)
             return null;
-        --top;
-        T e = elements.get(top + 1);
-        elements.remove(top + 1);
+        T e = (T) elements[--size];
+        elements[size] = null;
         return e;
     }
+
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) elements[size - 1];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
 }
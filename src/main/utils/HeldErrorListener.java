@@ -0,0 +1,38 @@
+package main.utils;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Holds errors back until the attempt that found them is known to be the final one, then passes
+// them on in the order they were found.
+public class HeldErrorListener extends BaseErrorListener {
+    private static class HeldError {
+        final int line;
+        final int charPositionInLine;
+        final String msg;
+
+        HeldError(int line, int charPositionInLine, String msg) {
+            this.line = line;
+            this.charPositionInLine = charPositionInLine;
+            this.msg = msg;
+        }
+    }
+
+    private final List<HeldError> errors = new ArrayList<>();
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+        errors.add(new HeldError(line, charPositionInLine, msg));
+    }
+
+    public void passTo(ANTLRErrorListener listener) {
+        for (HeldError error : errors)
+            listener.syntaxError(null, null, error.line, error.charPositionInLine, error.msg, null);
+    }
+}
@@ -0,0 +1,32 @@
+package main.utils;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+// Counts the errors of lexers and passes them on, except the first skip, which a lexer that reads the
+// input again has reported already. Errors of parsers are passed on as they are.
+public class LexerErrorCounter extends BaseErrorListener {
+    private ANTLRErrorListener listener;
+    private int skip;
+    private int count;
+
+    public LexerErrorCounter(ANTLRErrorListener listener, int skip) {
+        this.listener = listener;
+        this.skip = skip;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+        if (recognizer instanceof Lexer && count++ < skip)
+            return;
+        listener.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+    }
+}
@@ -0,0 +1,123 @@
+package main.utils;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// CharStream over a memory-mapped source file, one byte per char.
+// Only valid for pure ASCII input; use fromFileName, which falls back to
+// CharStreams for anything else.
+public class MappedCharStream implements CharStream {
+    private static final long NON_ASCII_MASK = 0x8080808080808080L;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final String sourceName;
+    private int p = 0;
+
+    private MappedCharStream(MappedByteBuffer buffer, String sourceName) {
+        this.buffer = buffer;
+        this.size = buffer.limit();
+        this.sourceName = sourceName;
+    }
+
+    public static CharStream fromFileName(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE)
+                return CharStreams.fromPath(path, StandardCharsets.UTF_8);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        if (!isAscii(buffer))
+            return CharStreams.fromPath(path, StandardCharsets.UTF_8);
+        return new MappedCharStream(buffer, fileName);
+    }
+
+    private static boolean isAscii(MappedByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        int length = buffer.limit();
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES)
+            if ((buffer.getLong(i) & NON_ASCII_MASK) != 0)
+                return false;
+        for (; i < length; i++)
+            if (buffer.get(i) < 0)
+                return false;
+        return true;
+    }
+
+    @Override
+    public void consume() {
+        if (p >= size)
+            throw new IllegalStateException("cannot consume EOF");
+        p++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0)
+            return 0;
+        int index = i < 0 ? p + i : p + i - 1;
+        if (index < 0 || index >= size)
+            return IntStream.EOF;
+        return buffer.get(index);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return p;
+    }
+
+    @Override
+    public void seek(int index) {
+        p = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, size - 1);
+        if (start >= size || stop < start)
+            return "";
+        byte[] bytes = new byte[stop - start + 1];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+}
@@ -0,0 +1,28 @@
+package main.utils;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.io.PrintStream;
+
+// Same messages as ConsoleErrorListener, written to any stream, and counted
+public class StreamErrorListener extends BaseErrorListener {
+    private PrintStream out;
+    private int count;
+
+    public StreamErrorListener(PrintStream out) {
+        this.out = out;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+        out.println("line " + line + ":" + charPositionInLine + " " + msg);
+        count++;
+    }
+}
@@ -0,0 +1,112 @@
+package main.visitor.binder;
+
+import main.CompilationContext;
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.NewClassInstance;
+import main.ast.nodes.expression.ObjectMemberAccess;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.traversal.Traversal;
+import main.visitor.traversal.TraversalPass;
+import main.visitor.typeChecker.TypeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+// Numbers the variables of a type checked program and ties every name to what it refers to, so
+// that running it needs no lookup by name:
+//   globals get an index in declaration order
+//   fields get an offset in their objects, after the fields of the parent class, and every class
+//   its layout and constructor
+//   arguments and local variables get a slot in their method's frame, arguments first
+// An Identifier that names a variable or a method of self, the member name of an
+// ObjectMemberAccess and the class name of a NewClassInstance are bound to their symbol items.
+public class Binder implements TraversalPass {
+    private final CompilationContext context;
+    private final TypeInfo typeInfo;
+    private final Set<ClassSymbolTableItem> laidOut = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ClassSymbolTableItem currentClass;
+
+    public Binder(CompilationContext context, TypeInfo typeInfo) {
+        this.context = context;
+        this.typeInfo = typeInfo;
+    }
+
+    public void bind(Program program) {
+        SymbolTable root = context.getRoot();
+        List<VariableDeclaration> globals = program.getGlobalVariables();
+        for (int i = 0; i < globals.size(); i++)
+            root.lookupGlobalVar(globals.get(i).getVarName().getSymbol(), true).setIndex(i);
+        for (ClassDeclaration classDeclaration : program.getClasses())
+            layout(root.lookupClass(classDeclaration.getClassName().getSymbol()));
+        Traversal.run(program, this);
+    }
+
+    private List<FieldSymbolTableItem> layout(ClassSymbolTableItem classItem) {
+        if (!laidOut.add(classItem))
+            return classItem.getLayout();
+        ClassDeclaration classDeclaration = classItem.getClassDeclaration();
+        List<FieldSymbolTableItem> layout = new ArrayList<>();
+        if (classDeclaration.getParentClassName() != null)
+            layout.addAll(layout(context.getRoot().lookupClass(classDeclaration.getParentClassName().getSymbol())));
+        SymbolTable classTable = classItem.getClassSymbolTable();
+        for (FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
+            FieldSymbolTableItem field = classTable.lookupField(fieldDeclaration.getVarDeclaration().getVarName().getSymbol(), true);
+            field.setOffset(layout.size());
+            layout.add(field);
+        }
+        classItem.setLayout(layout);
+        classItem.setConstructor(classTable.lookupMethod(context.getNames().intern("initialize"), true));
+        return layout;
+    }
+
+    @Override
+    public boolean enter(Node node) {
+        if (node instanceof ClassDeclaration) {
+            currentClass = context.getRoot().lookupClass(((ClassDeclaration) node).getClassName().getSymbol());
+        } else if (node instanceof MethodDeclaration) {
+            bindFrame((MethodDeclaration) node);
+        } else if (node instanceof VariableDeclaration) {
+            // array sizes are not children of the declaration
+            for (Expression dimension : ((VariableDeclaration) node).getDimensions())
+                Traversal.run(dimension, this);
+        } else if (node instanceof Identifier) {
+            SymbolTableItem referent = typeInfo.getReferent((Identifier) node);
+            if (referent != null)
+                ((Identifier) node).setBinding(referent);
+        } else if (node instanceof ObjectMemberAccess) {
+            ObjectMemberAccess access = (ObjectMemberAccess) node;
+            access.getMemberName().setBinding(typeInfo.getReferent(access));
+        } else if (node instanceof NewClassInstance) {
+            NewClassInstance newClassInstance = (NewClassInstance) node;
+            newClassInstance.setBinding(context.getRoot().lookupClass(newClassInstance.getClassType().getClassName()));
+        }
+        return true;
+    }
+
+    private void bindFrame(MethodDeclaration methodDeclaration) {
+        MethodSymbolTableItem method = currentClass.getClassSymbolTable()
+                .lookupMethod(methodDeclaration.getMethodName().getSymbol(), true);
+        SymbolTable methodTable = method.getMethodSymbolTable();
+        int slot = 0;
+        for (VariableDeclaration arg : methodDeclaration.getArgs())
+            methodTable.lookupLocalVar(arg.getVarName().getSymbol(), true).setSlot(slot++);
+        for (VariableDeclaration localVar : methodDeclaration.getLocalVars())
+            methodTable.lookupLocalVar(localVar.getVarName().getSymbol(), true).setSlot(slot++);
+        method.setFrameSize(slot);
+    }
+}
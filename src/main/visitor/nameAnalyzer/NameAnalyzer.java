@@ -1,33 +1,53 @@
 package main.visitor.nameAnalyzer;
 
+import main.CompilationContext;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.*;
 import main.symbolTable.items.*;
 import main.symbolTable.items.*;
 
 import main.symbolTable.utils.graph.Graph;
 import main.symbolTable.utils.graph.exceptions.*;
 import main.visitor.Visitor;
+import main.visitor.traversal.Traversal;
 
 import java.lang.invoke.MethodType;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 public class NameAnalyzer{
 
     private Program program;
+    private CompilationContext context;
     private Graph<String> classHierarchy = new Graph<>();
+    private int checkParallelism = 1;
 
     public NameAnalyzer(Program program) {
+        this(program, new CompilationContext());
+    }
+
+    public NameAnalyzer(Program program, CompilationContext context) {
         this.program = program;
+        this.context = context;
     }
+    // threads for NameChecker, see NameChecker.setParallelism
+    public void setCheckParallelism(int checkParallelism) {
+        this.checkParallelism = checkParallelism;
+    }
+
     public void analyze() {
-        NameCollector nameCollector = new NameCollector();
-        this.program.accept(nameCollector);
+        NameCollector nameCollector = new NameCollector(context);
+        Traversal.run(this.program, nameCollector);
+        // the checker needs every class table, so a collection cut short ends the analysis
+        if (context.getDiagnostics().shouldStop())
+            return;
         this.linkParentSymbolTables();
-        NameChecker nameChecker = new NameChecker(classHierarchy);
-        this.program.accept(nameChecker);
+        this.flattenMemberTables();
+        NameChecker nameChecker = new NameChecker(context, classHierarchy);
+        nameChecker.setParallelism(checkParallelism);
+        Traversal.run(this.program, nameChecker);
     }
 
     private void linkParentSymbolTables() {
@@ -41,17 +61,54 @@ public class NameAnalyzer{
                 String parentName = classDec.getParentClassName().getName();
                 try {
                     classHierarchy.addNodeAsParentOf(className, parentName);
-                    ClassSymbolTableItem parentSTI = (ClassSymbolTableItem)SymbolTable.root.
-                            getItem(ClassSymbolTableItem.START_KEY + parentName, true);
-                    ClassSymbolTableItem curClassSTI = (ClassSymbolTableItem)SymbolTable.root.
-                            getItem(ClassSymbolTableItem.START_KEY + className, true);
+                } catch (GraphDoesNotContainNodeException ignore) {}
+                ClassSymbolTableItem parentSTI = context.getRoot().lookupClass(classDec.getParentClassName().getSymbol());
+                ClassSymbolTableItem curClassSTI = context.getRoot().lookupClass(classDec.getClassName().getSymbol());
+                if (parentSTI != null && curClassSTI != null)
                     curClassSTI.getClassSymbolTable().pre = parentSTI.getClassSymbolTable();
-                } catch (ItemNotFoundException |GraphDoesNotContainNodeException ignore) {}
             }
         }
+        classHierarchy.analyze();
         this.classHierarchy = classHierarchy;
     }
 
+    // Gives every class table its inherited methods and fields in one map each, so member lookups
+    // no longer walk the pre chain. Parents are flattened before their children; tables on an
+    // inheritance cycle collect the other members of the cycle directly.
+    private void flattenMemberTables() {
+        Set<SymbolTable> classTables = new HashSet<>();
+        for (ClassDeclaration classDec : this.program.getClasses())
+            classTables.add(getClassSymbolTable(classDec));
+        Set<SymbolTable> flattened = new HashSet<>();
+        for (ClassDeclaration classDec : this.program.getClasses()) {
+            ArrayList<SymbolTable> chain = new ArrayList<>();
+            Set<SymbolTable> onChain = new HashSet<>();
+            SymbolTable current = getClassSymbolTable(classDec);
+            while (classTables.contains(current) && !flattened.contains(current) && !onChain.contains(current)) {
+                chain.add(current);
+                onChain.add(current);
+                current = current.pre;
+            }
+            int end = chain.size();
+            if (onChain.contains(current)) {
+                int cycleStart = chain.indexOf(current);
+                for (int i = cycleStart; i < end; i++) {
+                    chain.get(i).inheritMembersAlongCycle();
+                    flattened.add(chain.get(i));
+                }
+                end = cycleStart;
+            }
+            for (int i = end - 1; i >= 0; i--) {
+                chain.get(i).inheritMembersFromPre();
+                flattened.add(chain.get(i));
+            }
+        }
+    }
+
+    private SymbolTable getClassSymbolTable(ClassDeclaration classDec) {
+        return context.getRoot().lookupClass(classDec.getClassName().getSymbol()).getClassSymbolTable();
+    }
+
     public Graph<String> getClassHierarchy() {
         return classHierarchy;
     }
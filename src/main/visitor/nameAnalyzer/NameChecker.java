@@ -1,5 +1,8 @@
 package main.visitor.nameAnalyzer;
 
+import main.CompilationContext;
+import main.ast.names.Name;
+import main.ast.nodes.Node;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.*;
 import main.ast.nodes.declaration.classDec.*;
@@ -9,110 +12,133 @@ import main.compileError.*;
 import main.compileError.nameError.*;
 import main.symbolTable.SymbolTable;
 import main.symbolTable.items.*;
-import main.symbolTable.exceptions.*;
 import main.symbolTable.utils.graph.Graph;
-import main.visitor.Visitor;
-
-public class NameChecker extends Visitor<Void> {
-    private String curClassName;
+import main.visitor.traversal.Traversal;
+import main.visitor.traversal.TraversalPass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Runs as a pass of a Traversal. The fields of a class are checked when it is entered, ahead of
+// its constructor and methods, and nothing below a member is walked.
+public class NameChecker implements TraversalPass {
+    private CompilationContext context;
+    private Name curClassName;
     private Graph<String> classHierachy;
+    private int parallelism = 1;
     Program root;
 
-    public NameChecker(Graph<String> classHierachy) {
+    public NameChecker(CompilationContext context, Graph<String> classHierachy) {
+        this.context = context;
         this.classHierachy = classHierachy;
     }
 
+    // more than 1 checks classes concurrently; the errors are the same as with 1
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     private SymbolTable getCurrentClassST() {
-        try {
-            ClassSymbolTableItem classSTI = (ClassSymbolTableItem) SymbolTable.root.
-                    getItem(ClassSymbolTableItem.START_KEY + this.curClassName, true);
-            return classSTI.getClassSymbolTable();
-        } catch (ItemNotFoundException e) {}
-        return null;
+        ClassSymbolTableItem classSTI = context.getRoot().lookupClass(this.curClassName);
+        if (classSTI == null)
+            return null;
+        return classSTI.getClassSymbolTable();
     }
 
     @Override
-    public Void visit(Program program) {
-        this.root = program;
-
-        for (VariableDeclaration varDec : program.getGlobalVariables()) {
-            varDec.accept(this);
+    public boolean enter(Node node) {
+        if (node instanceof Program) {
+            this.root = (Program) node;
+            if (parallelism > 1) {
+                checkClassesInParallel(root);
+                return false;
+            }
+            return true;
         }
+        if (node instanceof ClassDeclaration) {
+            if (context.getDiagnostics().shouldStop())
+                return false;
+            ClassDeclaration classDec = (ClassDeclaration) node;
+            this.curClassName = classDec.getClassName().getSymbol();
+            check(classDec);
+            return true;
+        }
+        if (node instanceof MethodDeclaration)
+            check((MethodDeclaration) node);
+        return false;
+    }
 
-        for (ClassDeclaration classDec : program.getClasses()) {
-            this.curClassName = classDec.getClassName().getName();
-            classDec.accept(this);
+    // The symbol tables and the hierarchy are only read from here on, and a class only reads the
+    // error marks of its own members, so every class gets its own checker and deferred errors.
+    // They are reported in class order, stopping between classes as the sequential loop does.
+    private void checkClassesInParallel(Program program) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Diagnostics>> tasks = new ArrayList<>();
+            for (ClassDeclaration classDec : program.getClasses())
+                tasks.add(pool.submit(() -> checkClass(classDec)));
+            for (ForkJoinTask<Diagnostics> task : tasks) {
+                if (context.getDiagnostics().shouldStop())
+                    break;
+                context.getDiagnostics().reportAll(task.join());
+            }
+        } finally {
+            pool.shutdownNow();
         }
-        return null;
     }
 
-    @Override
-    public Void visit(ClassDeclaration classDec) {
+    private Diagnostics checkClass(ClassDeclaration classDec) {
+        Diagnostics diagnostics = Diagnostics.deferred();
+        NameChecker classChecker = new NameChecker(context.withDiagnostics(diagnostics), classHierachy);
+        classChecker.root = root;
+        classChecker.curClassName = classDec.getClassName().getSymbol();
+        Traversal.run(classDec, classChecker);
+        return diagnostics;
+    }
+
+    private void check(ClassDeclaration classDec) {
         if (classDec.getParentClassName() != null) {
-            String parentClassName = classDec.getParentClassName().getName();
             String className = classDec.getClassName().getName();
-            if (this.classHierachy.isSecondNodeAncestorOf(parentClassName, className)) {
+            if (this.classHierachy.isNodeInCycle(className)) {
                 ClassInCyclicInheritance exception = new ClassInCyclicInheritance(classDec.getLine(), className);
-                classDec.addError(exception);
+                context.getDiagnostics().report(classDec, exception);
             }
         }
 
         for (FieldDeclaration fieldDec : classDec.getFields()) {
-            fieldDec.accept(this);
-        }
-
-        if (classDec.getConstructor() != null) {
-            classDec.getConstructor().accept(this);
+            check(fieldDec);
         }
-
-        for (MethodDeclaration methodDec : classDec.getMethods()) {
-            methodDec.accept(this);
-        }
-
-        return null;
     }
 
-    @Override
-    public Void visit(ConstructorDeclaration constructorDeclaration) {
-        this.visit((MethodDeclaration) constructorDeclaration);
-        return null;
-    }
-
-    @Override
-    public Void visit(MethodDeclaration methodDec) {
-        String methodName = methodDec.getMethodName().getName();
+    // the constructor too
+    private void check(MethodDeclaration methodDec) {
+        Name methodName = methodDec.getMethodName().getSymbol();
 
         // handling method redefinition in parent class
         if (!methodDec.hasError()) {
-            try {
-                getCurrentClassST().getItem(MethodSymbolTableItem.START_KEY + methodName, false);
-                MethodRedefinition exception = new MethodRedefinition(methodDec.getLine(), methodName);
-                methodDec.addError(exception);
-            } catch (ItemNotFoundException e) { }
+            if (getCurrentClassST().lookupMethod(methodName, false) != null) {
+                MethodRedefinition exception = new MethodRedefinition(methodDec.getLine(), methodName.getText());
+                context.getDiagnostics().report(methodDec, exception);
+            }
         }
 
         // handling method conflict with field name in class
-        try {
-            getCurrentClassST().getItem(FieldSymbolTableItem.START_KEY + methodName, true);
-            MethodNameConflictWithField exception = new MethodNameConflictWithField(methodDec.getLine(), methodName);
-            methodDec.addError(exception);
-        } catch (ItemNotFoundException e) {}
-
-        return null;
+        if (getCurrentClassST().lookupField(methodName, true) != null) {
+            MethodNameConflictWithField exception = new MethodNameConflictWithField(methodDec.getLine(), methodName.getText());
+            context.getDiagnostics().report(methodDec, exception);
+        }
     }
 
-    @Override
-    public Void visit(FieldDeclaration fieldDec) {
+    private void check(FieldDeclaration fieldDec) {
         if(!fieldDec.hasError()) {
-            try {
-                String fieldName = fieldDec.getVarDeclaration().getVarName().getName();
-                getCurrentClassST().getItem(FieldSymbolTableItem.START_KEY + fieldName, false);
-                FieldRedefinition exception = new FieldRedefinition(fieldDec.getLine(), fieldName);
-                fieldDec.addError(exception);
-            } catch (ItemNotFoundException e) {}
+            Name fieldName = fieldDec.getVarDeclaration().getVarName().getSymbol();
+            if (getCurrentClassST().lookupField(fieldName, false) != null) {
+                FieldRedefinition exception = new FieldRedefinition(fieldDec.getLine(), fieldName.getText());
+                context.getDiagnostics().report(fieldDec, exception);
+            }
         }
-
-        return null;
     }
 
 
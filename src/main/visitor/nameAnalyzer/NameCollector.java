@@ -1,5 +1,7 @@
 package main.visitor.nameAnalyzer;
 
+import main.CompilationContext;
+import main.ast.nodes.Node;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.*;
 import main.ast.nodes.declaration.classDec.*;
@@ -8,151 +10,120 @@ import main.ast.nodes.declaration.variableDec.VariableDeclaration;
 import main.ast.nodes.expression.Identifier;
 import main.symbolTable.SymbolTable;
 import main.symbolTable.items.*;
-import main.symbolTable.exceptions.*;
 import main.compileError.*;
 import main.compileError.nameError.*;
-import main.visitor.Visitor;
+import main.visitor.traversal.TraversalPass;
 
-import java.lang.invoke.MethodType;
-import java.util.ArrayList;
-
-public class NameCollector extends Visitor<Void> {
+// Runs as a pass of a Traversal, which enters the global variables before the classes. The fields
+// of a class are collected when it is entered, ahead of its constructor and methods, and the
+// statements of a body hold no declarations, so they are skipped.
+public class NameCollector implements TraversalPass {
 
+    private CompilationContext context;
     private int newId = 1;
     private boolean isGlobal = false;
 
-    private ArrayList<VariableDeclaration> globalVars = new ArrayList<>();
+    public NameCollector(CompilationContext context) {
+        this.context = context;
+    }
 
     @Override
-    public Void visit(Program program) {
-        SymbolTable.push(new SymbolTable());
-        SymbolTable.root = SymbolTable.top;
-        for (VariableDeclaration varDec : program.getGlobalVariables()) {
+    public boolean enter(Node node) {
+        if (node instanceof Program) {
+            context.push(new SymbolTable());
+            context.setRoot(context.getTop());
             isGlobal = true;
-            varDec.accept(this);
+            return true;
+        }
+        if (node instanceof ClassDeclaration) {
             isGlobal = false;
+            if (context.getDiagnostics().shouldStop())
+                return false;
+            collect((ClassDeclaration) node);
+            return true;
         }
-        for (ClassDeclaration classDec : program.getClasses()) {
-            classDec.accept(this);
+        if (node instanceof MethodDeclaration) {
+            collect((MethodDeclaration) node);
+            return true;
         }
-        return null;
+        if (node instanceof VariableDeclaration)
+            collect((VariableDeclaration) node);
+        return false;
     }
 
     @Override
-    public Void visit(ClassDeclaration classDeclaration) {
+    public void exit(Node node) {
+        if (node instanceof Program || node instanceof ClassDeclaration || node instanceof MethodDeclaration)
+            context.pop();
+    }
+
+    private void collect(ClassDeclaration classDeclaration) {
         ClassSymbolTableItem classSymbolTableItem = new ClassSymbolTableItem(classDeclaration);
-        SymbolTable.push(new SymbolTable(SymbolTable.top));
-        classSymbolTableItem.setClassSymbolTable(SymbolTable.top);
-        try {
-            SymbolTable.root.put(classSymbolTableItem);
-        } catch (ItemAlreadyExistsException e) {
+        context.push(new SymbolTable(context.getTop()));
+        classSymbolTableItem.setClassSymbolTable(context.getTop());
+        if (!context.getRoot().tryPut(classSymbolTableItem)) {
             ClassRedefinition exception = new ClassRedefinition(classDeclaration.getLine(), classDeclaration.getClassName().getName());
-            classDeclaration.addError(exception);
+            context.getDiagnostics().report(classDeclaration, exception);
             String newName = newId + "@";
             newId += 1;
-            classDeclaration.getClassName().setName(newName);
+            classDeclaration.getClassName().setSymbol(context.getNames().intern(newName));
             ClassSymbolTableItem newClassSTI = new ClassSymbolTableItem(classDeclaration);
-            newClassSTI.setClassSymbolTable(SymbolTable.top);
-            try {
-                SymbolTable.root.put(newClassSTI);
-            } catch (ItemAlreadyExistsException ignored) { }
+            newClassSTI.setClassSymbolTable(context.getTop());
+            context.getRoot().tryPut(newClassSTI);
         }
 
         for (FieldDeclaration fieldDec : classDeclaration.getFields()) {
-            fieldDec.accept(this);
+            collect(fieldDec);
         }
-
-        if (classDeclaration.getConstructor() != null) {
-            classDeclaration.getConstructor().accept(this);
-        }
-
-        for (MethodDeclaration methodDec : classDeclaration.getMethods()) {
-            methodDec.accept(this);
-        }
-        SymbolTable.pop();
-        return null;
-    }
-
-    @Override
-    public Void visit(ConstructorDeclaration constructorDeclaration) {
-        this.visit((MethodDeclaration) constructorDeclaration);
-        return null;
     }
 
-    @Override
-    public Void visit(MethodDeclaration methodDec) {
+    // the constructor too; its table stays on top for the arguments and locals entered after it
+    private void collect(MethodDeclaration methodDec) {
         MethodSymbolTableItem methodSTI = new MethodSymbolTableItem(methodDec);
-        SymbolTable methodST = new SymbolTable(SymbolTable.top);
+        SymbolTable methodST = new SymbolTable(context.getTop());
         methodSTI.setMethodSymbolTable(methodST);
-        try {
-            SymbolTable.top.put(methodSTI);
-        } catch (ItemAlreadyExistsException e) {
+        if (!context.getTop().tryPut(methodSTI)) {
             MethodRedefinition exception = new MethodRedefinition(methodDec.getLine(), methodDec.getMethodName().getName());
-            methodDec.addError(exception);
-        }
-        SymbolTable.push(methodST);
-        for (VariableDeclaration varDec : methodDec.getArgs()) {
-            varDec.accept(this);
-        }
-
-        for (VariableDeclaration varDec : methodDec.getLocalVars()) {
-            varDec.accept(this);
+            context.getDiagnostics().report(methodDec, exception);
         }
-        SymbolTable.pop();
-        return null;
+        context.push(methodST);
     }
 
-    @Override
-    public Void visit(VariableDeclaration varDec) {
+    private void collect(VariableDeclaration varDec) {
         if (isGlobal) {
             GlobalVariableSymbolTableItem globalVarSTI = new GlobalVariableSymbolTableItem(varDec);
-            try {
-                SymbolTable.top.put(globalVarSTI);
-                globalVars.add(varDec);
-            } catch (ItemAlreadyExistsException e) {
+            if (!context.getTop().tryPut(globalVarSTI)) {
                 GlobalVarRedefinition exception = new GlobalVarRedefinition(varDec.getLine(), varDec.getVarName().getName());
-                varDec.addError(exception);
+                context.getDiagnostics().report(varDec, exception);
                 String newName = newId + "@";
                newId += 1;
-                varDec.getVarName().setName(newName);
+                varDec.getVarName().setSymbol(context.getNames().intern(newName));
                 GlobalVariableSymbolTableItem newGlobalSTI = new GlobalVariableSymbolTableItem(varDec);
-                try {
-                    SymbolTable.top.put(newGlobalSTI);
-                } catch (ItemAlreadyExistsException ignored) {}
+                context.getTop().tryPut(newGlobalSTI);
             }
-            return null;
+            return;
         }
         LocalVariableSymbolTableItem localVarSTI = new LocalVariableSymbolTableItem(varDec);
 
-        for (VariableDeclaration gVar : globalVars) {
-            if (gVar.getVarName().getName().equals(varDec.getVarName().getName()) ){
-                LocalVarConflictWithGlobalVar exception = new LocalVarConflictWithGlobalVar(varDec.getLine(), varDec.getVarName().getName());
-                varDec.addError(exception);
-                return null;
-            }
+        if (context.getRoot().lookupGlobalVar(varDec.getVarName().getSymbol(), true) != null) {
+            LocalVarConflictWithGlobalVar exception = new LocalVarConflictWithGlobalVar(varDec.getLine(), varDec.getVarName().getName());
+            context.getDiagnostics().report(varDec, exception);
+            return;
         }
 
-        try {
-            SymbolTable.top.put(localVarSTI);
-        } catch (ItemAlreadyExistsException e) {
+        if (!context.getTop().tryPut(localVarSTI)) {
             LocalVarRedefinition exception = new LocalVarRedefinition(varDec.getLine(), varDec.getVarName().getName());
-            varDec.addError(exception);
+            context.getDiagnostics().report(varDec, exception);
         }
-
-        return null;
     }
 
-    @Override
-    public Void visit(FieldDeclaration fieldDec) {
+    private void collect(FieldDeclaration fieldDec) {
         FieldSymbolTableItem fieldSTI = new FieldSymbolTableItem(fieldDec);
-        try {
-            SymbolTable.top.put(fieldSTI);
-        } catch (ItemAlreadyExistsException e) {
+        if (!context.getTop().tryPut(fieldSTI)) {
             String fieldName = fieldDec.getVarDeclaration().getVarName().getName();
             FieldRedefinition exception = new FieldRedefinition(fieldDec.getLine(), fieldName);
-            fieldDec.addError(exception);
+            context.getDiagnostics().report(fieldDec, exception);
         }
-        return null;
     }
 
 }
@@ -0,0 +1,330 @@
+package main.visitor.traversal;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.*;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.*;
+import main.symbolTable.utils.stack.Stack;
+import main.visitor.IVisitor;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Walks an AST once and runs every pass on each node, in the order the passes were given.
+// Children are visited in the order of the AST dump: a class's name, parent, constructor,
+// methods, then fields. Null children (such as the statement left by a merge) are skipped.
+// The walk keeps its work on heap stacks, so nesting depth is not limited by the thread stack.
+public class Traversal {
+    private static final int MAX_PASSES = Long.SIZE;
+
+    private final TraversalPass[] passes;
+    // bit i is set while pass i is skipping the current subtree
+    private long skipping = 0;
+    private final long all;
+
+    // nodes still to enter; null stands for the exit of the innermost open node
+    private final Stack<Node> pending = new Stack<>();
+    // entered nodes whose children are being walked, with the passes that started skipping at each
+    private final Stack<Node> open = new Stack<>();
+    private long[] openSkipped = new long[16];
+    private final Children children = new Children();
+
+    public Traversal(TraversalPass... passes) {
+        if (passes.length == 0 || passes.length > MAX_PASSES)
+            throw new IllegalArgumentException("a traversal runs 1 to " + MAX_PASSES + " passes");
+        this.passes = passes.clone();
+        this.all = passes.length == MAX_PASSES ? -1L : (1L << passes.length) - 1;
+    }
+
+    public static void run(Node root, TraversalPass... passes) {
+        new Traversal(passes).walk(root);
+    }
+
+    public void walk(Node root) {
+        push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node == null) {
+                int depth = open.size() - 1;
+                exit(open.pop(), openSkipped[depth]);
+                continue;
+            }
+            long skipped = enter(node);
+            if (skipping == all) {
+                exit(node, skipped);
+                continue;
+            }
+            int depth = open.size();
+            if (depth == openSkipped.length)
+                openSkipped = Arrays.copyOf(openSkipped, depth * 2);
+            openSkipped[depth] = skipped;
+            open.push(node);
+            pending.push(null);
+            node.accept(children);
+        }
+    }
+
+    // returns the passes that started skipping at this node
+    private long enter(Node node) {
+        long skipped = 0;
+        for (int i = 0; i < passes.length; i++) {
+            long bit = 1L << i;
+            if ((skipping & bit) == 0 && !passes[i].enter(node))
+                skipped |= bit;
+        }
+        skipping |= skipped;
+        return skipped;
+    }
+
+    private void exit(Node node, long skipped) {
+        skipping &= ~skipped;
+        for (int i = 0; i < passes.length; i++)
+            if ((skipping & (1L << i)) == 0 && (skipped & (1L << i)) == 0)
+                passes[i].exit(node);
+    }
+
+    private void push(Node child) {
+        if (child != null)
+            pending.push(child);
+    }
+
+    // pushed last to first, so they are entered first to last
+    private void push(List<? extends Node> children) {
+        if (children != null)
+            for (int i = children.size() - 1; i >= 0; i--)
+                push(children.get(i));
+    }
+
+    // pushes the children of the visited node
+    private class Children implements IVisitor<Void> {
+        @Override
+        public Void visit(Program program) {
+            push(program.getClasses());
+            push(program.getGlobalVariables());
+            return null;
+        }
+
+        @Override
+        public Void visit(ClassDeclaration classDeclaration) {
+            push(classDeclaration.getFields());
+            push(classDeclaration.getMethods());
+            push(classDeclaration.getConstructor());
+            push(classDeclaration.getParentClassName());
+            push(classDeclaration.getClassName());
+            return null;
+        }
+
+        // unlike a method, the constructor's name is not a child
+        @Override
+        public Void visit(ConstructorDeclaration constructorDeclaration) {
+            push(constructorDeclaration.getBody());
+            push(constructorDeclaration.getLocalVars());
+            push(constructorDeclaration.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(MethodDeclaration methodDeclaration) {
+            push(methodDeclaration.getBody());
+            push(methodDeclaration.getLocalVars());
+            push(methodDeclaration.getArgs());
+            push(methodDeclaration.getMethodName());
+            return null;
+        }
+
+        @Override
+        public Void visit(FieldDeclaration fieldDeclaration) {
+            push(fieldDeclaration.getVarDeclaration());
+            return null;
+        }
+
+        @Override
+        public Void visit(VariableDeclaration varDeclaration) {
+            push(varDeclaration.getVarName());
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignmentStmt assignmentStmt) {
+            push(assignmentStmt.getrValue());
+            push(assignmentStmt.getlValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(BlockStmt blockStmt) {
+            push(blockStmt.getStatements());
+            return null;
+        }
+
+        @Override
+        public Void visit(ConditionalStmt conditionalStmt) {
+            push(conditionalStmt.getElsif());
+            push(conditionalStmt.getElseBody());
+            push(conditionalStmt.getThenBody());
+            push(conditionalStmt.getCondition());
+            return null;
+        }
+
+        @Override
+        public Void visit(ElsifStmt elsifStmt) {
+            push(elsifStmt.getThenBody());
+            push(elsifStmt.getCondition());
+            return null;
+        }
+
+        @Override
+        public Void visit(MethodCallStmt methodCallStmt) {
+            push(methodCallStmt.getMethodCall());
+            return null;
+        }
+
+        @Override
+        public Void visit(PrintStmt print) {
+            push(print.getArg());
+            return null;
+        }
+
+        @Override
+        public Void visit(ReturnStmt returnStmt) {
+            push(returnStmt.getReturnedExpr());
+            return null;
+        }
+
+        @Override
+        public Void visit(EachStmt eachStmt) {
+            push(eachStmt.getBody());
+            push(eachStmt.getList());
+            push(eachStmt.getVariable());
+            return null;
+        }
+
+        @Override
+        public Void visit(BinaryExpression binaryExpression) {
+            push(binaryExpression.getSecondOperand());
+            push(binaryExpression.getFirstOperand());
+            return null;
+        }
+
+        @Override
+        public Void visit(UnaryExpression unaryExpression) {
+            push(unaryExpression.getOperand());
+            return null;
+        }
+
+        @Override
+        public Void visit(TernaryExpression ternaryExpression) {
+            push(ternaryExpression.getFalseExpression());
+            push(ternaryExpression.getTrueExpression());
+            push(ternaryExpression.getCondition());
+            return null;
+        }
+
+        @Override
+        public Void visit(RangeExpression rangeExpression) {
+            push(rangeExpression.getRightExpression());
+            push(rangeExpression.getLeftExpression());
+            return null;
+        }
+
+        @Override
+        public Void visit(ObjectMemberAccess objectOrListMemberAccess) {
+            push(objectOrListMemberAccess.getMemberName());
+            push(objectOrListMemberAccess.getInstance());
+            return null;
+        }
+
+        @Override
+        public Void visit(Identifier identifier) {
+            return null;
+        }
+
+        @Override
+        public Void visit(ArrayAccessByIndex listAccessByIndex) {
+            push(listAccessByIndex.getIndex());
+            push(listAccessByIndex.getInstance());
+            return null;
+        }
+
+        @Override
+        public Void visit(MethodCall methodCall) {
+            push(methodCall.getArgs());
+            push(methodCall.getInstance());
+            return null;
+        }
+
+        @Override
+        public Void visit(NewClassInstance newClassInstance) {
+            push(newClassInstance.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(SelfClass selfClass) {
+            return null;
+        }
+
+        @Override
+        public Void visit(NullValue nullValue) {
+            return null;
+        }
+
+        @Override
+        public Void visit(IntValue intValue) {
+            return null;
+        }
+
+        @Override
+        public Void visit(BoolValue boolValue) {
+            return null;
+        }
+
+        @Override
+        public Void visit(SetValue setValue) {
+            return null;
+        }
+
+        @Override
+        public Void visit(SetInclude setInclude) {
+            push(setInclude.getElementArg());
+            push(setInclude.getSetArg());
+            return null;
+        }
+
+        @Override
+        public Void visit(SetNew setNew) {
+            push(setNew.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(SetDelete setDelete) {
+            push(setDelete.getElementArg());
+            push(setDelete.getSetArg());
+            return null;
+        }
+
+        @Override
+        public Void visit(SetMerge setMerge) {
+            push(setMerge.getElementArgs());
+            push(setMerge.getSetArg());
+            return null;
+        }
+
+        @Override
+        public Void visit(SetAdd setAdd) {
+            push(setAdd.getElementArg());
+            push(setAdd.getSetArg());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package main.visitor.traversal;
+
+import main.ast.nodes.Node;
+
+// One pass run by a Traversal. enter is called before a node's children and exit after them.
+// Returning false from enter skips the node's subtree for this pass only; exit is then not called
+// for that node either.
+public interface TraversalPass {
+    default boolean enter(Node node) {
+        return true;
+    }
+
+    default void exit(Node node) {
+    }
+}
@@ -0,0 +1,574 @@
+package main.visitor.typeChecker;
+
+import main.CompilationContext;
+import main.ast.nodes.Node;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.SetValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.names.Name;
+import main.ast.types.NoType;
+import main.ast.types.NullType;
+import main.ast.types.Type;
+import main.ast.types.TypeFactory;
+import main.ast.types.array.ArrayType;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.primitives.ClassType;
+import main.ast.types.primitives.VoidType;
+import main.ast.types.set.SetType;
+import main.compileError.CompileError;
+import main.compileError.typeError.*;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.*;
+import main.symbolTable.utils.stack.Stack;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Types one expression at a time in the scope set by the TypeChecker, and records the type and
+// referent of every node in the TypeInfo. An expression with an error has NoType, which is
+// accepted everywhere so that one mistake is reported once.
+// The operands of an expression are typed before it, from a heap stack, and each visit method
+// only combines the types of its operands, so nesting depth is not limited by the thread stack.
+public class ExpressionTypeChecker extends Visitor<Type> {
+    private final CompilationContext context;
+    private final TypeFactory types;
+    private final TypeInfo typeInfo;
+    private final Name initialize;
+
+    // null outside a class, as in the sizes of global arrays
+    private ClassSymbolTableItem currentClass;
+    // null outside a method, as in the sizes of fields
+    private SymbolTable currentMethodTable;
+    // the types of the operands of the expression being visited, in the order of operandsOf
+    private Type[] operands;
+
+    // an expression whose operands are being typed
+    private static class Pending {
+        final Expression expression;
+        final List<Expression> operands;
+        final Type[] types;
+        int next = 0;
+
+        Pending(Expression expression) {
+            this.expression = expression;
+            this.operands = operandsOf(expression);
+            this.types = new Type[operands.size()];
+        }
+    }
+
+    public ExpressionTypeChecker(CompilationContext context, TypeInfo typeInfo) {
+        this.context = context;
+        this.types = context.getTypeFactory();
+        this.typeInfo = typeInfo;
+        this.initialize = context.getNames().intern("initialize");
+    }
+
+    public void setScope(ClassSymbolTableItem currentClass, SymbolTable currentMethodTable) {
+        this.currentClass = currentClass;
+        this.currentMethodTable = currentMethodTable;
+    }
+
+    // the type of an expression whose value is used; a void call is an error there
+    public Type value(Expression expression) {
+        return valueOf(expression, type(expression));
+    }
+
+    private Type valueOf(Expression expression, Type type) {
+        if (type instanceof VoidType) {
+            report(expression, new CantUseValueOfVoidMethod(expression.getLine()));
+            return types.noType();
+        }
+        return type;
+    }
+
+    // the type of an expression, which may be void
+    public Type type(Expression expression) {
+        if (expression == null)
+            return types.noType();
+        Stack<Pending> pending = new Stack<>();
+        pending.push(new Pending(expression));
+        while (true) {
+            Pending top = pending.peek();
+            if (top.next < top.operands.size()) {
+                Expression operand = top.operands.get(top.next);
+                if (operand == null)
+                    top.types[top.next++] = types.noType();
+                else
+                    pending.push(new Pending(operand));
+                continue;
+            }
+            pending.pop();
+            operands = top.types;
+            Type type = top.expression.accept(this);
+            Pending parent = pending.peek();
+            if (parent == null)
+                return type;
+            parent.types[parent.next] = usesValue(parent.expression, parent.next) ? valueOf(top.expression, type) : type;
+            parent.next++;
+        }
+    }
+
+    // what an expression types before itself, in the order the errors in them are reported; an
+    // operand is null where the parser recovered from a syntax error
+    private static List<Expression> operandsOf(Expression expression) {
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binaryExpression = (BinaryExpression) expression;
+            return Arrays.asList(binaryExpression.getFirstOperand(), binaryExpression.getSecondOperand());
+        }
+        if (expression instanceof UnaryExpression)
+            return Arrays.asList(((UnaryExpression) expression).getOperand());
+        if (expression instanceof TernaryExpression) {
+            TernaryExpression ternaryExpression = (TernaryExpression) expression;
+            return Arrays.asList(ternaryExpression.getCondition(), ternaryExpression.getTrueExpression(),
+                    ternaryExpression.getFalseExpression());
+        }
+        if (expression instanceof RangeExpression) {
+            RangeExpression rangeExpression = (RangeExpression) expression;
+            return Arrays.asList(rangeExpression.getLeftExpression(), rangeExpression.getRightExpression());
+        }
+        if (expression instanceof ObjectMemberAccess)
+            return Arrays.asList(((ObjectMemberAccess) expression).getInstance());
+        if (expression instanceof ArrayAccessByIndex) {
+            ArrayAccessByIndex listAccessByIndex = (ArrayAccessByIndex) expression;
+            return Arrays.asList(listAccessByIndex.getInstance(), listAccessByIndex.getIndex());
+        }
+        if (expression instanceof MethodCall) {
+            // a new instance with arguments is typed by the call, together with them
+            MethodCall methodCall = (MethodCall) expression;
+            if (methodCall.getInstance() instanceof NewClassInstance)
+                return methodCall.getArgs();
+            List<Expression> operands = new ArrayList<>(methodCall.getArgs().size() + 1);
+            operands.add(methodCall.getInstance());
+            operands.addAll(methodCall.getArgs());
+            return operands;
+        }
+        if (expression instanceof SetInclude) {
+            SetInclude setInclude = (SetInclude) expression;
+            return Arrays.asList(setInclude.getSetArg(), setInclude.getElementArg());
+        }
+        if (expression instanceof SetNew)
+            return ((SetNew) expression).getArgs();
+        return List.of();
+    }
+
+    // whether an operand is used as a value; an assigned target and a method that is called are not
+    private static boolean usesValue(Expression expression, int operand) {
+        if (operand != 0)
+            return true;
+        if (expression instanceof BinaryExpression)
+            return ((BinaryExpression) expression).getBinaryOperator() != BinaryOperator.assign;
+        if (expression instanceof MethodCall) {
+            Expression callee = ((MethodCall) expression).getInstance();
+            return !(callee instanceof Identifier) && !(callee instanceof ObjectMemberAccess);
+        }
+        return true;
+    }
+
+    public boolean isLvalue(Expression expression) {
+        SymbolTableItem referent = typeInfo.getReferent(expression);
+        if (expression instanceof Identifier || expression instanceof ObjectMemberAccess)
+            return referent != null && !(referent instanceof MethodSymbolTableItem);
+        return expression instanceof ArrayAccessByIndex;
+    }
+
+    // can a value of type sub be stored where a sup is expected
+    public boolean isSubtype(Type sub, Type sup) {
+        if (sub instanceof NoType || sup instanceof NoType)
+            return true;
+        if (sub instanceof NullType)
+            return sup instanceof ClassType || sup instanceof ArrayType || sup instanceof FptrType
+                    || sup instanceof SetType;
+        if (sub instanceof ClassType && sup instanceof ClassType)
+            return isSubclass(((ClassType) sub).getClassName(), ((ClassType) sup).getClassName());
+        return sameType(sub, sup);
+    }
+
+    // Arrays are the same when their element types and number of dimensions are; the sizes
+    // do not matter.
+    public boolean sameType(Type a, Type b) {
+        if (a instanceof NoType || b instanceof NoType)
+            return true;
+        if (a instanceof ClassType && b instanceof ClassType)
+            return a.equals(b);
+        if (a instanceof ArrayType && b instanceof ArrayType) {
+            ArrayType first = (ArrayType) a;
+            ArrayType second = (ArrayType) b;
+            return first.getDimensionCount() == second.getDimensionCount()
+                    && sameType(first.getType(), second.getType());
+        }
+        if (a instanceof FptrType && b instanceof FptrType) {
+            FptrType first = (FptrType) a;
+            FptrType second = (FptrType) b;
+            return sameTypes(first.getArgumentsTypes(), second.getArgumentsTypes())
+                    && sameType(first.getReturnType(), second.getReturnType());
+        }
+        return a != null && b != null && a.getClass() == b.getClass()
+                && !(a instanceof ClassType || a instanceof ArrayType || a instanceof FptrType);
+    }
+
+    public boolean sameTypes(List<Type> a, List<Type> b) {
+        if (a.size() != b.size())
+            return false;
+        for (int i = 0; i < a.size(); i++)
+            if (!sameType(a.get(i), b.get(i)))
+                return false;
+        return true;
+    }
+
+    private boolean isSubclass(Name sub, Name sup) {
+        // name analysis rejects inheritance cycles, the bound only guards against them
+        int steps = 0;
+        for (Name current = sub; current != null && steps <= context.getNames().size(); steps++) {
+            if (current.equals(sup))
+                return true;
+            ClassSymbolTableItem classItem = context.getRoot().lookupClass(current);
+            if (classItem == null || classItem.getClassDeclaration().getParentClassName() == null)
+                return false;
+            current = classItem.getClassDeclaration().getParentClassName().getSymbol();
+        }
+        return false;
+    }
+
+    public ClassSymbolTableItem lookupClass(ClassType classType) {
+        return context.getRoot().lookupClass(classType.getClassName());
+    }
+
+    // the constructor a class runs, which may be inherited; null when there is none
+    public MethodSymbolTableItem lookupConstructor(ClassSymbolTableItem classItem) {
+        return classItem.getClassSymbolTable().lookupMethod(initialize, true);
+    }
+
+    public FptrType fptrType(MethodSymbolTableItem method) {
+        return types.fptrType(method.getArgTypes(), returnType(method));
+    }
+
+    // constructors have no return type of their own
+    public Type returnType(MethodSymbolTableItem method) {
+        return method.getReturnType() == null ? types.voidType() : method.getReturnType();
+    }
+
+    private void report(Node node, CompileError error) {
+        context.getDiagnostics().report(node, error);
+    }
+
+    private Type record(Expression expression, Type type) {
+        typeInfo.setType(expression, type);
+        return type;
+    }
+
+    // a local or argument, then a field or method of the current class, then a global
+    private SymbolTableItem resolve(Name name) {
+        if (currentMethodTable != null) {
+            SymbolTableItem local = currentMethodTable.lookupLocalVar(name, true);
+            if (local != null)
+                return local;
+        }
+        if (currentClass != null) {
+            SymbolTable classTable = currentClass.getClassSymbolTable();
+            SymbolTableItem member = classTable.lookupField(name, true);
+            if (member == null)
+                member = classTable.lookupMethod(name, true);
+            if (member != null)
+                return member;
+        }
+        return context.getRoot().lookupGlobalVar(name, true);
+    }
+
+    private Type typeOf(SymbolTableItem item) {
+        if (item instanceof LocalVariableSymbolTableItem)
+            return ((LocalVariableSymbolTableItem) item).getType();
+        if (item instanceof FieldSymbolTableItem)
+            return ((FieldSymbolTableItem) item).getType();
+        if (item instanceof GlobalVariableSymbolTableItem)
+            return ((GlobalVariableSymbolTableItem) item).getType();
+        return fptrType((MethodSymbolTableItem) item);
+    }
+
+    // the method a call names directly, without going through a function pointer value
+    private MethodSymbolTableItem calledMethod(Expression callee) {
+        if (!(callee instanceof Identifier) && !(callee instanceof ObjectMemberAccess))
+            return null;
+        SymbolTableItem referent = typeInfo.getReferent(callee);
+        return referent instanceof MethodSymbolTableItem ? (MethodSymbolTableItem) referent : null;
+    }
+
+    private boolean argumentsMatch(List<Type> argTypes, List<Type> parameterTypes) {
+        if (argTypes.size() != parameterTypes.size())
+            return false;
+        for (int i = 0; i < argTypes.size(); i++)
+            if (!isSubtype(argTypes.get(i), parameterTypes.get(i)))
+                return false;
+        return true;
+    }
+
+    @Override
+    public Type visit(BinaryExpression binaryExpression) {
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        Expression first = binaryExpression.getFirstOperand();
+        Expression second = binaryExpression.getSecondOperand();
+        if (operator == BinaryOperator.assign) {
+            Type target = operands[0];
+            Type assigned = operands[1];
+            if (!isLvalue(first)) {
+                report(binaryExpression, new LeftSideNotLvalue(binaryExpression.getLine()));
+                return record(binaryExpression, types.noType());
+            }
+            if (!isSubtype(assigned, target)) {
+                report(binaryExpression, new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                return record(binaryExpression, types.noType());
+            }
+            return record(binaryExpression, target);
+        }
+        Type firstType = operands[0];
+        Type secondType = operands[1];
+        Type operandType;
+        Type resultType;
+        switch (operator) {
+            case eq:
+            case neq:
+                if (isSubtype(firstType, secondType) || isSubtype(secondType, firstType))
+                    return record(binaryExpression, types.boolType());
+                report(binaryExpression, new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                return record(binaryExpression, types.noType());
+            case gt:
+            case lt:
+                operandType = types.intType();
+                resultType = types.boolType();
+                break;
+            case and:
+            case or:
+                operandType = types.boolType();
+                resultType = types.boolType();
+                break;
+            default:
+                operandType = types.intType();
+                resultType = types.intType();
+        }
+        if (!isSubtype(firstType, operandType) || !isSubtype(secondType, operandType)) {
+            report(binaryExpression, new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+            return record(binaryExpression, types.noType());
+        }
+        return record(binaryExpression, resultType);
+    }
+
+    @Override
+    public Type visit(UnaryExpression unaryExpression) {
+        UnaryOperator operator = unaryExpression.getOperator();
+        Type operandType = operands[0];
+        Type expected = operator == UnaryOperator.not ? types.boolType() : types.intType();
+        if (!isSubtype(operandType, expected)) {
+            report(unaryExpression, new UnsupportedOperandType(unaryExpression.getLine(), operator.name()));
+            return record(unaryExpression, types.noType());
+        }
+        if (operator != UnaryOperator.not && operator != UnaryOperator.minus && !isLvalue(unaryExpression.getOperand())) {
+            report(unaryExpression, new IncDecOperandNotLvalue(unaryExpression.getLine(), operator.name()));
+            return record(unaryExpression, types.noType());
+        }
+        return record(unaryExpression, expected);
+    }
+
+    @Override
+    public Type visit(TernaryExpression ternaryExpression) {
+        Type conditionType = operands[0];
+        Type trueType = operands[1];
+        Type falseType = operands[2];
+        if (!isSubtype(conditionType, types.boolType())) {
+            report(ternaryExpression, new ConditionNotBool(ternaryExpression.getLine()));
+            return record(ternaryExpression, types.noType());
+        }
+        if (trueType instanceof NoType || falseType instanceof NoType)
+            return record(ternaryExpression, types.noType());
+        if (isSubtype(trueType, falseType))
+            return record(ternaryExpression, falseType);
+        if (isSubtype(falseType, trueType))
+            return record(ternaryExpression, trueType);
+        report(ternaryExpression, new UnsupportedOperandType(ternaryExpression.getLine(), "ternary"));
+        return record(ternaryExpression, types.noType());
+    }
+
+    // no part of the grammar builds ranges
+    @Override
+    public Type visit(RangeExpression rangeExpression) {
+        report(rangeExpression, new UnsupportedOperandType(rangeExpression.getLine(), "range"));
+        return record(rangeExpression, types.noType());
+    }
+
+    @Override
+    public Type visit(ObjectMemberAccess objectOrListMemberAccess) {
+        Type instanceType = operands[0];
+        if (instanceType instanceof NoType)
+            return record(objectOrListMemberAccess, types.noType());
+        Identifier memberName = objectOrListMemberAccess.getMemberName();
+        ClassSymbolTableItem classItem = instanceType instanceof ClassType ? lookupClass((ClassType) instanceType) : null;
+        if (classItem == null) {
+            report(objectOrListMemberAccess, new UnsupportedOperandType(objectOrListMemberAccess.getLine(), "member access"));
+            return record(objectOrListMemberAccess, types.noType());
+        }
+        SymbolTable classTable = classItem.getClassSymbolTable();
+        SymbolTableItem member = classTable.lookupField(memberName.getSymbol(), true);
+        if (member == null)
+            member = classTable.lookupMethod(memberName.getSymbol(), true);
+        if (member == null) {
+            report(objectOrListMemberAccess, new MemberNotAvailableInClass(objectOrListMemberAccess.getLine(),
+                    memberName.getName(), classItem.getName()));
+            return record(objectOrListMemberAccess, types.noType());
+        }
+        typeInfo.setReferent(objectOrListMemberAccess, member);
+        return record(objectOrListMemberAccess, typeOf(member));
+    }
+
+    @Override
+    public Type visit(Identifier identifier) {
+        SymbolTableItem item = resolve(identifier.getSymbol());
+        if (item == null) {
+            report(identifier, new VarNotDeclared(identifier.getLine(), identifier.getName()));
+            return record(identifier, types.noType());
+        }
+        typeInfo.setReferent(identifier, item);
+        return record(identifier, typeOf(item));
+    }
+
+    @Override
+    public Type visit(ArrayAccessByIndex listAccessByIndex) {
+        Type instanceType = operands[0];
+        Type indexType = operands[1];
+        if (!isSubtype(indexType, types.intType()))
+            report(listAccessByIndex, new ArrayIndexNotInt(listAccessByIndex.getLine()));
+        if (instanceType instanceof NoType)
+            return record(listAccessByIndex, types.noType());
+        if (!(instanceType instanceof ArrayType)) {
+            report(listAccessByIndex, new AccessByIndexOnNonArray(listAccessByIndex.getLine()));
+            return record(listAccessByIndex, types.noType());
+        }
+        return record(listAccessByIndex, elementType((ArrayType) instanceType));
+    }
+
+    // what indexing an array gives: the element, or an array with one dimension less
+    public Type elementType(ArrayType arrayType) {
+        int[] sizes = arrayType.getSizes();
+        if (sizes.length == 1)
+            return arrayType.getType();
+        return types.arrayType(arrayType.getType(), Arrays.copyOfRange(sizes, 1, sizes.length));
+    }
+
+    @Override
+    public Type visit(MethodCall methodCall) {
+        Expression callee = methodCall.getInstance();
+        List<Type> operandTypes = Arrays.asList(operands);
+        if (callee instanceof NewClassInstance)
+            return record(methodCall, construct(methodCall, (NewClassInstance) callee, operandTypes));
+        List<Type> argTypes = operandTypes.subList(1, operandTypes.size());
+        MethodSymbolTableItem method = calledMethod(callee);
+        if (method != null) {
+            typeInfo.setReferent(methodCall, method);
+            if (!argumentsMatch(argTypes, method.getArgTypes())) {
+                report(methodCall, new MethodCallNotMatchDefinition(methodCall.getLine()));
+                return record(methodCall, types.noType());
+            }
+            return record(methodCall, returnType(method));
+        }
+        Type calleeType = operandTypes.get(0);
+        if (calleeType instanceof VoidType) {
+            report(callee, new CantUseValueOfVoidMethod(callee.getLine()));
+            calleeType = types.noType();
+        }
+        if (calleeType instanceof NoType)
+            return record(methodCall, types.noType());
+        if (!(calleeType instanceof FptrType)) {
+            report(methodCall, new CallOnNoneCallable(methodCall.getLine()));
+            return record(methodCall, types.noType());
+        }
+        FptrType fptrType = (FptrType) calleeType;
+        if (!argumentsMatch(argTypes, fptrType.getArgumentsTypes())) {
+            report(methodCall, new MethodCallNotMatchDefinition(methodCall.getLine()));
+            return record(methodCall, types.noType());
+        }
+        return record(methodCall, fptrType.getReturnType());
+    }
+
+    @Override
+    public Type visit(NewClassInstance newClassInstance) {
+        return record(newClassInstance, construct(newClassInstance, newClassInstance, List.of()));
+    }
+
+    // node is the NewClassInstance, or the call around it that passes the arguments
+    private Type construct(Expression node, NewClassInstance newClassInstance, List<Type> argTypes) {
+        ClassType classType = newClassInstance.getClassType();
+        ClassSymbolTableItem classItem = lookupClass(classType);
+        if (classItem == null) {
+            report(node, new ClassNotDeclared(node.getLine(), classType.getClassName().getText()));
+            return record(newClassInstance, types.noType());
+        }
+        record(newClassInstance, classType);
+        MethodSymbolTableItem constructor = lookupConstructor(classItem);
+        if (constructor != null)
+            typeInfo.setReferent(node, constructor);
+        List<Type> parameterTypes = constructor == null ? new ArrayList<>() : constructor.getArgTypes();
+        if (!argumentsMatch(argTypes, parameterTypes)) {
+            report(node, new ConstructorArgsNotMatchDefinition(node.getLine(), classItem.getName()));
+            return types.noType();
+        }
+        return classType;
+    }
+
+    @Override
+    public Type visit(SelfClass selfClass) {
+        if (currentClass == null) {
+            report(selfClass, new VarNotDeclared(selfClass.getLine(), "self"));
+            return record(selfClass, types.noType());
+        }
+        return record(selfClass, types.classType(currentClass.getClassDeclaration().getClassName()));
+    }
+
+    // only a bare return has it
+    @Override
+    public Type visit(NullValue nullValue) {
+        return record(nullValue, types.nullType());
+    }
+
+    @Override
+    public Type visit(IntValue intValue) {
+        return record(intValue, types.intType());
+    }
+
+    @Override
+    public Type visit(BoolValue boolValue) {
+        return record(boolValue, types.boolType());
+    }
+
+    @Override
+    public Type visit(SetValue setValue) {
+        return record(setValue, types.setType());
+    }
+
+    @Override
+    public Type visit(SetInclude setInclude) {
+        Type setType = operands[0];
+        Type elementType = operands[1];
+        if (!isSubtype(setType, types.setType()) || !isSubtype(elementType, types.intType())) {
+            report(setInclude, new UnsupportedOperandType(setInclude.getLine(), "include"));
+            return record(setInclude, types.noType());
+        }
+        return record(setInclude, types.boolType());
+    }
+
+    @Override
+    public Type visit(SetNew setNew) {
+        boolean ints = true;
+        for (Type argType : operands)
+            if (!isSubtype(argType, types.intType()))
+                ints = false;
+        if (!ints) {
+            report(setNew, new UnsupportedOperandType(setNew.getLine(), "new"));
+            return record(setNew, types.noType());
+        }
+        return record(setNew, types.setType());
+    }
+
+}
@@ -0,0 +1,321 @@
+package main.visitor.typeChecker;
+
+import main.CompilationContext;
+import main.ast.names.Name;
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VariableDeclaration;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.set.SetAdd;
+import main.ast.nodes.statement.set.SetDelete;
+import main.ast.nodes.statement.set.SetMerge;
+import main.ast.types.NoType;
+import main.ast.types.Type;
+import main.ast.types.TypeFactory;
+import main.ast.types.array.ArrayType;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.ClassType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.primitives.VoidType;
+import main.ast.types.set.SetType;
+import main.compileError.CompileError;
+import main.compileError.typeError.*;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.utils.stack.Stack;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+
+// Checks the types of a program that passed name analysis, for the backends that run it. Besides
+// the errors it fills in a TypeInfo, which is complete when no error was reported.
+public class TypeChecker extends Visitor<Void> {
+    private final CompilationContext context;
+    private final TypeFactory types;
+    private final TypeInfo typeInfo = new TypeInfo();
+    private final ExpressionTypeChecker expressionTypeChecker;
+
+    private ClassSymbolTableItem currentClass;
+    private MethodSymbolTableItem currentMethod;
+    // statements waiting to be checked, nested ones pushed in reverse so they come out in order
+    private final Stack<Statement> pending = new Stack<>();
+
+    public TypeChecker(CompilationContext context) {
+        this.context = context;
+        this.types = context.getTypeFactory();
+        this.expressionTypeChecker = new ExpressionTypeChecker(context, typeInfo);
+    }
+
+    public TypeInfo check(Program program) {
+        program.accept(this);
+        return typeInfo;
+    }
+
+    public TypeInfo getTypeInfo() {
+        return typeInfo;
+    }
+
+    private void report(Node node, CompileError error) {
+        context.getDiagnostics().report(node, error);
+    }
+
+    private void setScope(ClassSymbolTableItem classItem, MethodSymbolTableItem method) {
+        currentClass = classItem;
+        currentMethod = method;
+        expressionTypeChecker.setScope(classItem, method == null ? null : method.getMethodSymbolTable());
+    }
+
+    @Override
+    public Void visit(Program program) {
+        setScope(null, null);
+        for (VariableDeclaration varDec : program.getGlobalVariables())
+            checkDeclaration(varDec, true);
+        for (ClassDeclaration classDec : program.getClasses()) {
+            if (context.getDiagnostics().shouldStop())
+                return null;
+            classDec.accept(this);
+        }
+
+        ClassSymbolTableItem main = context.getRoot().lookupClass(context.getNames().intern("Main"));
+        if (main == null) {
+            report(program, new NoMainClass(program.getLine()));
+            return null;
+        }
+        MethodSymbolTableItem constructor = expressionTypeChecker.lookupConstructor(main);
+        if (constructor != null && !constructor.getArgTypes().isEmpty())
+            report(main.getClassDeclaration(), new MainConstructorTakesArgs(main.getClassDeclaration().getLine()));
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        ClassSymbolTableItem classItem = context.getRoot().lookupClass(classDeclaration.getClassName().getSymbol());
+        SymbolTable classTable = classItem.getClassSymbolTable();
+        Identifier parentName = classDeclaration.getParentClassName();
+        if (parentName != null && context.getRoot().lookupClass(parentName.getSymbol()) == null)
+            report(classDeclaration, new ClassNotDeclared(classDeclaration.getLine(), parentName.getName()));
+
+        setScope(classItem, null);
+        for (FieldDeclaration fieldDec : classDeclaration.getFields()) {
+            Name fieldName = fieldDec.getVarDeclaration().getVarName().getSymbol();
+            typeInfo.setOwner(classTable.lookupField(fieldName, true), classDeclaration);
+            fieldDec.accept(this);
+        }
+        if (classDeclaration.getConstructor() != null)
+            classDeclaration.getConstructor().accept(this);
+        for (MethodDeclaration methodDec : classDeclaration.getMethods())
+            methodDec.accept(this);
+        setScope(null, null);
+        return null;
+    }
+
+    @Override
+    public Void visit(FieldDeclaration fieldDeclaration) {
+        checkDeclaration(fieldDeclaration.getVarDeclaration(), true);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        return visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        SymbolTable classTable = currentClass.getClassSymbolTable();
+        MethodSymbolTableItem method = classTable.lookupMethod(methodDeclaration.getMethodName().getSymbol(), true);
+        typeInfo.setOwner(method, currentClass.getClassDeclaration());
+        setScope(currentClass, method);
+        checkType(methodDeclaration.getReturnType(), methodDeclaration);
+        // arguments are passed in, only local arrays are created with their sizes
+        for (VariableDeclaration arg : methodDeclaration.getArgs())
+            checkDeclaration(arg, false);
+        for (VariableDeclaration localVar : methodDeclaration.getLocalVars())
+            checkDeclaration(localVar, true);
+        for (Statement statement : methodDeclaration.getBody())
+            check(statement);
+        setScope(currentClass, null);
+        return null;
+    }
+
+    private void checkDeclaration(VariableDeclaration varDeclaration, boolean created) {
+        Type type = varDeclaration.getType();
+        if (!checkType(type, varDeclaration) || !created)
+            return;
+        for (Expression dimension : varDeclaration.getDimensions())
+            if (!expressionTypeChecker.isSubtype(expressionTypeChecker.value(dimension), types.intType()))
+                report(varDeclaration, new ArraySizeNotInt(varDeclaration.getLine()));
+    }
+
+    // false when the type names a class that does not exist
+    private boolean checkType(Type type, Node declaration) {
+        if (type instanceof ClassType) {
+            if (expressionTypeChecker.lookupClass((ClassType) type) != null)
+                return true;
+            report(declaration, new ClassNotDeclared(declaration.getLine(), ((ClassType) type).getClassName().getText()));
+            return false;
+        }
+        if (type instanceof ArrayType)
+            return checkType(((ArrayType) type).getType(), declaration);
+        if (type instanceof FptrType) {
+            boolean declared = true;
+            for (Type argumentType : ((FptrType) type).getArgumentsTypes())
+                declared &= checkType(argumentType, declaration);
+            return checkType(((FptrType) type).getReturnType(), declaration) && declared;
+        }
+        return true;
+    }
+
+    private void checkCondition(Expression condition) {
+        if (!expressionTypeChecker.isSubtype(expressionTypeChecker.value(condition), types.boolType()))
+            report(condition, new ConditionNotBool(condition.getLine()));
+    }
+
+    private void checkSetOperation(Statement statement, Expression set, Expression element, String operator) {
+        Type setType = expressionTypeChecker.value(set);
+        Type elementType = expressionTypeChecker.value(element);
+        if (!expressionTypeChecker.isSubtype(setType, types.setType())
+                || !expressionTypeChecker.isSubtype(elementType, types.intType()))
+            report(statement, new UnsupportedOperandType(statement.getLine(), operator));
+    }
+
+    // Checks a statement and the statements nested in it, from the pending stack so that nesting
+    // depth is not limited by the thread stack. Merge statements come out of the parser as null,
+    // the same as no statement.
+    private void check(Statement statement) {
+        pending.push(statement);
+        while (!pending.isEmpty()) {
+            Statement next = pending.pop();
+            if (next != null)
+                next.accept(this);
+        }
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        Type target = expressionTypeChecker.type(assignmentStmt.getlValue());
+        Type assigned = expressionTypeChecker.value(assignmentStmt.getrValue());
+        if (!expressionTypeChecker.isLvalue(assignmentStmt.getlValue()))
+            report(assignmentStmt, new LeftSideNotLvalue(assignmentStmt.getLine()));
+        else if (!expressionTypeChecker.isSubtype(assigned, target))
+            report(assignmentStmt, new UnsupportedOperandType(assignmentStmt.getLine(), "assign"));
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        ArrayList<Statement> statements = blockStmt.getStatements();
+        for (int i = statements.size() - 1; i >= 0; i--)
+            pending.push(statements.get(i));
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        checkCondition(conditionalStmt.getCondition());
+        pending.push(conditionalStmt.getElseBody());
+        ArrayList<ElsifStmt> elsifs = conditionalStmt.getElsif();
+        for (int i = elsifs.size() - 1; i >= 0; i--)
+            pending.push(elsifs.get(i));
+        pending.push(conditionalStmt.getThenBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(ElsifStmt elsifStmt) {
+        checkCondition(elsifStmt.getCondition());
+        pending.push(elsifStmt.getThenBody());
+        return null;
+    }
+
+    // the only place where the value of a void method may be dropped
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        expressionTypeChecker.type(methodCallStmt.getMethodCall());
+        return null;
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        Type type = expressionTypeChecker.value(print.getArg());
+        if (!(type instanceof IntType || type instanceof BoolType || type instanceof SetType || type instanceof NoType))
+            report(print, new UnsupportedTypeForPrint(print.getLine()));
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        Expression returned = returnStmt.getReturnedExpr();
+        Type expected = expressionTypeChecker.returnType(currentMethod);
+        if (returned == null || returned instanceof NullValue) {
+            if (returned != null)
+                expressionTypeChecker.type(returned);
+            if (!(expected instanceof VoidType))
+                report(returnStmt, new ReturnValueNotMatchMethodReturnType(returnStmt.getLine()));
+            return null;
+        }
+        Type type = expressionTypeChecker.value(returned);
+        if (expected instanceof VoidType || !expressionTypeChecker.isSubtype(type, expected))
+            report(returnStmt, new ReturnValueNotMatchMethodReturnType(returnStmt.getLine()));
+        return null;
+    }
+
+    @Override
+    public Void visit(EachStmt eachStmt) {
+        Type listType = expressionTypeChecker.value(eachStmt.getList());
+        Type variableType = expressionTypeChecker.type(eachStmt.getVariable());
+        Type elementType;
+        if (listType instanceof ArrayType)
+            elementType = expressionTypeChecker.elementType((ArrayType) listType);
+        else if (listType instanceof SetType)
+            elementType = types.intType();
+        else if (listType instanceof NoType)
+            elementType = listType;
+        else {
+            report(eachStmt, new EachCantIterateNoneIterable(eachStmt.getLine()));
+            elementType = types.noType();
+        }
+        if (!expressionTypeChecker.isLvalue(eachStmt.getVariable()))
+            report(eachStmt, new LeftSideNotLvalue(eachStmt.getLine()));
+        else if (!expressionTypeChecker.isSubtype(elementType, variableType))
+            report(eachStmt, new EachVarNotMatchList(eachStmt.getLine()));
+        pending.push(eachStmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(SetDelete setDelete) {
+        checkSetOperation(setDelete, setDelete.getSetArg(), setDelete.getElementArg(), "delete");
+        return null;
+    }
+
+    // every argument is an element or a set whose elements are added
+    @Override
+    public Void visit(SetMerge setMerge) {
+        Type setType = expressionTypeChecker.value(setMerge.getSetArg());
+        boolean valid = expressionTypeChecker.isSubtype(setType, types.setType());
+        for (Expression arg : setMerge.getElementArgs()) {
+            Type argType = expressionTypeChecker.value(arg);
+            if (!(argType instanceof IntType || argType instanceof SetType || argType instanceof NoType))
+                valid = false;
+        }
+        if (!valid)
+            report(setMerge, new UnsupportedOperandType(setMerge.getLine(), "merge"));
+        return null;
+    }
+
+    @Override
+    public Void visit(SetAdd setAdd) {
+        checkSetOperation(setAdd, setAdd.getSetArg(), setAdd.getElementArg(), "add");
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package main.visitor.typeChecker;
+
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.expression.Expression;
+import main.ast.types.Type;
+import main.symbolTable.items.SymbolTableItem;
+
+import java.util.IdentityHashMap;
+
+// What the type checker found out about the expressions of a program, for the backends.
+// referent is what a node names:
+//   Identifier        -> the local, field or global variable, or the method of self
+//   ObjectMemberAccess -> the field or method
+//   MethodCall        -> the method called directly, or the constructor when the call creates an
+//                        object; null for a call through a function pointer
+//   NewClassInstance  -> the constructor when the class has one
+// Fields and methods, constructors included, also know the class that declares them.
+public class TypeInfo {
+    private final IdentityHashMap<Expression, Type> types = new IdentityHashMap<>();
+    private final IdentityHashMap<Expression, SymbolTableItem> referents = new IdentityHashMap<>();
+    private final IdentityHashMap<SymbolTableItem, ClassDeclaration> owners = new IdentityHashMap<>();
+
+    public Type getType(Expression expression) {
+        return types.get(expression);
+    }
+
+    void setType(Expression expression, Type type) {
+        types.put(expression, type);
+    }
+
+    public SymbolTableItem getReferent(Expression expression) {
+        return referents.get(expression);
+    }
+
+    void setReferent(Expression expression, SymbolTableItem item) {
+        referents.put(expression, item);
+    }
+
+    public ClassDeclaration getOwner(SymbolTableItem member) {
+        return owners.get(member);
+    }
+
+    void setOwner(SymbolTableItem member, ClassDeclaration owner) {
+        owners.put(member, owner);
+    }
+}
@@ -0,0 +1,71 @@
+package main.visitor.utils.dump;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+
+// The stream starts with MAGIC and VERSION, then one record per node:
+//   varint line, varint ref, and if ref is 0 the node text as modified UTF-8 (DataOutput.writeUTF).
+// ref n > 0 repeats the n-th distinct text of the stream, so repeated names cost one or two bytes.
+public class BinaryDumpSink implements DumpSink {
+    public static final int MAGIC = 0x534c4154;
+    public static final int VERSION = 1;
+
+    private DataOutputStream out;
+    private HashMap<String, Integer> texts = new HashMap<>();
+
+    public BinaryDumpSink(OutputStream out) {
+        this.out = new DataOutputStream(out);
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void node(int line, String message) {
+        try {
+            writeVarInt(line);
+            Integer ref = texts.get(message);
+            if (ref != null) {
+                writeVarInt(ref);
+                return;
+            }
+            texts.put(message, texts.size() + 1);
+            writeVarInt(0);
+            out.writeUTF(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
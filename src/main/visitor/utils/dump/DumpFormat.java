@@ -0,0 +1,8 @@
+package main.visitor.utils.dump;
+
+// text   -> "Line N: Node", one node per line
+// ndjson -> {"line":N,"node":"Node"}, one object per line
+// binary -> see BinaryDumpSink
+public enum DumpFormat {
+    text, ndjson, binary
+}
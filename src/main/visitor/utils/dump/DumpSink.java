@@ -0,0 +1,11 @@
+package main.visitor.utils.dump;
+
+// Receives the nodes of an AST dump in visiting order
+public interface DumpSink extends AutoCloseable {
+    void node(int line, String message);
+
+    void flush();
+
+    // flushes and closes the underlying stream
+    void close();
+}
@@ -0,0 +1,36 @@
+package main.visitor.utils.dump;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class DumpSinks {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // text formats use the given charset; close() closes out as well
+    public static DumpSink open(DumpFormat format, OutputStream out, Charset charset) {
+        switch (format) {
+            case ndjson:
+                return new JsonDumpSink(new BufferedWriter(new OutputStreamWriter(out, charset), BUFFER_SIZE));
+            case binary:
+                return new BinaryDumpSink(new BufferedOutputStream(out, BUFFER_SIZE));
+            default:
+                return new TextDumpSink(new BufferedWriter(new OutputStreamWriter(out, charset), BUFFER_SIZE));
+        }
+    }
+
+    // creates or truncates file; text formats are written as UTF-8
+    public static DumpSink open(DumpFormat format, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return open(format, Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+    }
+}
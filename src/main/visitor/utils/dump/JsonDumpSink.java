@@ -0,0 +1,58 @@
+package main.visitor.utils.dump;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+public class JsonDumpSink implements DumpSink {
+    private Writer writer;
+
+    public JsonDumpSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void node(int line, String message) {
+        try {
+            writer.write("{\"line\":");
+            writer.write(Integer.toString(line));
+            writer.write(",\"node\":\"");
+            writeEscaped(message);
+            writer.write("\"}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
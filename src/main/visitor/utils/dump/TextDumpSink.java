@@ -0,0 +1,47 @@
+package main.visitor.utils.dump;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+public class TextDumpSink implements DumpSink {
+    // what the printer wrote with println before the sinks
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private Writer writer;
+
+    public TextDumpSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void node(int line, String message) {
+        try {
+            writer.write("Line ");
+            writer.write(Integer.toString(line));
+            writer.write(": ");
+            writer.write(message);
+            writer.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
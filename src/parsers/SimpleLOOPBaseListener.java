@@ -17,6 +17,7 @@ package parsers;
      import main.ast.types.set.*;
      import main.ast.types.functionPointer.*;
      import main.ast.types.array.*;
+     import main.ast.names.*;
      import java.util.*;
  
 
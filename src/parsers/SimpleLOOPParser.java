@@ -17,6 +17,7 @@ package parsers;
      import main.ast.types.set.*;
      import main.ast.types.functionPointer.*;
      import main.ast.types.array.*;
+     import main.ast.names.*;
      import java.util.*;
  
 import org.antlr.v4.runtime.atn.*;
@@ -149,6 +150,26 @@ public class SimpleLOOPParser extends Parser {
 	@Override
 	public ATN getATN() { return _ATN; }
 
+
+	    private NameTable names = new NameTable();
+	    private TypeFactory typeFactory = new TypeFactory();
+
+	    public NameTable getNames() {
+	        return names;
+	    }
+
+	    public void setNames(NameTable names) {
+	        this.names = names;
+	    }
+
+	    public TypeFactory getTypeFactory() {
+	        return typeFactory;
+	    }
+
+	    public void setTypeFactory(TypeFactory typeFactory) {
+	        this.typeFactory = typeFactory;
+	    }
+
 	public SimpleLOOPParser(TokenStream input) {
 		super(input);
 		_interp = new ParserATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
@@ -870,7 +891,7 @@ public class SimpleLOOPParser extends Parser {
 				              ((MethodContext)_localctx).id =  ((MethodContext)_localctx).id_.id;
 				              ((MethodContext)_localctx).args =  ((MethodContext)_localctx).mArgs.args;
 				              ((MethodContext)_localctx).mBody =  ((MethodContext)_localctx).mBody_.methodBodyRet;
-				              ((MethodContext)_localctx).returnType =  new VoidType();
+				              ((MethodContext)_localctx).returnType =  typeFactory.voidType();
 				              ((MethodContext)_localctx).localVars =  ((MethodContext)_localctx).mBody_.localVars;
 				           
 				}
@@ -1270,7 +1291,7 @@ public class SimpleLOOPParser extends Parser {
 			((ArgDecContext)_localctx).t = type();
 			setState(302);
 			((ArgDecContext)_localctx).id = identifier();
-			((ArgDecContext)_localctx).arg =  new VariableDeclaration(((ArgDecContext)_localctx).id.id,((ArgDecContext)_localctx).t.typeRet); _localctx.arg.setLine(_localctx.line);
+			((ArgDecContext)_localctx).arg =  new VariableDeclaration(((ArgDecContext)_localctx).id.id,((ArgDecContext)_localctx).t.typeRet); _localctx.arg.setDimensions(((ArgDecContext)_localctx).t.dimensionsRet); _localctx.arg.setLine(_localctx.line);
 			}
 		}
 		catch (RecognitionException re) {
@@ -2011,6 +2032,7 @@ public class SimpleLOOPParser extends Parser {
 			((VarDecStatementContext)_localctx).id = identifier();
 
 			          VariableDeclaration newVar = new VariableDeclaration(((VarDecStatementContext)_localctx).id.id,((VarDecStatementContext)_localctx).t.typeRet);
+			          newVar.setDimensions(((VarDecStatementContext)_localctx).t.dimensionsRet);
 			          newVar.setLine(((VarDecStatementContext)_localctx).id.line);
 			          _localctx.varDecStmtRet.add(newVar);
 
@@ -2028,6 +2050,7 @@ public class SimpleLOOPParser extends Parser {
 				((VarDecStatementContext)_localctx).id2 = identifier();
 
 				        VariableDeclaration newVar2 = new VariableDeclaration(((VarDecStatementContext)_localctx).id2.id,((VarDecStatementContext)_localctx).t.typeRet);
+				        newVar2.setDimensions(((VarDecStatementContext)_localctx).t.dimensionsRet);
 				        newVar2.setLine(((VarDecStatementContext)_localctx).id2.line);
 				        _localctx.varDecStmtRet.add(newVar2);
 				     
@@ -3805,7 +3828,7 @@ public class SimpleLOOPParser extends Parser {
 							setState(659);
 							((AccessExpressionContext)_localctx).init = match(INITIALIZE);
 
-							                Identifier id = new Identifier((((AccessExpressionContext)_localctx).init!=null?((AccessExpressionContext)_localctx).init.getText():null));
+							                Identifier id = new Identifier(names.intern((((AccessExpressionContext)_localctx).init!=null?((AccessExpressionContext)_localctx).init.getText():null)));
 							                id.setLine(((AccessExpressionContext)_localctx).init.getLine());
 							                ((AccessExpressionContext)_localctx).accessExpressionRet =  new ObjectMemberAccess(_localctx.accessExpressionRet, id);
 							                _localctx.accessExpressionRet.setLine(((AccessExpressionContext)_localctx).init.getLine());
@@ -3951,7 +3974,7 @@ public class SimpleLOOPParser extends Parser {
 				((OtherExpressionContext)_localctx).c = class_identifier();
 
 				        ((OtherExpressionContext)_localctx).otherExprRet =  ((OtherExpressionContext)_localctx).c.class_id;
-				        ((OtherExpressionContext)_localctx).ct =  new ClassType(((OtherExpressionContext)_localctx).c.class_id);
+				        ((OtherExpressionContext)_localctx).ct =  typeFactory.classType(((OtherExpressionContext)_localctx).c.class_id);
 				    
 				}
 				break;
@@ -4311,7 +4334,7 @@ public class SimpleLOOPParser extends Parser {
 			setState(740);
 			((Class_identifierContext)_localctx).c = match(CLASS_IDENTIFIER);
 
-			            ((Class_identifierContext)_localctx).class_id =  new Identifier((((Class_identifierContext)_localctx).c!=null?((Class_identifierContext)_localctx).c.getText():null));
+			            ((Class_identifierContext)_localctx).class_id =  new Identifier(names.intern((((Class_identifierContext)_localctx).c!=null?((Class_identifierContext)_localctx).c.getText():null)));
 			            _localctx.class_id.setLine(((Class_identifierContext)_localctx).c.getLine());
 			         
 			}
@@ -4360,7 +4383,7 @@ public class SimpleLOOPParser extends Parser {
 			setState(743);
 			((IdentifierContext)_localctx).identifierLine = match(IDENTIFIER);
 
-			           ((IdentifierContext)_localctx).id =  new Identifier((((IdentifierContext)_localctx).identifierLine!=null?((IdentifierContext)_localctx).identifierLine.getText():null));
+			           ((IdentifierContext)_localctx).id =  new Identifier(names.intern((((IdentifierContext)_localctx).identifierLine!=null?((IdentifierContext)_localctx).identifierLine.getText():null)));
 			           _localctx.id.setLine(((IdentifierContext)_localctx).identifierLine.getLine());
 
 			           ((IdentifierContext)_localctx).line =  ((IdentifierContext)_localctx).identifierLine.getLine();
@@ -4380,6 +4403,7 @@ public class SimpleLOOPParser extends Parser {
 
 	public static class TypeContext extends ParserRuleContext {
 		public Type typeRet;
+		public ArrayList<Expression> dimensionsRet;
 		public Array_typeContext a;
 		public Fptr_typeContext f;
 		public Set_typeContext s;
@@ -4420,6 +4444,7 @@ public class SimpleLOOPParser extends Parser {
 	public final TypeContext type() throws RecognitionException {
 		TypeContext _localctx = new TypeContext(_ctx, getState());
 		enterRule(_localctx, 86, RULE_type);
+		 ((TypeContext)_localctx).dimensionsRet =  new ArrayList<Expression>(); 
 		try {
 			setState(762);
 			_errHandler.sync(this);
@@ -4429,7 +4454,7 @@ public class SimpleLOOPParser extends Parser {
 				{
 				setState(746);
 				match(INT);
-				 ((TypeContext)_localctx).typeRet =  new IntType(); 
+				 ((TypeContext)_localctx).typeRet =  typeFactory.intType(); 
 				}
 				break;
 			case 2:
@@ -4437,7 +4462,7 @@ public class SimpleLOOPParser extends Parser {
 				{
 				setState(748);
 				match(BOOL);
-				 ((TypeContext)_localctx).typeRet =  new BoolType(); 
+				 ((TypeContext)_localctx).typeRet =  typeFactory.boolType(); 
 				}
 				break;
 			case 3:
@@ -4445,7 +4470,7 @@ public class SimpleLOOPParser extends Parser {
 				{
 				setState(750);
 				((TypeContext)_localctx).a = array_type();
-				 ((TypeContext)_localctx).typeRet =  ((TypeContext)_localctx).a.arrayTypeRet; 
+				 ((TypeContext)_localctx).typeRet =  ((TypeContext)_localctx).a.arrayTypeRet; ((TypeContext)_localctx).dimensionsRet =  ((TypeContext)_localctx).a.dimensionsRet; 
 				}
 				break;
 			case 4:
@@ -4470,7 +4495,7 @@ public class SimpleLOOPParser extends Parser {
 				setState(759);
 				((TypeContext)_localctx).c = class_identifier();
 
-				            ((TypeContext)_localctx).typeRet =  new ClassType(((TypeContext)_localctx).c.class_id);
+				            ((TypeContext)_localctx).typeRet =  typeFactory.classType(((TypeContext)_localctx).c.class_id);
 				      
 				}
 				break;
@@ -4489,6 +4514,7 @@ public class SimpleLOOPParser extends Parser {
 
 	public static class Array_typeContext extends ParserRuleContext {
 		public ArrayType arrayTypeRet;
+		public ArrayList<Expression> dimensionsRet;
 		public Type elemType;
 		public ArrayList<Expression> dim;
 		public Class_identifierContext c;
@@ -4545,21 +4571,21 @@ public class SimpleLOOPParser extends Parser {
 				{
 				setState(764);
 				match(INT);
-				 ((Array_typeContext)_localctx).elemType =  new IntType(); 
+				 ((Array_typeContext)_localctx).elemType =  typeFactory.intType(); 
 				}
 				break;
 			case BOOL:
 				{
 				setState(766);
 				match(BOOL);
-				 ((Array_typeContext)_localctx).elemType =  new BoolType(); 
+				 ((Array_typeContext)_localctx).elemType =  typeFactory.boolType(); 
 				}
 				break;
 			case CLASS_IDENTIFIER:
 				{
 				setState(768);
 				((Array_typeContext)_localctx).c = class_identifier();
-				 ((Array_typeContext)_localctx).elemType =  new ClassType(((Array_typeContext)_localctx).c.class_id); 
+				 ((Array_typeContext)_localctx).elemType =  typeFactory.classType(((Array_typeContext)_localctx).c.class_id); 
 				}
 				break;
 			default:
@@ -4585,7 +4611,7 @@ public class SimpleLOOPParser extends Parser {
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			} while ( _la==LBRACK );
-			 ((Array_typeContext)_localctx).arrayTypeRet =  new ArrayType(_localctx.elemType, _localctx.dim); 
+			 ((Array_typeContext)_localctx).arrayTypeRet =  typeFactory.arrayType(_localctx.elemType, _localctx.dim); ((Array_typeContext)_localctx).dimensionsRet =  _localctx.dim; 
 			}
 		}
 		catch (RecognitionException re) {
@@ -4681,7 +4707,7 @@ public class SimpleLOOPParser extends Parser {
 				{
 				setState(795);
 				match(VOID);
-				 ((Fptr_typeContext)_localctx).returnType =  new VoidType(); 
+				 ((Fptr_typeContext)_localctx).returnType =  typeFactory.voidType(); 
 				}
 				break;
 			case INT:
@@ -4700,7 +4726,7 @@ public class SimpleLOOPParser extends Parser {
 			}
 			setState(802);
 			match(GREATER_THAN);
-			 ((Fptr_typeContext)_localctx).fptrTypeRet =  new FptrType(_localctx.argsTypes, _localctx.returnType); 
+			 ((Fptr_typeContext)_localctx).fptrTypeRet =  typeFactory.fptrType(_localctx.argsTypes, _localctx.returnType); 
 			}
 		}
 		catch (RecognitionException re) {
@@ -4829,7 +4855,7 @@ public class SimpleLOOPParser extends Parser {
 			}
 			setState(820);
 			match(GREATER_THAN);
-			 ((Set_typeContext)_localctx).setTypeRet =  new SetType(); 
+			 ((Set_typeContext)_localctx).setTypeRet =  typeFactory.setType(); 
 			}
 		}
 		catch (RecognitionException re) {